@@ -1,6 +1,8 @@
 package pt.mleiria.rl.armedbandit;
 
-import java.util.Random;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+
+import java.util.random.RandomGenerator;
 
 /**
  * An agent that follows the Boltzmann (Softmax) exploration strategy.
@@ -10,14 +12,18 @@ class BoltzmannArmedBanditAgent implements ArmedBanditAgent {
     private final int numArms;
     private final int[] armPullCounts;
     private final double[] estimatedValues;
-    private final Random random;
+    private final RandomGenerator random;
 
     public BoltzmannArmedBanditAgent(int numArms, double temperature) {
+        this(numArms, temperature, RandomUtils.newGenerator());
+    }
+
+    public BoltzmannArmedBanditAgent(int numArms, double temperature, RandomGenerator random) {
         this.numArms = numArms;
         this.temperature = temperature;
         this.armPullCounts = new int[numArms];
         this.estimatedValues = new double[numArms];
-        this.random = new Random();
+        this.random = random;
     }
 
     @Override
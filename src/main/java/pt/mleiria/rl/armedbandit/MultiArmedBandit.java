@@ -1,21 +1,27 @@
 package pt.mleiria.rl.armedbandit;
 
 
-import java.util.Random;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+
+import java.util.random.RandomGenerator;
 
 /**
  * Represents the multi-armed bandit environment.
  */
 class MultiArmedBandit {
     private final double[] probabilities;
-    private final Random random;
+    private final RandomGenerator random;
 
     public MultiArmedBandit(double[] probabilities) {
+        this(probabilities, RandomUtils.newGenerator());
+    }
+
+    public MultiArmedBandit(double[] probabilities, RandomGenerator random) {
         if (probabilities == null || probabilities.length == 0) {
             throw new IllegalArgumentException("Probabilities cannot be null or empty.");
         }
         this.probabilities = probabilities;
-        this.random = new Random();
+        this.random = random;
     }
 
     public int getNumArms() {
@@ -16,7 +16,10 @@ import ai.djl.training.optimizer.Adam;
 import ai.djl.training.tracker.Tracker;
 import ai.djl.translate.Batchifier;
 
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+
 import java.util.*;
+import java.util.random.RandomGenerator;
 
 public class DqnAgent {
 
@@ -34,10 +37,16 @@ public class DqnAgent {
 
     private final Model model;
     private final Trainer trainer;
+    private final RandomGenerator random;
 
     public DqnAgent(int stateSize, int actionSize) {
+        this(stateSize, actionSize, RandomUtils.newGenerator());
+    }
+
+    public DqnAgent(int stateSize, int actionSize, RandomGenerator random) {
         this.stateSize = stateSize;
         this.actionSize = actionSize;
+        this.random = random;
 
         // The Deep Neural Network model
         this.model = buildModel();
@@ -92,8 +101,8 @@ public class DqnAgent {
      * Chooses an action using the Epsilon-Greedy policy.
      */
     public int act(NDManager manager, float[] state) {
-        if (new Random().nextDouble() <= epsilon) {
-            return new Random().nextInt(actionSize); // Explore
+        if (random.nextDouble() <= epsilon) {
+            return random.nextInt(actionSize); // Explore
         }
 
         // Exploit: Use the model to predict the best action
@@ -112,7 +121,7 @@ public class DqnAgent {
         }
 
         List<Experience> minibatch = new LinkedList<>(memory);
-        Collections.shuffle(minibatch);
+        Collections.shuffle(minibatch, random);
         minibatch = minibatch.subList(0, batchSize);
 
         try (NDManager manager = NDManager.newBaseManager()) {
@@ -1,5 +1,7 @@
 package pt.mleiria.rl.mdp.agent;
 
+import pt.mleiria.rl.mdp.qtable.QTable;
+
 public interface Agent {
     /**
      * Chooses an action based on the current state.
@@ -20,12 +22,50 @@ public interface Agent {
      */
     void update(int state, int action, double reward, int nextState, int nextAction);
 
+    /**
+     * Chooses one action for each of a batch of states.
+     *
+     * @param states     The current states; one action is chosen for each element.
+     * @param actionsOut Receives the chosen actions; length at least {@code states.length}.
+     */
+    default void chooseActions(int[] states, int[] actionsOut) {
+        for (int i = 0; i < states.length; i++) {
+            actionsOut[i] = chooseAction(states[i]);
+        }
+    }
+
+    /**
+     * Applies a batch of updates, in order, as if {@link #update(int, int, double, int, int)}
+     * were called for each index {@code i < count}.
+     *
+     * @param states      The current states.
+     * @param actions     The actions taken.
+     * @param rewards     The rewards received.
+     * @param nextStates  The next states after taking the actions.
+     * @param nextActions The actions chosen in the next states.
+     * @param count       The number of transitions in the batch.
+     */
+    default void update(int[] states, int[] actions, double[] rewards, int[] nextStates, int[] nextActions, int count) {
+        for (int i = 0; i < count; i++) {
+            update(states[i], actions[i], rewards[i], nextStates[i], nextActions[i]);
+        }
+    }
+
     /**
      * Returns the Q-table used by the agent.
      *
+     * @return The live Q-table; changes made by further training are visible through it.
+     */
+    QTable getTable();
+
+    /**
+     * Returns a copy of the agent's Q-table as a 2D array.
+     *
      * @return A 2D array representing the Q-table, where rows correspond to states and columns to actions.
      */
-    double[][] getQTable();
+    default double[][] getQTable() {
+        return getTable().toArray();
+    }
 
     /**
      * Returns the name of the agent.
@@ -38,4 +78,33 @@ public interface Agent {
      * Reduces the exploration rate (epsilon) of the agent.
      */
     void reduceEpsilon();
+
+    /**
+     * @return The learning rate.
+     */
+    double getAlpha();
+
+    /**
+     * @return The discount factor.
+     */
+    double getGamma();
+
+    /**
+     * @return The current exploration rate.
+     */
+    double getEpsilon();
+
+    /**
+     * Sets the exploration rate, e.g. to continue a decay schedule when resuming from a checkpoint.
+     *
+     * @param epsilon The exploration rate.
+     */
+    void setEpsilon(double epsilon);
+
+    /**
+     * Called by the trainer after the last update of an episode, so agents that carry state across
+     * steps (such as eligibility traces) can drop it. Does nothing by default.
+     */
+    default void endEpisode() {
+    }
 }
@@ -1,10 +1,14 @@
 package pt.mleiria.rl.mdp.agent;
 
+import pt.mleiria.rl.mdp.kernel.RowKernels;
+import pt.mleiria.rl.mdp.qtable.CachedMaxQTable;
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.qtable.QTablePrecision;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
 import pt.mleiria.rl.mdp.vo.AgentType;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * BaseAgent is an abstract class that implements the Agent interface.
@@ -12,15 +16,17 @@ import java.util.Random;
  * Q-table management, action selection, and basic parameters for learning.
  */
 abstract class BaseAgent implements Agent {
+    protected static final RowKernels KERNELS = RowKernels.get();
+
     protected final AgentType name;
-    protected final double[][] qTable;
+    protected final QTable qTable;
     protected final int numActions;
     protected final double alpha; // Learning rate
     protected final double gamma; // Discount factor
     protected double epsilon; // Exploration rate
     protected final double epsilonMin = 0.01;
     protected final double epsilonDecay = 0.995;
-    protected final Random random = new Random();
+    protected final RandomGenerator random;
 
     /**
      * Constructs a BaseAgent with specified parameters.
@@ -33,12 +39,59 @@ abstract class BaseAgent implements Agent {
      * @param epsilon    The exploration rate.
      */
     public BaseAgent(AgentType name, int numStates, int numActions, double alpha, double gamma, double epsilon) {
+        this(name, new DenseQTable(numStates, numActions), alpha, gamma, epsilon);
+    }
+
+    /**
+     * Constructs a BaseAgent with a new Q-table of the given storage precision.
+     *
+     * @param name       The name of the agent.
+     * @param numStates  The number of states in the environment.
+     * @param numActions The number of actions available to the agent.
+     * @param precision  The storage precision of the Q-table.
+     * @param range      The largest magnitude of a Q-value the table must hold, e.g. about 2048 for Taxi;
+     *                   only {@link QTablePrecision#FIXED16} uses it, and values beyond it saturate.
+     * @param alpha      The learning rate.
+     * @param gamma      The discount factor.
+     * @param epsilon    The exploration rate.
+     */
+    public BaseAgent(AgentType name, int numStates, int numActions, QTablePrecision precision, double range,
+                     double alpha, double gamma, double epsilon) {
+        this(name, precision.newTable(numStates, numActions, range), alpha, gamma, epsilon);
+    }
+
+    /**
+     * Constructs a BaseAgent that learns into an existing Q-table, e.g. one shared with other agents.
+     *
+     * @param name    The name of the agent.
+     * @param qTable  The Q-table to read and update; its dimensions define the state and action spaces.
+     * @param alpha   The learning rate.
+     * @param gamma   The discount factor.
+     * @param epsilon The exploration rate.
+     */
+    public BaseAgent(AgentType name, QTable qTable, double alpha, double gamma, double epsilon) {
+        this(name, qTable, alpha, gamma, epsilon, RandomUtils.newGenerator());
+    }
+
+    /**
+     * Constructs a BaseAgent that learns into an existing Q-table and draws exploration decisions
+     * from the given generator, e.g. a seeded stream or one split off for a parallel worker.
+     *
+     * @param name    The name of the agent.
+     * @param qTable  The Q-table to read and update; its dimensions define the state and action spaces.
+     * @param alpha   The learning rate.
+     * @param gamma   The discount factor.
+     * @param epsilon The exploration rate.
+     * @param random  The source of randomness for action selection.
+     */
+    public BaseAgent(AgentType name, QTable qTable, double alpha, double gamma, double epsilon, RandomGenerator random) {
         this.name = name;
-        this.numActions = numActions;
+        this.random = random;
+        this.numActions = qTable.getNumActions();
         this.alpha = alpha;
         this.gamma = gamma;
         this.epsilon = epsilon;
-        this.qTable = new double[numStates][numActions];
+        this.qTable = qTable;
     }
 
     @Override
@@ -47,7 +100,7 @@ abstract class BaseAgent implements Agent {
     }
 
     @Override
-    public double[][] getQTable() {
+    public QTable getTable() {
         return qTable;
     }
 
@@ -69,21 +122,47 @@ abstract class BaseAgent implements Agent {
         }
     }
 
+    /**
+     * Epsilon-greedy action selection for a batch of states.
+     * Same policy as {@link #chooseAction(int)}, in a single loop without per-state interface dispatch.
+     *
+     * @param states     The current states.
+     * @param actionsOut Receives the chosen actions.
+     */
+    @Override
+    public void chooseActions(int[] states, int[] actionsOut) {
+        for (int i = 0; i < states.length; i++) {
+            actionsOut[i] = random.nextDouble() < epsilon ? random.nextInt(numActions) : findBestAction(states[i]);
+        }
+    }
+
+    /**
+     * Returns the greedy action for a state, breaking ties uniformly at random.
+     * Ties are resolved by reservoir sampling in a single pass, so no per-call allocation is needed:
+     * the k-th tied action replaces the current choice with probability 1/k. On a {@link CachedMaxQTable}
+     * whose maximum is held by a single action that action is returned without scanning the row.
+     *
+     * @param state The current state of the environment.
+     * @return An action with the highest Q-value.
+     */
     protected int findBestAction(int state) {
-        double maxQ = Double.NEGATIVE_INFINITY;
-        final List<Integer> ties = new ArrayList<>();
-        for (int action = 0; action < numActions; action++) {
-            if (qTable[state][action] > maxQ) {
-                maxQ = qTable[state][action];
-                ties.clear();
-                ties.add(action);
-            } else if (qTable[state][action] == maxQ) {
-                // If we find a tie, we add the action to the list of ties
-                ties.add(action);
+        if (qTable instanceof CachedMaxQTable cached && cached.maxCount(state) == 1) {
+            return cached.argMax(state);
+        }
+        double maxQ = qTable.get(state, 0);
+        int bestAction = 0;
+        int ties = 1;
+        for (int action = 1; action < numActions; action++) {
+            final double value = qTable.get(state, action);
+            if (value > maxQ) {
+                maxQ = value;
+                bestAction = action;
+                ties = 1;
+            } else if (value == maxQ && random.nextInt(++ties) == 0) {
+                bestAction = action;
             }
         }
-        // If there are ties, randomly select one of them
-        return ties.get(random.nextInt(ties.size()));
+        return bestAction;
     }
 
     /**
@@ -97,28 +176,62 @@ abstract class BaseAgent implements Agent {
      */
     public void updateSARSA(int state, int action, double reward, int nextState, int nextAction) {
         // Uses the Q-Value of the action that was actually chosen for the next state
-        final double nextQ = qTable[nextState][nextAction];
+        final double nextQ = qTable.get(nextState, nextAction);
 
         // Update the Q-value for the current state-action pair using the SARSA formula
         // qTable[state][action] += alpha * (reward + gamma * nextQ - qTable[state][action]);
         final double tdTarget = reward + gamma * nextQ;
-        final double tdError = tdTarget - qTable[state][action];
-        qTable[state][action] += alpha * tdError;
+        final double tdError = tdTarget - qTable.get(state, action);
+        qTable.add(state, action, alpha * tdError);
     }
 
     protected void updateQLearning(int state, int action, double reward, int nextState, int nextAction) {
         // Find the maximum Q-value for the next state (ignores the actual next action)
-        double maxNextQ = Double.NEGATIVE_INFINITY;
-        for (int a = 0; a < numActions; a++) {
-            if (qTable[nextState][a] > maxNextQ) {
-                maxNextQ = qTable[nextState][a];
-            }
-        }
+        final double maxNextQ = qTable.max(nextState);
         // Update the Q-value for the current state-action pair using the Q-learning formula
         // qTable[state][action] += alpha * (reward + gamma * maxNextQ - qTable[state][action]);
         final double tdTarget = reward + gamma * maxNextQ;
-        final double tdError = tdTarget - qTable[state][action];
-        qTable[state][action] += alpha * tdError;
+        final double tdError = tdTarget - qTable.get(state, action);
+        qTable.add(state, action, alpha * tdError);
+    }
+
+    /**
+     * Applies a batch of SARSA updates in order. On a {@link DenseQTable} the loop works directly on
+     * the backing array; other tables fall back to {@link #updateSARSA}.
+     */
+    protected void updateSARSA(int[] states, int[] actions, double[] rewards, int[] nextStates, int[] nextActions, int count) {
+        if (!(qTable instanceof DenseQTable dense)) {
+            for (int i = 0; i < count; i++) {
+                updateSARSA(states[i], actions[i], rewards[i], nextStates[i], nextActions[i]);
+            }
+            return;
+        }
+        final double[] q = dense.values();
+        for (int i = 0; i < count; i++) {
+            final int sa = states[i] * numActions + actions[i];
+            final double tdTarget = rewards[i] + gamma * q[nextStates[i] * numActions + nextActions[i]];
+            q[sa] += alpha * (tdTarget - q[sa]);
+        }
+    }
+
+    /**
+     * Applies a batch of Q-learning updates in order. On a {@link DenseQTable} the loop, including the
+     * max over the next state's row with {@link RowKernels#max}, works directly on the backing array;
+     * other tables fall back to {@link #updateQLearning}.
+     */
+    protected void updateQLearning(int[] states, int[] actions, double[] rewards, int[] nextStates, int[] nextActions, int count) {
+        if (!(qTable instanceof DenseQTable dense)) {
+            for (int i = 0; i < count; i++) {
+                updateQLearning(states[i], actions[i], rewards[i], nextStates[i], nextActions[i]);
+            }
+            return;
+        }
+        final double[] q = dense.values();
+        for (int i = 0; i < count; i++) {
+            final double maxNextQ = KERNELS.max(q, nextStates[i] * numActions, numActions);
+            final int sa = states[i] * numActions + actions[i];
+            q[sa] += alpha * (rewards[i] + gamma * maxNextQ - q[sa]);
+        }
     }
 
     @Override
@@ -127,4 +240,24 @@ abstract class BaseAgent implements Agent {
             epsilon *= epsilonDecay;
         }
     }
+
+    @Override
+    public double getAlpha() {
+        return alpha;
+    }
+
+    @Override
+    public double getGamma() {
+        return gamma;
+    }
+
+    @Override
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    @Override
+    public void setEpsilon(double epsilon) {
+        this.epsilon = epsilon;
+    }
 }
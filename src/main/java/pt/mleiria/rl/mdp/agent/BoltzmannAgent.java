@@ -1,13 +1,27 @@
 package pt.mleiria.rl.mdp.agent;
 
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.qtable.QTablePrecision;
 import pt.mleiria.rl.mdp.vo.AgentType;
 
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
 public class BoltzmannAgent extends BaseAgent {
 
     // New hyperparameter for Boltzmann
     private double temperature = 1.0; // Initial temperature (can be tuned)
     private double minTemperature = 0.01;
     private double temperatureDecayRate = 0.0005;
+    // Scratch buffers for a copied row and the softmax weights, reused across calls
+    private final double[] row;
+    private final double[] weights;
+    // Per-state cumulative weights, valid for a state while its stamp equals the current epoch; null when off
+    private double[] cumulative;
+    private int[] cachedEpoch;
+    private int epoch = 1;
+    private long rebuilds;
 
 
     /**
@@ -22,11 +36,120 @@ public class BoltzmannAgent extends BaseAgent {
      */
     public BoltzmannAgent(String name, int numStates, int numActions, double alpha, double gamma, double epsilon) {
         super(AgentType.BOLTZMANN, numStates, numActions, alpha, gamma, epsilon);
+        this.row = new double[numActions];
+        this.weights = new double[numActions];
+    }
+
+    /**
+     * Constructs a BoltzmannAgent whose Q-table is stored at the given precision.
+     *
+     * @param numStates  The number of states in the environment.
+     * @param numActions The number of actions available to the agent.
+     * @param precision  The storage precision of the Q-table.
+     * @param range      The largest magnitude of a Q-value the table must hold, e.g. about 2048 for Taxi;
+     *                   only {@link QTablePrecision#FIXED16} uses it, and values beyond it saturate.
+     * @param alpha      The learning rate.
+     * @param gamma      The discount factor.
+     * @param epsilon    The exploration rate.
+     */
+    public BoltzmannAgent(int numStates, int numActions, QTablePrecision precision, double range, double alpha,
+                          double gamma, double epsilon) {
+        super(AgentType.BOLTZMANN, numStates, numActions, precision, range, alpha, gamma, epsilon);
+        this.row = new double[numActions];
+        this.weights = new double[numActions];
+    }
+
+    /**
+     * Constructs a BoltzmannAgent that learns into an existing, possibly shared, Q-table.
+     *
+     * @param qTable  The Q-table to read and update.
+     * @param alpha   The learning rate.
+     * @param gamma   The discount factor.
+     * @param epsilon The exploration rate.
+     */
+    public BoltzmannAgent(QTable qTable, double alpha, double gamma, double epsilon) {
+        super(AgentType.BOLTZMANN, qTable, alpha, gamma, epsilon);
+        this.row = new double[numActions];
+        this.weights = new double[numActions];
+    }
+
+    /**
+     * Constructs a BoltzmannAgent on an existing Q-table with its own source of randomness.
+     *
+     * @param qTable  The Q-table to read and update.
+     * @param alpha   The learning rate.
+     * @param gamma   The discount factor.
+     * @param epsilon The exploration rate.
+     * @param random  The source of randomness for action sampling.
+     */
+    public BoltzmannAgent(QTable qTable, double alpha, double gamma, double epsilon, RandomGenerator random) {
+        super(AgentType.BOLTZMANN, qTable, alpha, gamma, epsilon, random);
+        this.row = new double[numActions];
+        this.weights = new double[numActions];
     }
 
     @Override
     public void update(int state, int action, double reward, int nextState, int nextAction) {
         updateQLearning(state, action, reward, nextState, nextAction);
+        if (cachedEpoch != null) {
+            cachedEpoch[state] = 0;
+        }
+    }
+
+    @Override
+    public void update(int[] states, int[] actions, double[] rewards, int[] nextStates, int[] nextActions, int count) {
+        updateQLearning(states, actions, rewards, nextStates, nextActions, count);
+        if (cachedEpoch != null) {
+            for (int i = 0; i < count; i++) {
+                cachedEpoch[states[i]] = 0;
+            }
+        }
+    }
+
+    /**
+     * Turns the per-state cache of sampling distributions on or off. While it is on, each state keeps its
+     * cumulative softmax weights, so choosing an action in a state whose row and the temperature have not
+     * changed since the last choice there is one random draw and a binary search, with no exponentials. An
+     * {@link #update} marks its state dirty and a temperature change invalidates every state.
+     * <p>
+     * The cache costs {@code numStates * (numActions * 8 + 4)} bytes. It only pays off when states are
+     * sampled repeatedly between updates of their rows: running a trained policy, or several environments
+     * choosing from one agent. In plain online training a state is updated right after each choice there, so
+     * almost every choice rebuilds. Writes to the Q-table that do not go through this agent, e.g. by other
+     * agents sharing it, are not seen; call {@link #invalidateDistributions()} after them.
+     *
+     * @param enabled True to cache; false drops the cache and its memory.
+     */
+    public void setDistributionCache(boolean enabled) {
+        if (!enabled) {
+            cumulative = null;
+            cachedEpoch = null;
+        } else if (cumulative == null) {
+            final int numStates = qTable.getNumStates();
+            cumulative = new double[numStates * numActions];
+            cachedEpoch = new int[numStates];
+        }
+    }
+
+    /**
+     * Marks the cached distribution of every state dirty, after changes to the Q-table made outside this agent.
+     */
+    public void invalidateDistributions() {
+        if (++epoch == 0) {
+            // After 2^32 invalidations stale stamps could match again, so start over with every state dirty
+            if (cachedEpoch != null) {
+                Arrays.fill(cachedEpoch, 0);
+            }
+            epoch = 1;
+        }
+    }
+
+    /**
+     * @return The number of choices that had to compute their state's distribution while the cache was on;
+     * with the number of choices made, a measure of how well the cache works.
+     */
+    public long getDistributionRebuilds() {
+        return rebuilds;
     }
 
     /**
@@ -38,41 +161,34 @@ public class BoltzmannAgent extends BaseAgent {
      */
     @Override
     public int chooseAction(int state) {
-        // 1. Get the Q-values for the current state.
-        double[] qValues = qTable[state];
-
-        // 2. Calculate the exponentiated Q-values, scaled by the temperature.
-        // We add a numerical stability trick here by subtracting the max Q-value
-        // to prevent large values from causing an overflow in Math.exp().
-        double maxQ = Double.NEGATIVE_INFINITY;
-        for (double q : qValues) {
-            if (q > maxQ) {
-                maxQ = q;
-            }
-        }
+        return sampleAction(state);
+    }
 
-        double[] expValues = new double[numActions];
-        double sumOfExpValues = 0.0;
-        for (int i = 0; i < numActions; i++) {
-            // Subtracting maxQ prevents overflow and doesn't change the final probabilities
-            expValues[i] = Math.exp((qValues[i] - maxQ) / temperature);
-            sumOfExpValues += expValues[i];
+    /**
+     * Boltzmann action selection for a batch of states, in one loop over the shared scratch buffer.
+     *
+     * @param states     The current states.
+     * @param actionsOut Receives the chosen actions.
+     */
+    @Override
+    public void chooseActions(int[] states, int[] actionsOut) {
+        for (int i = 0; i < states.length; i++) {
+            actionsOut[i] = sampleAction(states[i]);
         }
+    }
 
-        // 3. Convert the exponentiated values into a probability distribution.
-        double[] probabilities = new double[numActions];
-        for (int i = 0; i < numActions; i++) {
-            probabilities[i] = expValues[i] / sumOfExpValues;
+    private int sampleAction(int state) {
+        if (cumulative != null) {
+            return sampleCached(state);
         }
+        final double sumOfExpValues = exponentiate(state);
 
-        // 4. Sample an action from the calculated probability distribution.
-        // This is done by checking where a random number falls in the cumulative distribution.
-        double cumulativeProb = 0.0;
-        double rand = random.nextDouble();
-
+        // 2. Sample an action by checking where a random number falls in the cumulative distribution.
+        final double rand = random.nextDouble() * sumOfExpValues;
+        double running = 0.0;
         for (int action = 0; action < numActions; action++) {
-            cumulativeProb += probabilities[action];
-            if (rand <= cumulativeProb) {
+            running += weights[action];
+            if (rand < running) {
                 return action;
             }
         }
@@ -80,6 +196,58 @@ public class BoltzmannAgent extends BaseAgent {
         return numActions - 1;
     }
 
+    private int sampleCached(int state) {
+        final int from = state * numActions;
+        if (cachedEpoch[state] != epoch) {
+            rebuilds++;
+            exponentiate(state);
+            double sum = 0.0;
+            for (int action = 0; action < numActions; action++) {
+                sum += weights[action];
+                cumulative[from + action] = sum;
+            }
+            cachedEpoch[state] = epoch;
+        }
+        // The first action whose cumulative weight exceeds the draw, as in the linear scan of sampleAction
+        final double rand = random.nextDouble() * cumulative[from + numActions - 1];
+        int low = 0;
+        int high = numActions - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (rand < cumulative[from + mid]) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Writes the unnormalized softmax weights of the state's Q-values to the scratch weights.
+     *
+     * @return The sum of the weights.
+     */
+    private double exponentiate(int state) {
+        // The row is read in place from a dense table; other tables copy it into the scratch row first
+        final double[] values;
+        final int from;
+        if (qTable instanceof DenseQTable dense) {
+            values = dense.values();
+            from = dense.offset(state);
+        } else {
+            values = qTable.copyRow(state, row);
+            from = 0;
+        }
+
+        // 1. Exponentiate the Q-values, scaled by the temperature, and sum them in one kernel call.
+        // We add a numerical stability trick here by subtracting the max Q-value
+        // to prevent large values from causing an overflow in Math.exp().
+        // The weights are left unnormalized; the sample is scaled by their sum instead.
+        final double maxQ = KERNELS.max(values, from, numActions);
+        return KERNELS.expShifted(values, from, numActions, maxQ, 1.0 / temperature, weights);
+    }
+
     /**
      * Call this method at the end of each training episode to decay the temperature.
      * This makes the agent's choices less random and more greedy over time.
@@ -87,6 +255,11 @@ public class BoltzmannAgent extends BaseAgent {
      * @param episode The current episode number.
      */
     public void decayTemperature(int episode) {
-        temperature = minTemperature + (1.0 - minTemperature) * Math.exp(-temperatureDecayRate * episode);
+        final double decayed = minTemperature + (1.0 - minTemperature) * Math.exp(-temperatureDecayRate * episode);
+        if (decayed != temperature) {
+            temperature = decayed;
+            // Every cached distribution was computed at the old temperature
+            invalidateDistributions();
+        }
     }
 }
@@ -0,0 +1,149 @@
+package pt.mleiria.rl.mdp.agent;
+
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.utils.IndexedMaxPriorityQueue;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.AgentType;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Dyna-Q with prioritized sweeping.
+ * <p>
+ * Besides its Q-table the agent keeps a tabular model holding the last observed outcome (next state
+ * and reward) of every (state, action) pair. Each real transition is queued by the magnitude of its
+ * Q-learning TD error, and then up to {@code planningSteps} backups are replayed from the model in
+ * priority order. After a pair's value changes, every pair known to lead into its state is re-queued
+ * with its own TD error, so value changes propagate backwards from where they happen.
+ * <p>
+ * Everything is stored in primitive arrays indexed by {@code state * numActions + action}: the model,
+ * the indexed priority queue, and the predecessor lists, which are intrusive doubly linked lists
+ * (each pair is linked into the list of its current model next state). No update allocates.
+ */
+public class DynaQAgent extends BaseAgent {
+
+    private static final int UNSEEN = -1;
+
+    private final int planningSteps;
+    private final double priorityThreshold;
+
+    private final int[] modelNext;
+    private final double[] modelReward;
+    private final int[] predecessorHead;
+    private final int[] predecessorNext;
+    private final int[] predecessorPrev;
+    private final IndexedMaxPriorityQueue queue;
+
+    /**
+     * Constructs a Dyna-Q agent with 10 planning steps per real step.
+     *
+     * @param numStates  The number of states in the environment.
+     * @param numActions The number of actions available to the agent.
+     */
+    public DynaQAgent(int numStates, int numActions) {
+        this(new DenseQTable(numStates, numActions), 10, 1e-4, RandomUtils.newGenerator());
+    }
+
+    /**
+     * Constructs a Dyna-Q agent on an existing Q-table.
+     *
+     * @param qTable            The Q-table to read and update.
+     * @param planningSteps     The maximum number of model backups per real step; at least 1.
+     * @param priorityThreshold The smallest |TD error| worth queuing.
+     * @param random            The source of randomness for action selection.
+     */
+    public DynaQAgent(QTable qTable, int planningSteps, double priorityThreshold, RandomGenerator random) {
+        super(AgentType.DYNA_Q, qTable, 0.5, 0.99, 0.1, random);
+        if (planningSteps < 1) {
+            throw new IllegalArgumentException("Number of planning steps must be at least 1.");
+        }
+        this.planningSteps = planningSteps;
+        this.priorityThreshold = priorityThreshold;
+        final int numPairs = qTable.getNumStates() * numActions;
+        this.modelNext = new int[numPairs];
+        this.modelReward = new double[numPairs];
+        this.predecessorHead = new int[qTable.getNumStates()];
+        this.predecessorNext = new int[numPairs];
+        this.predecessorPrev = new int[numPairs];
+        this.queue = new IndexedMaxPriorityQueue(numPairs);
+        Arrays.fill(modelNext, UNSEEN);
+        Arrays.fill(predecessorHead, UNSEEN);
+    }
+
+    /**
+     * Records the transition in the model, queues it by its TD error and runs the planning backups.
+     *
+     * @param state      The current state.
+     * @param action     The action taken.
+     * @param reward     The reward received.
+     * @param nextState  The next state after taking the action.
+     * @param nextAction The action chosen in the next state (not used, the backups are off-policy).
+     */
+    @Override
+    public void update(int state, int action, double reward, int nextState, int nextAction) {
+        final int pair = state * numActions + action;
+        recordTransition(pair, reward, nextState);
+        queueIfWorthwhile(pair);
+        for (int i = 0; i < planningSteps && !queue.isEmpty(); i++) {
+            final int planned = queue.poll();
+            final int plannedState = planned / numActions;
+            updateQLearning(plannedState, planned % numActions, modelReward[planned], modelNext[planned], 0);
+            for (int p = predecessorHead[plannedState]; p != UNSEEN; p = predecessorNext[p]) {
+                queueIfWorthwhile(p);
+            }
+        }
+    }
+
+    /**
+     * @return The number of (state, action) pairs currently waiting for a planning backup.
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    private void queueIfWorthwhile(int pair) {
+        final double tdError = modelReward[pair] + gamma * qTable.max(modelNext[pair])
+                - qTable.get(pair / numActions, pair % numActions);
+        final double priority = Math.abs(tdError);
+        if (priority > priorityThreshold) {
+            queue.offer(pair, priority);
+        }
+    }
+
+    /**
+     * Stores the latest outcome of a pair, moving it to the predecessor list of its new next state
+     * if the outcome changed (which only happens in environments that are not deterministic).
+     */
+    private void recordTransition(int pair, double reward, int nextState) {
+        modelReward[pair] = reward;
+        final int previousNext = modelNext[pair];
+        if (previousNext == nextState) {
+            return;
+        }
+        if (previousNext != UNSEEN) {
+            unlink(pair, previousNext);
+        }
+        modelNext[pair] = nextState;
+        predecessorPrev[pair] = UNSEEN;
+        predecessorNext[pair] = predecessorHead[nextState];
+        if (predecessorHead[nextState] != UNSEEN) {
+            predecessorPrev[predecessorHead[nextState]] = pair;
+        }
+        predecessorHead[nextState] = pair;
+    }
+
+    private void unlink(int pair, int listState) {
+        final int prev = predecessorPrev[pair];
+        final int next = predecessorNext[pair];
+        if (prev == UNSEEN) {
+            predecessorHead[listState] = next;
+        } else {
+            predecessorNext[prev] = next;
+        }
+        if (next != UNSEEN) {
+            predecessorPrev[next] = prev;
+        }
+    }
+}
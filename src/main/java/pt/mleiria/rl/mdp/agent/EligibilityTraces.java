@@ -0,0 +1,116 @@
+package pt.mleiria.rl.mdp.agent;
+
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.qtable.QTable;
+
+import java.util.Arrays;
+
+/**
+ * Eligibility traces over (state, action) pairs, stored sparsely.
+ * <p>
+ * Trace values live in a dense array indexed by {@code state * numActions + action}, and the indices of
+ * the non-zero ones are kept in an active list (with a reverse index for O(1) membership). Applying a TD
+ * error, decaying and clearing therefore cost O(active traces) rather than O(states x actions). A trace
+ * that decays below the threshold is dropped from the active list; with decay factor {@code gamma * lambda}
+ * this bounds the list to roughly {@code log(threshold) / log(gamma * lambda)} of the most recent pairs.
+ */
+class EligibilityTraces {
+
+    private static final int INACTIVE = -1;
+
+    private final int numActions;
+    private final double threshold;
+    private final double[] trace;
+    private final int[] active;
+    private final int[] activePosition;
+    private int size;
+
+    /**
+     * @param numStates  The number of states.
+     * @param numActions The number of actions per state.
+     * @param threshold  Traces below this value are dropped.
+     */
+    EligibilityTraces(int numStates, int numActions, double threshold) {
+        this.numActions = numActions;
+        this.threshold = threshold;
+        this.trace = new double[numStates * numActions];
+        this.active = new int[numStates * numActions];
+        this.activePosition = new int[numStates * numActions];
+        Arrays.fill(activePosition, INACTIVE);
+    }
+
+    /**
+     * Sets the trace of a pair to 1 ("replacing" traces), activating it if needed.
+     */
+    void replace(int state, int action) {
+        final int index = state * numActions + action;
+        if (activePosition[index] == INACTIVE) {
+            activePosition[index] = size;
+            active[size++] = index;
+        }
+        trace[index] = 1.0;
+    }
+
+    /**
+     * Adds {@code step * trace} to the Q-value of every active pair, then multiplies every trace by
+     * {@code decay}, dropping those that fall below the threshold. Both happen in a single pass.
+     *
+     * @param qTable The Q-table to update.
+     * @param step   The learning rate times the TD error.
+     * @param decay  The trace decay factor, usually {@code gamma * lambda}.
+     */
+    void applyAndDecay(QTable qTable, double step, double decay) {
+        final double[] q = qTable instanceof DenseQTable dense ? dense.values() : null;
+        int i = 0;
+        while (i < size) {
+            final int index = active[i];
+            if (q != null) {
+                q[index] += step * trace[index];
+            } else {
+                qTable.add(index / numActions, index % numActions, step * trace[index]);
+            }
+            trace[index] *= decay;
+            if (trace[index] < threshold) {
+                // Swap-remove; the moved entry is visited next
+                deactivate(i);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Zeroes every trace, in O(active).
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            trace[active[i]] = 0.0;
+            activePosition[active[i]] = INACTIVE;
+        }
+        size = 0;
+    }
+
+    /**
+     * @return The number of non-zero traces.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return The trace of a pair; zero if it is not active.
+     */
+    double get(int state, int action) {
+        return trace[state * numActions + action];
+    }
+
+    private void deactivate(int position) {
+        final int index = active[position];
+        final int last = active[--size];
+        active[position] = last;
+        activePosition[last] = position;
+        // After the move, so this also holds when the removed entry was the last one
+        trace[index] = 0.0;
+        activePosition[index] = INACTIVE;
+    }
+}
@@ -1,7 +1,11 @@
 package pt.mleiria.rl.mdp.agent;
 
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.qtable.QTablePrecision;
 import pt.mleiria.rl.mdp.vo.AgentType;
 
+import java.util.random.RandomGenerator;
+
 public class QLearningAgent extends BaseAgent {
 
     /**
@@ -14,6 +18,38 @@ public class QLearningAgent extends BaseAgent {
         super(AgentType.Q_LEARNING, numStates, numActions, 0.5, 0.99, 0.1);
     }
 
+    /**
+     * Constructs a Q-Learning agent whose Q-table is stored at the given precision.
+     *
+     * @param numStates  The number of states in the environment.
+     * @param numActions The number of actions available to the agent.
+     * @param precision  The storage precision of the Q-table.
+     * @param range      The largest magnitude of a Q-value the table must hold, e.g. about 2048 for Taxi;
+     *                   only {@link QTablePrecision#FIXED16} uses it, and values beyond it saturate.
+     */
+    public QLearningAgent(int numStates, int numActions, QTablePrecision precision, double range) {
+        super(AgentType.Q_LEARNING, numStates, numActions, precision, range, 0.5, 0.99, 0.1);
+    }
+
+    /**
+     * Constructs a Q-Learning agent that learns into an existing, possibly shared, Q-table.
+     *
+     * @param qTable The Q-table to read and update.
+     */
+    public QLearningAgent(QTable qTable) {
+        super(AgentType.Q_LEARNING, qTable, 0.5, 0.99, 0.1);
+    }
+
+    /**
+     * Constructs a Q-Learning agent on an existing Q-table with its own source of randomness.
+     *
+     * @param qTable The Q-table to read and update.
+     * @param random The source of randomness for action selection.
+     */
+    public QLearningAgent(QTable qTable, RandomGenerator random) {
+        super(AgentType.Q_LEARNING, qTable, 0.5, 0.99, 0.1, random);
+    }
+
     /**
      * Updates the Q-value for the given state-action pair using the Q-learning update rule.
      *
@@ -27,4 +63,9 @@ public class QLearningAgent extends BaseAgent {
     public void update(int state, int action, double reward, int nextState, int nextAction) {
         updateQLearning(state, action, reward, nextState, nextAction);
     }
+
+    @Override
+    public void update(int[] states, int[] actions, double[] rewards, int[] nextStates, int[] nextActions, int count) {
+        updateQLearning(states, actions, rewards, nextStates, nextActions, count);
+    }
 }
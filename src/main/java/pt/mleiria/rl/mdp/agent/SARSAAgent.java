@@ -1,7 +1,11 @@
 package pt.mleiria.rl.mdp.agent;
 
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.qtable.QTablePrecision;
 import pt.mleiria.rl.mdp.vo.AgentType;
 
+import java.util.random.RandomGenerator;
+
 public class SARSAAgent extends  BaseAgent {
     /**
      * Constructs a SARSA agent with specified parameters.
@@ -13,6 +17,38 @@ public class SARSAAgent extends  BaseAgent {
         super(AgentType.SARSA, numStates, numActions, 0.5, 0.99, 0.1);
     }
 
+    /**
+     * Constructs a SARSA agent whose Q-table is stored at the given precision.
+     *
+     * @param numStates  The number of states in the environment.
+     * @param numActions The number of actions available to the agent.
+     * @param precision  The storage precision of the Q-table.
+     * @param range      The largest magnitude of a Q-value the table must hold, e.g. about 2048 for Taxi;
+     *                   only {@link QTablePrecision#FIXED16} uses it, and values beyond it saturate.
+     */
+    public SARSAAgent(final int numStates, final int numActions, final QTablePrecision precision, final double range) {
+        super(AgentType.SARSA, numStates, numActions, precision, range, 0.5, 0.99, 0.1);
+    }
+
+    /**
+     * Constructs a SARSA agent that learns into an existing, possibly shared, Q-table.
+     *
+     * @param qTable The Q-table to read and update.
+     */
+    public SARSAAgent(final QTable qTable) {
+        super(AgentType.SARSA, qTable, 0.5, 0.99, 0.1);
+    }
+
+    /**
+     * Constructs a SARSA agent on an existing Q-table with its own source of randomness.
+     *
+     * @param qTable The Q-table to read and update.
+     * @param random The source of randomness for action selection.
+     */
+    public SARSAAgent(final QTable qTable, final RandomGenerator random) {
+        super(AgentType.SARSA, qTable, 0.5, 0.99, 0.1, random);
+    }
+
     /**
      * Updates the Q-value for the given state-action pair using the SARSA update rule.
      *
@@ -27,5 +63,10 @@ public class SARSAAgent extends  BaseAgent {
         updateSARSA(state, action, reward, nextState, nextAction);
     }
 
+    @Override
+    public void update(int[] states, int[] actions, double[] rewards, int[] nextStates, int[] nextActions, int count) {
+        updateSARSA(states, actions, rewards, nextStates, nextActions, count);
+    }
+
 
 }
@@ -0,0 +1,74 @@
+package pt.mleiria.rl.mdp.agent;
+
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.AgentType;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * SARSA(lambda) with replacing eligibility traces.
+ * <p>
+ * Every TD error is applied to all recently visited (state, action) pairs in proportion to their
+ * trace, which decays by {@code gamma * lambda} per step. Traces are sparse (see {@link EligibilityTraces}),
+ * so a step costs O(active traces). Traces are cleared in {@link #endEpisode()}, which
+ * {@code MainEvaluator.trainAgent} calls after every episode; they follow a single trajectory, so this
+ * agent is not meant for batched training over several environments at once.
+ */
+public class SARSALambdaAgent extends BaseAgent {
+
+    private static final double TRACE_THRESHOLD = 1e-3;
+
+    private final double lambda;
+    private final EligibilityTraces traces;
+
+    /**
+     * Constructs a SARSA(lambda) agent with lambda 0.9.
+     *
+     * @param numStates  The number of states in the environment.
+     * @param numActions The number of actions available to the agent.
+     */
+    public SARSALambdaAgent(int numStates, int numActions) {
+        this(new DenseQTable(numStates, numActions), 0.5, 0.99, 0.1, 0.9, RandomUtils.newGenerator());
+    }
+
+    /**
+     * Constructs a SARSA(lambda) agent on an existing Q-table.
+     *
+     * @param qTable  The Q-table to read and update.
+     * @param alpha   The learning rate.
+     * @param gamma   The discount factor.
+     * @param epsilon The exploration rate.
+     * @param lambda  The trace decay parameter, in [0, 1]; 0 gives one-step SARSA.
+     * @param random  The source of randomness for action selection.
+     */
+    public SARSALambdaAgent(QTable qTable, double alpha, double gamma, double epsilon, double lambda,
+                            RandomGenerator random) {
+        super(AgentType.SARSA_LAMBDA, qTable, alpha, gamma, epsilon, random);
+        if (lambda < 0.0 || lambda > 1.0) {
+            throw new IllegalArgumentException("Lambda must be in [0, 1]: " + lambda);
+        }
+        this.lambda = lambda;
+        this.traces = new EligibilityTraces(qTable.getNumStates(), numActions, TRACE_THRESHOLD);
+    }
+
+    @Override
+    public void update(int state, int action, double reward, int nextState, int nextAction) {
+        final double tdError = reward + gamma * qTable.get(nextState, nextAction) - qTable.get(state, action);
+        traces.replace(state, action);
+        traces.applyAndDecay(qTable, alpha * tdError, gamma * lambda);
+    }
+
+    @Override
+    public void endEpisode() {
+        traces.clear();
+    }
+
+    /**
+     * @return The number of (state, action) pairs with a non-zero trace.
+     */
+    public int getActiveTraceCount() {
+        return traces.size();
+    }
+}
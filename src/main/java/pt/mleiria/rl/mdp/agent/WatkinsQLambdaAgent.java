@@ -0,0 +1,78 @@
+package pt.mleiria.rl.mdp.agent;
+
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.AgentType;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Watkins's Q(lambda) with replacing eligibility traces.
+ * <p>
+ * Like {@link SARSALambdaAgent}, but the TD error bootstraps from the greedy value of the next state,
+ * and traces are only carried over while the agent keeps acting greedily: once the next action is
+ * exploratory the earlier pairs no longer lead along the greedy policy, so all traces are cut.
+ * Traces are sparse and cleared in {@link #endEpisode()}, so a step costs O(active traces).
+ */
+public class WatkinsQLambdaAgent extends BaseAgent {
+
+    private static final double TRACE_THRESHOLD = 1e-3;
+
+    private final double lambda;
+    private final EligibilityTraces traces;
+
+    /**
+     * Constructs a Q(lambda) agent with lambda 0.9.
+     *
+     * @param numStates  The number of states in the environment.
+     * @param numActions The number of actions available to the agent.
+     */
+    public WatkinsQLambdaAgent(int numStates, int numActions) {
+        this(new DenseQTable(numStates, numActions), 0.5, 0.99, 0.1, 0.9, RandomUtils.newGenerator());
+    }
+
+    /**
+     * Constructs a Q(lambda) agent on an existing Q-table.
+     *
+     * @param qTable  The Q-table to read and update.
+     * @param alpha   The learning rate.
+     * @param gamma   The discount factor.
+     * @param epsilon The exploration rate.
+     * @param lambda  The trace decay parameter, in [0, 1]; 0 gives one-step Q-learning.
+     * @param random  The source of randomness for action selection.
+     */
+    public WatkinsQLambdaAgent(QTable qTable, double alpha, double gamma, double epsilon, double lambda,
+                               RandomGenerator random) {
+        super(AgentType.Q_LAMBDA, qTable, alpha, gamma, epsilon, random);
+        if (lambda < 0.0 || lambda > 1.0) {
+            throw new IllegalArgumentException("Lambda must be in [0, 1]: " + lambda);
+        }
+        this.lambda = lambda;
+        this.traces = new EligibilityTraces(qTable.getNumStates(), numActions, TRACE_THRESHOLD);
+    }
+
+    @Override
+    public void update(int state, int action, double reward, int nextState, int nextAction) {
+        final double maxNextQ = qTable.max(nextState);
+        final boolean greedyNext = qTable.get(nextState, nextAction) == maxNextQ;
+        final double tdError = reward + gamma * maxNextQ - qTable.get(state, action);
+        traces.replace(state, action);
+        traces.applyAndDecay(qTable, alpha * tdError, gamma * lambda);
+        if (!greedyNext) {
+            traces.clear();
+        }
+    }
+
+    @Override
+    public void endEpisode() {
+        traces.clear();
+    }
+
+    /**
+     * @return The number of (state, action) pairs with a non-zero trace.
+     */
+    public int getActiveTraceCount() {
+        return traces.size();
+    }
+}
@@ -0,0 +1,127 @@
+package pt.mleiria.rl.mdp.checkpoint;
+
+import pt.mleiria.rl.mdp.agent.Agent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes a checkpoint of an agent's Q-table every N episodes from a background thread.
+ * <p>
+ * At a snapshot episode the training thread only copies the table into a preallocated buffer and hands
+ * it over; the file is written by a single daemon thread. If the previous snapshot is still being
+ * written, the new one is skipped rather than making the trainer wait, so each snapshot is consistent
+ * and training never blocks on I/O. Every write replaces the same file atomically.
+ */
+public class AsyncCheckpointer implements AutoCloseable {
+
+    private final Path path;
+    private final int interval;
+    private final long firstEpisode;
+    private final ExecutorService writer;
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private ByteBuffer values;
+    private volatile IOException failure;
+    private volatile int written;
+    private int skipped;
+
+    /**
+     * @param path     The checkpoint file to keep up to date.
+     * @param interval Snapshot every this many episodes.
+     */
+    public AsyncCheckpointer(Path path, int interval) {
+        this(path, interval, 0);
+    }
+
+    /**
+     * @param path         The checkpoint file to keep up to date.
+     * @param interval     Snapshot every this many episodes.
+     * @param firstEpisode The number of episodes already trained, e.g. when resuming; added to the episode
+     *                     counts stored in the checkpoints.
+     */
+    public AsyncCheckpointer(Path path, int interval, long firstEpisode) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Snapshot interval must be positive.");
+        }
+        this.path = path;
+        this.interval = interval;
+        this.firstEpisode = firstEpisode;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Called by the trainer after each episode; takes a snapshot when {@code episodes} is a multiple of
+     * the interval and no earlier snapshot is still being written.
+     *
+     * @param agent    The agent being trained.
+     * @param episodes The number of episodes completed in this run.
+     */
+    public void onEpisodeEnd(Agent agent, int episodes) {
+        if (episodes % interval != 0) {
+            return;
+        }
+        if (!writing.compareAndSet(false, true)) {
+            skipped++;
+            return;
+        }
+        if (values == null) {
+            values = QTableCheckpoint.allocateValues(agent.getTable().getNumStates(), agent.getTable().getNumActions());
+        }
+        QTableCheckpoint.fillValues(agent.getTable(), values);
+        final CheckpointHeader header = CheckpointHeader.of(agent, firstEpisode + episodes);
+        writer.execute(() -> {
+            try {
+                QTableCheckpoint.write(path, header, values);
+                written++;
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                writing.set(false);
+            }
+        });
+    }
+
+    /**
+     * @return The number of snapshots written so far.
+     */
+    public int getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * @return The number of snapshots skipped because the previous one was still being written.
+     */
+    public int getSkippedCount() {
+        return skipped;
+    }
+
+    /**
+     * Waits for an in-flight snapshot to finish and stops the writer thread.
+     *
+     * @throws IOException If any snapshot failed to be written.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(1, TimeUnit.MINUTES)) {
+                throw new IOException("Timed out waiting for the checkpoint writer");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the checkpoint writer", e);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package pt.mleiria.rl.mdp.checkpoint;
+
+import pt.mleiria.rl.mdp.agent.Agent;
+
+/**
+ * The metadata stored in front of the values of a Q-table checkpoint.
+ *
+ * @param numStates  The number of states of the table.
+ * @param numActions The number of actions of the table.
+ * @param agentType  The name of the agent type that produced it, e.g. {@code Q_LEARNING}.
+ * @param alpha      The agent's learning rate.
+ * @param gamma      The agent's discount factor.
+ * @param epsilon    The agent's exploration rate when the checkpoint was taken.
+ * @param episode    The number of episodes trained when the checkpoint was taken.
+ */
+public record CheckpointHeader(int numStates, int numActions, String agentType, double alpha, double gamma,
+                               double epsilon, long episode) {
+
+    /**
+     * Captures the current state of an agent.
+     *
+     * @param agent   The agent.
+     * @param episode The number of episodes trained so far.
+     * @return The header describing the agent's Q-table.
+     */
+    public static CheckpointHeader of(Agent agent, long episode) {
+        return new CheckpointHeader(agent.getTable().getNumStates(), agent.getTable().getNumActions(),
+                agent.getName(), agent.getAlpha(), agent.getGamma(), agent.getEpsilon(), episode);
+    }
+}
@@ -0,0 +1,205 @@
+package pt.mleiria.rl.mdp.checkpoint;
+
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.qtable.MappedQTable;
+import pt.mleiria.rl.mdp.qtable.QTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes Q-tables in a versioned binary checkpoint format.
+ * <p>
+ * A checkpoint is a fixed {@value #HEADER_BYTES}-byte header followed by the raw values, all little-endian:
+ * <pre>
+ *  offset  size  field
+ *       0     4  magic "RLQT"
+ *       4     4  format version
+ *       8     4  number of states
+ *      12     4  number of actions
+ *      16     8  alpha
+ *      24     8  gamma
+ *      32     8  epsilon
+ *      40     8  episode
+ *      48     2  agent type name length n, then n bytes of ASCII
+ *     128   8*S*A  values, row-major (state * numActions + action)
+ * </pre>
+ * The header size keeps the value block 8-byte aligned, so it can be mapped and read in place.
+ * Files are written to a temporary sibling and then moved into place, so a reader never sees a
+ * half-written checkpoint.
+ */
+public final class QTableCheckpoint {
+
+    public static final int MAGIC = 0x52_4C_51_54; // "RLQT"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 128;
+
+    private static final int NAME_OFFSET = 48;
+    private static final int MAX_NAME_BYTES = HEADER_BYTES - NAME_OFFSET - 2;
+
+    private QTableCheckpoint() {
+    }
+
+    /**
+     * Writes a Q-table checkpoint.
+     *
+     * @param path   The destination file.
+     * @param qTable The table to save.
+     * @param header The metadata to store with it; its dimensions must match the table.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Path path, QTable qTable, CheckpointHeader header) throws IOException {
+        final ByteBuffer values = allocateValues(qTable.getNumStates(), qTable.getNumActions());
+        fillValues(qTable, values);
+        write(path, header, values);
+    }
+
+    /**
+     * Reads only the header of a checkpoint.
+     *
+     * @param path The checkpoint file.
+     * @return The header.
+     * @throws IOException If the file cannot be read or is not a valid checkpoint.
+     */
+    public static CheckpointHeader readHeader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Truncated checkpoint header: " + path);
+                }
+            }
+            return decodeHeader(buffer.flip(), channel.size(), path);
+        }
+    }
+
+    /**
+     * Maps a checkpoint into memory and returns a read-only view of its values, without copying them.
+     * The mapping stays valid after this method returns and is released when the table is garbage collected.
+     *
+     * @param path The checkpoint file.
+     * @return A read-only table backed by the file.
+     * @throws IOException If the file cannot be read or is not a valid checkpoint.
+     */
+    public static MappedQTable map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            final CheckpointHeader header = decodeHeader(mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN), channel.size(), path);
+            final ByteBuffer values = mapped.position(HEADER_BYTES).slice().order(ByteOrder.LITTLE_ENDIAN);
+            return new MappedQTable(header.numStates(), header.numActions(), values.asDoubleBuffer());
+        }
+    }
+
+    /**
+     * Loads a checkpoint into a new, writable {@link DenseQTable}, e.g. to resume training.
+     * The values are copied from a memory mapping in one bulk transfer.
+     *
+     * @param path The checkpoint file.
+     * @return A table holding the checkpoint's values.
+     * @throws IOException If the file cannot be read or is not a valid checkpoint.
+     */
+    public static DenseQTable load(Path path) throws IOException {
+        final MappedQTable mapped = map(path);
+        final DenseQTable table = new DenseQTable(mapped.getNumStates(), mapped.getNumActions());
+        mapped.copyTo(table.values());
+        return table;
+    }
+
+    static ByteBuffer allocateValues(int numStates, int numActions) {
+        return ByteBuffer.allocateDirect(numStates * numActions * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Copies a table's values into a little-endian buffer sized by {@link #allocateValues}.
+     */
+    static void fillValues(QTable qTable, ByteBuffer values) {
+        values.clear();
+        if (qTable instanceof DenseQTable dense) {
+            values.asDoubleBuffer().put(dense.values());
+        } else {
+            final int numActions = qTable.getNumActions();
+            for (int state = 0; state < qTable.getNumStates(); state++) {
+                for (int action = 0; action < numActions; action++) {
+                    values.putDouble((state * numActions + action) * Double.BYTES, qTable.get(state, action));
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a header and a prepared value buffer to a temporary file, then moves it over {@code path}.
+     */
+    static void write(Path path, CheckpointHeader header, ByteBuffer values) throws IOException {
+        if ((long) header.numStates() * header.numActions() * Double.BYTES != values.capacity()) {
+            throw new IllegalArgumentException("Header dimensions do not match the values");
+        }
+        final Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer headerBuffer = encodeHeader(header);
+            while (headerBuffer.hasRemaining()) {
+                channel.write(headerBuffer);
+            }
+            values.clear();
+            while (values.hasRemaining()) {
+                channel.write(values);
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static ByteBuffer encodeHeader(CheckpointHeader header) {
+        final byte[] name = header.agentType().getBytes(StandardCharsets.US_ASCII);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Agent type name too long: " + header.agentType());
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(header.numStates())
+                .putInt(header.numActions())
+                .putDouble(header.alpha())
+                .putDouble(header.gamma())
+                .putDouble(header.epsilon())
+                .putLong(header.episode())
+                .putShort((short) name.length)
+                .put(name);
+        return buffer.clear();
+    }
+
+    private static CheckpointHeader decodeHeader(ByteBuffer buffer, long fileSize, Path path) throws IOException {
+        if (fileSize < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a Q-table checkpoint: " + path);
+        }
+        final int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version + ": " + path);
+        }
+        final int numStates = buffer.getInt(8);
+        final int numActions = buffer.getInt(12);
+        if (numStates <= 0 || numActions <= 0) {
+            throw new IOException("Checkpoint dimensions must be positive, got " + numStates + " x " + numActions
+                    + ": " + path);
+        }
+        if (fileSize != HEADER_BYTES + (long) numStates * numActions * Double.BYTES) {
+            throw new IOException("Checkpoint size does not match its header: " + path);
+        }
+        final int nameLength = buffer.getShort(NAME_OFFSET);
+        if (nameLength < 0 || nameLength > MAX_NAME_BYTES) {
+            throw new IOException("Invalid agent type name length " + nameLength + ": " + path);
+        }
+        final byte[] name = new byte[nameLength];
+        buffer.get(NAME_OFFSET + 2, name);
+        return new CheckpointHeader(numStates, numActions, new String(name, StandardCharsets.US_ASCII),
+                buffer.getDouble(16), buffer.getDouble(24), buffer.getDouble(32), buffer.getLong(40));
+    }
+}
@@ -1,13 +1,14 @@
 package pt.mleiria.rl.mdp.env;
 
-import pt.mleiria.rl.mdp.vo.StepResult;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
-public class CliffWalkingEnvironment implements Environment {
+public class CliffWalkingEnvironment implements SettableEnvironment, Snapshottable {
     private static final int N_ROWS = 4; // Number of rows in the grid
     private static final int N_COLS = 12; // Number of columns in the grid
     private static final int NUM_STATES = N_ROWS * N_COLS; // Total number of states in the grid
@@ -16,10 +17,17 @@ public class CliffWalkingEnvironment implements Environment {
     private static final int GOAL_STATE = 47; // Goal state (row 3, column 11)
     private static final Set<Integer> CLIFF_STATES = new HashSet<>();
 
+    private static final Map<Integer, String> SPECIAL_STATES;
+
     static {
         for (int i = 37; i < 47; i++) {
             CLIFF_STATES.add(i);
         }
+        final Map<Integer, String> special = new HashMap<>();
+        special.put(START_STATE, "S");
+        special.put(GOAL_STATE, "G");
+        CLIFF_STATES.forEach(c -> special.put(c, "C"));
+        SPECIAL_STATES = Collections.unmodifiableMap(special);
     }
 
     private int currentState;
@@ -46,7 +54,22 @@ public class CliffWalkingEnvironment implements Environment {
     }
 
     @Override
-    public StepResult step(int action) {
+    public void setState(int state) {
+        this.currentState = state;
+    }
+
+    @Override
+    public long snapshot() {
+        return currentState;
+    }
+
+    @Override
+    public void restore(long snapshot) {
+        this.currentState = (int) snapshot;
+    }
+
+    @Override
+    public void step(int action, MutableStepResult result) {
         int row = currentState / N_COLS;
         int col = currentState % N_COLS;
 
@@ -60,14 +83,16 @@ public class CliffWalkingEnvironment implements Environment {
         if (CLIFF_STATES.contains(this.currentState)) {
             // Fell off the cliff, send back to start
             this.currentState = START_STATE;
-            return new StepResult(this.currentState, -100.0, true);
+            result.set(this.currentState, -100.0, true);
+            return;
         }
 
         if (this.currentState == GOAL_STATE) {
-            return new StepResult(this.currentState, -1.0, true);
+            result.set(this.currentState, -1.0, true);
+            return;
         }
 
-        return new StepResult(this.currentState, -1.0, false);
+        result.set(this.currentState, -1.0, false);
     }
 
     @Override
@@ -82,10 +107,6 @@ public class CliffWalkingEnvironment implements Environment {
 
     @Override
     public Map<Integer, String> getSpecialStates() {
-        final Map<Integer, String> special = new HashMap<>();
-        special.put(START_STATE, "S");
-        special.put(GOAL_STATE, "G");
-        CLIFF_STATES.forEach(c -> special.put(c, "C"));
-        return special;
+        return SPECIAL_STATES;
     }
 }
@@ -0,0 +1,142 @@
+package pt.mleiria.rl.mdp.env;
+
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+
+import java.util.Map;
+
+/**
+ * A deterministic environment compiled into lookup tables.
+ * <p>
+ * On construction every (state, action) pair of the source environment is stepped once and the outcome
+ * stored in flat arrays indexed by {@code state * numActions + action}; {@link #step(int, MutableStepResult)}
+ * is then two array loads instead of the source's move, bounds and special-state logic. Episode starts,
+ * grid size and special states are still taken from the source, so the compiled environment can stand
+ * in for it anywhere an {@link Environment} is expected.
+ * <p>
+ * The source must be deterministic, and its dynamics must not change across resets. Each pair is stepped
+ * twice to catch the first; the second cannot be detected, which rules out {@link MouseEnvironment},
+ * whose food and water move on every reset.
+ */
+public class CompiledEnvironment implements SettableEnvironment, Snapshottable {
+
+    private final SettableEnvironment source;
+    private final int numStates;
+    private final int numActions;
+    private final int[] next;
+    private final double[] reward;
+    private final boolean[] terminal;
+    private int currentState;
+
+    /**
+     * Compiles an environment by enumerating all of its transitions.
+     *
+     * @param source The environment to compile; afterwards it is only used by {@link #reset()}, which must be
+     *               called before the first step, as with any environment.
+     * @throws IllegalStateException If stepping the same pair twice gives different outcomes.
+     */
+    public CompiledEnvironment(SettableEnvironment source) {
+        this.source = source;
+        this.numStates = source.getNumStates();
+        this.numActions = source.getNumActions();
+        this.next = new int[numStates * numActions];
+        this.reward = new double[numStates * numActions];
+        this.terminal = new boolean[numStates * numActions];
+
+        final MutableStepResult result = new MutableStepResult();
+        final MutableStepResult check = new MutableStepResult();
+        for (int state = 0; state < numStates; state++) {
+            for (int action = 0; action < numActions; action++) {
+                source.setState(state);
+                source.step(action, result);
+                source.setState(state);
+                source.step(action, check);
+                if (result.nextState() != check.nextState() || result.reward() != check.reward()
+                        || result.done() != check.done()) {
+                    throw new IllegalStateException("Environment is not deterministic at state " + state
+                            + ", action " + action);
+                }
+                final int index = state * numActions + action;
+                next[index] = result.nextState();
+                reward[index] = result.reward();
+                terminal[index] = result.done();
+            }
+        }
+    }
+
+    @Override
+    public int getNumStates() {
+        return numStates;
+    }
+
+    @Override
+    public int getNumActions() {
+        return numActions;
+    }
+
+    @Override
+    public int reset() {
+        currentState = source.reset();
+        return currentState;
+    }
+
+    @Override
+    public void setState(int state) {
+        this.currentState = state;
+    }
+
+    /**
+     * The source is only consulted on reset, so the current state is the whole snapshot.
+     */
+    @Override
+    public long snapshot() {
+        return currentState;
+    }
+
+    @Override
+    public void restore(long snapshot) {
+        this.currentState = (int) snapshot;
+    }
+
+    @Override
+    public void step(int action, MutableStepResult result) {
+        final int index = currentState * numActions + action;
+        currentState = next[index];
+        result.set(currentState, reward[index], terminal[index]);
+    }
+
+    /**
+     * @return The state reached by taking {@code action} in {@code state}.
+     */
+    public int nextState(int state, int action) {
+        return next[state * numActions + action];
+    }
+
+    /**
+     * @return The reward for taking {@code action} in {@code state}.
+     */
+    public double reward(int state, int action) {
+        return reward[state * numActions + action];
+    }
+
+    /**
+     * @return Whether taking {@code action} in {@code state} ends the episode.
+     */
+    public boolean isTerminal(int state, int action) {
+        return terminal[state * numActions + action];
+    }
+
+    @Override
+    public int getGridRows() {
+        return source.getGridRows();
+    }
+
+    @Override
+    public int getGridCols() {
+        return source.getGridCols();
+    }
+
+    @Override
+    public Map<Integer, String> getSpecialStates() {
+        return source.getSpecialStates();
+    }
+}
@@ -1,5 +1,6 @@
 package pt.mleiria.rl.mdp.env;
 
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
 import pt.mleiria.rl.mdp.vo.StepResult;
 
 import java.util.Map;
@@ -28,11 +29,25 @@ public interface Environment {
 
     /**
      * Takes an action in the environment and returns the result.
+     * Allocates a new result on every call; training loops should prefer {@link #step(int, MutableStepResult)}.
      *
      * @param action The action to take.
      * @return A StepResult containing the next state, reward, and whether the episode is done.
      */
-    StepResult step(int action);
+    default StepResult step(int action) {
+        final MutableStepResult result = new MutableStepResult();
+        step(action, result);
+        return result.toStepResult();
+    }
+
+    /**
+     * Takes an action in the environment and writes the result into a caller-owned holder.
+     * Implementations must not allocate, so the same holder can be reused for a whole training run.
+     *
+     * @param action The action to take.
+     * @param result Receives the next state, reward, and whether the episode is done.
+     */
+    void step(int action, MutableStepResult result);
 
     // Provides details for visualization or debugging
 
@@ -42,6 +57,7 @@ public interface Environment {
 
     /**
      * Returns a map of special states in the environment with their descriptions.
+     * The map is read-only and may be cached between calls.
      *
      * @return A map where keys are state indices and values are descriptions of the special states.
      */
@@ -1,31 +1,70 @@
 package pt.mleiria.rl.mdp.env;
 
-import pt.mleiria.rl.mdp.vo.StepResult;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.Random; // Added import for Random
+import java.util.random.RandomGenerator;
 
 /**
  * Represents a Frozen Lake environment for reinforcement learning.
  * This class implements the Environment interface and provides methods
  * to interact with the Frozen Lake environment.
  */
-public class FrozenLakeEnvironment implements Environment {
+public class FrozenLakeEnvironment implements SettableEnvironment, Snapshottable {
 
     private static final int NUM_STATES = 16; // Example number of states
     private static final int NUM_ACTIONS = 4; // Example number of actions (up, down, left, right)
     private static final int GRID_SIZE = 4; // Example grid size (4x4)
     private static final Set<Integer> HOLES = Set.of(5, 7, 11, 12); // Example hole positions
     private static final int GOAL_STATE = 15; // Example goal state (bottom-right corner)
+    private static final Map<Integer, String> SPECIAL_STATES;
+
+    static {
+        final Map<Integer, String> special = new HashMap<>();
+        special.put(0, "S");
+        special.put(GOAL_STATE, "G");
+        HOLES.forEach(h -> special.put(h, "H"));
+        SPECIAL_STATES = Collections.unmodifiableMap(special);
+    }
 
     private int currentState;
-    private final Random random; // Added Random instance
+    private final RandomGenerator random;
+    // Null when the ice is not slippery, so the deterministic step draws no random numbers
+    private final SlipKernel slipKernel;
 
     public FrozenLakeEnvironment() {
+        this(RandomUtils.newGenerator());
+    }
+
+    /**
+     * @param random The source of randomness for the environment, e.g. a seeded stream.
+     */
+    public FrozenLakeEnvironment(RandomGenerator random) {
+        this(null, random);
+    }
+
+    /**
+     * Creates a slippery lake: each step moves in a direction sampled from {@code slipKernel}.
+     *
+     * @param slipKernel The distribution of the actual move given the intended one, e.g. {@link SlipKernel#classic()};
+     *                   {@code null} for the deterministic lake.
+     * @param random     The source of randomness for the slips, e.g. a seeded stream.
+     */
+    public FrozenLakeEnvironment(SlipKernel slipKernel, RandomGenerator random) {
         this.currentState = 0; // Start at the initial state
-        this.random = new Random(); // Initialize Random
+        this.random = random;
+        this.slipKernel = slipKernel;
+    }
+
+    /**
+     * @return True if moves are sampled from a {@link SlipKernel}.
+     */
+    public boolean isSlippery() {
+        return slipKernel != null;
     }
 
     @Override
@@ -44,14 +83,29 @@ public class FrozenLakeEnvironment implements Environment {
         return this.currentState;
     }
 
+    @Override
+    public void setState(int state) {
+        this.currentState = state;
+    }
+
+    @Override
+    public long snapshot() {
+        return currentState;
+    }
+
+    @Override
+    public void restore(long snapshot) {
+        this.currentState = (int) snapshot;
+    }
+
     /**
      * Simulates a step in the Frozen Lake environment based on the agent's action.
      * This method updates the environment's state, calculates the reward, and determines
      * if the episode has terminated.
      *
      * @param action The action chosen by the agent (0: Up, 1: Right, 2: Down, 3: Left).
-     * @return A {@link StepResult} object containing the next state, the reward received,
-     *         and a boolean indicating if the episode is done.
+     * @param result Receives the next state, the reward received,
+     *               and a boolean indicating if the episode is done.
      *
      * <p><b>Mechanics:</b></p>
      * <ol>
@@ -74,13 +128,15 @@ public class FrozenLakeEnvironment implements Environment {
      *     </li>
      * </ol>
      * <p><b>Note on Stochasticity:</b></p>
-     * <p>This specific implementation of the {@code FrozenLakeEnvironment} is <b>deterministic</b>.
-     * The agent always moves exactly in the intended direction (or stays in place if it hits a boundary).
-     * There is no random "slipping" to an adjacent tile, which is often a feature of the more
-     * challenging stochastic Frozen Lake problem.</p>
+     * <p>By default the lake is <b>deterministic</b>: the agent always moves exactly in the intended
+     * direction (or stays in place if it hits a boundary). A lake created with a {@link SlipKernel} is
+     * the stochastic variant: the direction actually taken is sampled from the kernel first, in O(1).</p>
      */
     @Override
-    public StepResult step(int action) {
+    public void step(int action, MutableStepResult result) {
+        if (slipKernel != null) {
+            action = slipKernel.sample(action, random);
+        }
         int row = currentState / GRID_SIZE;
         int col = currentState % GRID_SIZE;
         //printMatrixState(row, col, action);
@@ -93,13 +149,15 @@ public class FrozenLakeEnvironment implements Environment {
         this.currentState = row * GRID_SIZE + col;
 
         if (HOLES.contains(this.currentState)) {
-            return new StepResult(this.currentState, 0.0, true);
+            result.set(this.currentState, 0.0, true);
+            return;
         }
         if (this.currentState == GOAL_STATE) {
-            return new StepResult(this.currentState, 1.0, true);
+            result.set(this.currentState, 1.0, true);
+            return;
         }
 
-        return new StepResult(this.currentState, 0.0, false);
+        result.set(this.currentState, 0.0, false);
     }
 
     private void printMatrixState(final int row, final int col, final int action) {
@@ -144,10 +202,6 @@ public class FrozenLakeEnvironment implements Environment {
 
     @Override
     public Map<Integer, String> getSpecialStates() {
-        final Map<Integer, String> special = new HashMap<>();
-        special.put(0, "S");
-        special.put(GOAL_STATE, "G");
-        HOLES.forEach(h -> special.put(h, "H"));
-        return special;
+        return SPECIAL_STATES;
     }
 }
@@ -1,12 +1,14 @@
 package pt.mleiria.rl.mdp.env;
 
-import pt.mleiria.rl.mdp.vo.StepResult;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
-public class MouseEnvironment implements Environment{
+public class MouseEnvironment implements SettableEnvironment, Snapshottable {
 
     // --- Grid and Action Constants ---
     private static final int GRID_ROWS = 10;
@@ -20,8 +22,8 @@ public class MouseEnvironment implements Environment{
     // --- Special Locations ---
     private final int startState1D = 0; // Top-left corner
     private final int exitState1D = (GRID_ROWS * GRID_COLS) - 1; // Bottom-right corner
-    private int foodState1D;
-    private int waterState1D;
+    protected int foodState1D;
+    protected int waterState1D;
 
     // --- Internal State Variables ---
     private int agentRow;
@@ -29,9 +31,22 @@ public class MouseEnvironment implements Environment{
     private boolean hasEaten;
     private boolean hasDrunk;
 
-    private final Random random = new Random();
+    private final RandomGenerator random;
+
+    // Cached view for getSpecialStates(); rebuilt only when food or water move
+    private Map<Integer, String> specialStates;
+    private int specialFoodState1D = -1;
+    private int specialWaterState1D = -1;
 
     public MouseEnvironment() {
+        this(RandomUtils.newGenerator());
+    }
+
+    /**
+     * @param random The source of randomness for food and water placement, e.g. a seeded stream.
+     */
+    public MouseEnvironment(RandomGenerator random) {
+        this.random = random;
         reset();
     }
 
@@ -85,13 +100,24 @@ public class MouseEnvironment implements Environment{
         return encodeState();
     }
 
+    /**
+     * Encodes the state the agent observes; here the agent's own state, see {@link #encodeAgentState()}.
+     * Subclasses that expose more of the environment override this together with {@link #getNumStates()}
+     * and {@link #setState(int)}.
+     *
+     * @return The encoded state.
+     */
+    protected int encodeState() {
+        return encodeAgentState();
+    }
+
     /**
      * Encodes the current state (row, col, hasEaten, hasDrunk) into a single integer.
      * This is the core of the state representation.
      *
-     * @return The encoded state.
+     * @return The encoded state (0-399).
      */
-    private int encodeState() {
+    protected final int encodeAgentState() {
         // The formula for encoding is like a multi-digit number system.
         // agent_pos is the least significant "digit", then hasEaten, then hasDrunk.
         int agentPos1D = this.agentRow * GRID_COLS + this.agentCol;
@@ -105,14 +131,53 @@ public class MouseEnvironment implements Environment{
         return state;
     }
 
+    /**
+     * Sets the agent's position and eaten/drunk flags from an encoded state, the inverse of {@link #encodeState()}.
+     * Food and water stay where the last {@link #reset()} put them, since they are not part of the encoded state.
+     *
+     * @param state The encoded state (0-399).
+     */
+    @Override
+    public void setState(int state) {
+        decodeAgentState(state);
+    }
+
+    /**
+     * Sets the agent's position and flags from a state encoded by {@link #encodeAgentState()}.
+     *
+     * @param state The encoded agent state (0-399).
+     */
+    protected final void decodeAgentState(int state) {
+        final int agentPos1D = state % (GRID_ROWS * GRID_COLS);
+        this.agentRow = agentPos1D / GRID_COLS;
+        this.agentCol = agentPos1D % GRID_COLS;
+        this.hasEaten = (state / (GRID_ROWS * GRID_COLS)) % 2 == 1;
+        this.hasDrunk = state / (GRID_ROWS * GRID_COLS * 2) == 1;
+    }
+
+    /**
+     * Packs the encoded state into bits 0-15, the food cell into bits 16-23 and the water cell into bits 24-31.
+     */
+    @Override
+    public long snapshot() {
+        return encodeAgentState() | (long) foodState1D << 16 | (long) waterState1D << 24;
+    }
+
+    @Override
+    public void restore(long snapshot) {
+        decodeAgentState((int) (snapshot & 0xFFFF));
+        this.foodState1D = (int) (snapshot >>> 16) & 0xFF;
+        this.waterState1D = (int) (snapshot >>> 24) & 0xFF;
+    }
+
     /**
      * Executes one time step within the environment.
      *
      * @param action The action to take (0:N, 1:S, 2:E, 3:W).
-     * @return A StepResult containing the new state, reward, and done flag.
+     * @param result Receives the new state, reward, and done flag.
      */
     @Override
-    public StepResult step(int action) {
+    public void step(int action, MutableStepResult result) {
         // Move the agent
         switch (action) {
             case 0: // North
@@ -158,19 +223,24 @@ public class MouseEnvironment implements Environment{
         }
 
         int nextState = encodeState();
-        return new StepResult(nextState, reward, done);
+        result.set(nextState, reward, done);
     }
 
     // --- Helper methods for visualization or debugging ---
 
     @Override
     public Map<Integer, String> getSpecialStates() {
-        final Map<Integer, String> special = new HashMap<>();
-        special.put(startState1D, "S");
-        special.put(exitState1D, "E");
-        special.put(foodState1D, "F");
-        special.put(waterState1D, "W");
-        return special;
+        if (specialStates == null || specialFoodState1D != foodState1D || specialWaterState1D != waterState1D) {
+            final Map<Integer, String> special = new HashMap<>();
+            special.put(startState1D, "S");
+            special.put(exitState1D, "E");
+            special.put(foodState1D, "F");
+            special.put(waterState1D, "W");
+            specialStates = Collections.unmodifiableMap(special);
+            specialFoodState1D = foodState1D;
+            specialWaterState1D = waterState1D;
+        }
+        return specialStates;
     }
 
     public int getAgentRow() {
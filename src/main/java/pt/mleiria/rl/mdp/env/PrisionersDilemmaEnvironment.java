@@ -1,9 +1,9 @@
 package pt.mleiria.rl.mdp.env;
 
 import pt.mleiria.rl.mdp.env.marl.MultiAgentEnvironment;
-import pt.mleiria.rl.mdp.vo.MultiAgentStepResult;
+import pt.mleiria.rl.mdp.vo.MutableMultiAgentStepResult;
 
-public class PrisionersDilemmaEnvironment implements MultiAgentEnvironment {
+public class PrisionersDilemmaEnvironment implements MultiAgentEnvironment, Snapshottable {
 
     // Actions; 0 = COoperate, 1 = Defect
     public static final int COOPERATE = 0;
@@ -16,6 +16,8 @@ public class PrisionersDilemmaEnvironment implements MultiAgentEnvironment {
 
     private final int roundsPerEpisode;
     private int currentRound;
+    private int state1;
+    private int state2;
 
     // Payoff Matrix: R(my_action, opponent_action) -> my_reward
     // R(C,C) = -1 (Temptation to defect)
@@ -30,6 +32,8 @@ public class PrisionersDilemmaEnvironment implements MultiAgentEnvironment {
     public PrisionersDilemmaEnvironment(int roundsPerEpisode) {
         this.roundsPerEpisode = roundsPerEpisode;
         this.currentRound = 0;
+        this.state1 = STATE_START;
+        this.state2 = STATE_START;
     }
 
 
@@ -43,26 +47,53 @@ public class PrisionersDilemmaEnvironment implements MultiAgentEnvironment {
         return 2;
     }
 
+    @Override
+    public int getNumAgents() {
+        return 2;
+    }
+
     @Override
     public void reset() {
         this.currentRound = 0;
+        this.state1 = STATE_START;
+        this.state2 = STATE_START;
+    }
+
+    @Override
+    public int getObservation(int agent) {
+        return agent == 0 ? state1 : state2;
+    }
+
+    /**
+     * Packs the round counter into bits 0-31 and the two observations into bits 32-33 and 34-35.
+     */
+    @Override
+    public long snapshot() {
+        return Integer.toUnsignedLong(currentRound) | (long) state1 << 32 | (long) state2 << 34;
+    }
+
+    @Override
+    public void restore(long snapshot) {
+        this.currentRound = (int) snapshot;
+        this.state1 = (int) (snapshot >>> 32) & 0x3;
+        this.state2 = (int) (snapshot >>> 34) & 0x3;
     }
 
     @Override
-    public MultiAgentStepResult step(int[] actions) {
+    public void step(int[] actions, MutableMultiAgentStepResult result) {
         if (actions[0] < 0 || actions[0] > 1 || actions[1] < 0 || actions[1] > 1) {
             throw new IllegalArgumentException("Actions must be 0 (COOPERATE) or 1 (DEFECT)");
         }
         currentRound++;
-        double[] rewards = new double[]{PAYOFFS[actions[0]][actions[1]], PAYOFFS[actions[1]][actions[0]]};
-        //double reward1 = PAYOFFS[actions[0]][actions[1]];
-        //double reward2 = PAYOFFS[actions[1]][actions[0]];
+        final double[] rewards = result.rewards();
+        rewards[0] = PAYOFFS[actions[0]][actions[1]];
+        rewards[1] = PAYOFFS[actions[1]][actions[0]];
 
-        int nextState1 = (actions[1] == COOPERATE) ? STATE_OPPONENT_COOPERATED : STATE_OPPONENT_DEFECTED;
-        int nextState2 = (actions[0] == COOPERATE) ? STATE_OPPONENT_COOPERATED : STATE_OPPONENT_DEFECTED;
+        state1 = (actions[1] == COOPERATE) ? STATE_OPPONENT_COOPERATED : STATE_OPPONENT_DEFECTED;
+        state2 = (actions[0] == COOPERATE) ? STATE_OPPONENT_COOPERATED : STATE_OPPONENT_DEFECTED;
 
         boolean done = currentRound >= roundsPerEpisode;
 
-        return new MultiAgentStepResult(nextState1, nextState2, rewards, done);
+        result.set(state1, state2, done);
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package pt.mleiria.rl.mdp.env;
+
+/**
+ * An {@link Environment} that can be put directly into any of its encoded states.
+ * This is what model-based code needs to enumerate transitions state by state, and is handy for testing.
+ */
+public interface SettableEnvironment extends Environment {
+
+    /**
+     * Puts the environment into the given encoded state, as if an episode had just reached it.
+     *
+     * @param state An encoded state in {@code [0, getNumStates())}.
+     */
+    void setState(int state);
+}
@@ -0,0 +1,100 @@
+package pt.mleiria.rl.mdp.env;
+
+import pt.mleiria.rl.mdp.utils.AliasTable;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * The transition noise of a slippery grid world: for each intended move, a distribution over the move
+ * that actually happens. Moves use the grid convention 0: Up, 1: Right, 2: Down, 3: Left.
+ * <p>
+ * The kernel is the same in every cell, so it costs four small alias tables whatever the grid size. Each
+ * {@link #sample} is one random draw and two array reads.
+ */
+public final class SlipKernel {
+
+    public static final int NUM_MOVES = 4;
+
+    private final double[][] probabilities;
+    private final AliasTable[] tables;
+
+    private SlipKernel(double[][] probabilities) {
+        if (probabilities.length != NUM_MOVES) {
+            throw new IllegalArgumentException("Kernel needs one distribution per move, got " + probabilities.length);
+        }
+        this.probabilities = new double[NUM_MOVES][];
+        this.tables = new AliasTable[NUM_MOVES];
+        for (int move = 0; move < NUM_MOVES; move++) {
+            if (probabilities[move].length != NUM_MOVES) {
+                throw new IllegalArgumentException("Distribution of move " + move + " must have " + NUM_MOVES + " entries");
+            }
+            this.probabilities[move] = probabilities[move].clone();
+            this.tables[move] = new AliasTable(probabilities[move]);
+        }
+    }
+
+    /**
+     * Builds a kernel from explicit distributions.
+     *
+     * @param probabilities {@code probabilities[intended][actual]}; each row must sum to 1.
+     * @return The kernel.
+     */
+    public static SlipKernel of(double[][] probabilities) {
+        return new SlipKernel(probabilities);
+    }
+
+    /**
+     * @return The kernel in which every move goes where it is meant to.
+     */
+    public static SlipKernel deterministic() {
+        return perpendicular(1.0);
+    }
+
+    /**
+     * The classic slippery-ice kernel: the intended move and each of the two perpendicular moves happen
+     * with probability 1/3; the agent never moves backwards.
+     *
+     * @return The kernel.
+     */
+    public static SlipKernel classic() {
+        return perpendicular(1.0 / 3.0);
+    }
+
+    /**
+     * A kernel that keeps the intended move with probability {@code intended} and otherwise slips to
+     * either perpendicular move with equal probability.
+     *
+     * @param intended The probability of the intended move, in [0, 1].
+     * @return The kernel.
+     */
+    public static SlipKernel perpendicular(double intended) {
+        if (intended < 0.0 || intended > 1.0) {
+            throw new IllegalArgumentException("Probability must be in [0, 1]: " + intended);
+        }
+        final double[][] probabilities = new double[NUM_MOVES][NUM_MOVES];
+        for (int move = 0; move < NUM_MOVES; move++) {
+            probabilities[move][move] = intended;
+            probabilities[move][(move + 1) % NUM_MOVES] += (1.0 - intended) / 2;
+            probabilities[move][(move + 3) % NUM_MOVES] += (1.0 - intended) / 2;
+        }
+        return new SlipKernel(probabilities);
+    }
+
+    /**
+     * Samples the move that actually happens.
+     *
+     * @param intended The intended move.
+     * @param random   The source of randomness; one value is drawn.
+     * @return The actual move.
+     */
+    public int sample(int intended, RandomGenerator random) {
+        return tables[intended].sample(random);
+    }
+
+    /**
+     * @return The probability that {@code intended} results in {@code actual}.
+     */
+    public double probability(int intended, int actual) {
+        return probabilities[intended][actual];
+    }
+}
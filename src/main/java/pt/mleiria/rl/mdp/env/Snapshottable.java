@@ -0,0 +1,33 @@
+package pt.mleiria.rl.mdp.env;
+
+/**
+ * An environment whose complete internal state fits in a {@code long}, so it can be saved and restored
+ * in a few nanoseconds and without allocating.
+ * <p>
+ * A snapshot holds everything a step or a later reset depends on, not only the encoded state an agent
+ * sees: for example the food and water cells of {@link MouseEnvironment}, or the round counter of
+ * {@link PrisionersDilemmaEnvironment}. This is what lookahead planners need to try an action and back
+ * out, and what parallel rollouts need to start many copies of an environment from one state.
+ * <p>
+ * Random generators are not part of a snapshot. A restored environment is where it was when the snapshot
+ * was taken, but any later random draw, such as a slip or the layout chosen by the next reset, comes
+ * from wherever its stream is now. Replay is therefore exact for deterministic dynamics, or when the
+ * caller also restarts the stream.
+ */
+public interface Snapshottable {
+
+    /**
+     * Packs the full internal state into a value that only {@link #restore(long)} of the same
+     * environment, or of one built with the same arguments, needs to understand.
+     *
+     * @return The snapshot.
+     */
+    long snapshot();
+
+    /**
+     * Puts the environment back into the state captured by {@link #snapshot()}.
+     *
+     * @param snapshot A value returned by {@link #snapshot()}.
+     */
+    void restore(long snapshot);
+}
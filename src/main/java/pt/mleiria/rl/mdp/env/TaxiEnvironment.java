@@ -1,12 +1,14 @@
 package pt.mleiria.rl.mdp.env;
 
-import pt.mleiria.rl.mdp.vo.StepResult;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
-public class TaxiEnvironment implements Environment {
+public class TaxiEnvironment implements SettableEnvironment, Snapshottable {
 
     private static final int GRID_ROWS = 5; // Number of rows in the grid
     private static final int GRID_COLS = 5; // Number of columns in the grid
@@ -21,15 +23,34 @@ public class TaxiEnvironment implements Environment {
             {4, 3}  // 3: Blue location
     };
 
+    private static final Map<Integer, String> SPECIAL_STATES;
+
+    static {
+        final Map<Integer, String> special = new HashMap<>();
+        special.put(encodeLocation(0), "R"); // Red location
+        special.put(encodeLocation(1), "G"); // Green location
+        special.put(encodeLocation(2), "Y"); // Yellow location
+        special.put(encodeLocation(3), "B"); // Blue location
+        SPECIAL_STATES = Collections.unmodifiableMap(special);
+    }
+
     // Internal state variables
     private int taxiRow; // Taxi's current row
     private int taxiCol; // Taxi's current column
     private int passengerLocationIdx; // Location of the passenger (0-3 for R, G, Y, B); 4 for "in taxi"
     private int destinationIdx;
 
-    private final Random random = new Random();
+    private final RandomGenerator random;
 
     public TaxiEnvironment() {
+        this(RandomUtils.newGenerator());
+    }
+
+    /**
+     * @param random The source of randomness for episode start states, e.g. a seeded stream.
+     */
+    public TaxiEnvironment(RandomGenerator random) {
+        this.random = random;
         reset();
     }
 
@@ -105,8 +126,31 @@ public class TaxiEnvironment implements Environment {
         return encodeState();
     }
 
+    /**
+     * Sets the environment to an encoded state, the inverse of {@link #encodeState()}.
+     *
+     * @param state The encoded state (0-499).
+     */
+    @Override
+    public void setState(int state) {
+        setState(state / (4 * 5 * 5), (state / (4 * 5)) % 5, (state / 4) % 5, state % 4);
+    }
+
+    /**
+     * The encoded state already holds the taxi, passenger and destination, so it is the whole snapshot.
+     */
+    @Override
+    public long snapshot() {
+        return encodeState();
+    }
+
     @Override
-    public StepResult step(final int action) {
+    public void restore(long snapshot) {
+        setState((int) snapshot);
+    }
+
+    @Override
+    public void step(final int action, final MutableStepResult result) {
         double reward = -1.0; // Default reward for each step
         boolean done = false;
 
@@ -150,17 +194,12 @@ public class TaxiEnvironment implements Environment {
         // Encode the new state after taking the action
         int nextState = encodeState();
 
-        return new StepResult(nextState, reward, done);
+        result.set(nextState, reward, done);
     }
 
     @Override
     public Map<Integer, String> getSpecialStates() {
-        final Map<Integer, String> special = new HashMap<>();
-        special.put(encodeLocation(0), "R"); // Red location
-        special.put(encodeLocation(1), "G"); // Green location
-        special.put(encodeLocation(2), "Y"); // Yellow location
-        special.put(encodeLocation(3), "B"); // Blue location
-        return special;
+        return SPECIAL_STATES;
     }
 
     /**
@@ -170,7 +209,7 @@ public class TaxiEnvironment implements Environment {
      * @param locIdx The index of the location (0 for R, 1 for G, 2 for Y, 3 for B).
      * @return The encoded location as an integer.
      */
-    private Integer encodeLocation(int locIdx) {
+    private static int encodeLocation(int locIdx) {
         return LOCATIONS[locIdx][0] * GRID_COLS + LOCATIONS[locIdx][1];
 
     }
@@ -0,0 +1,72 @@
+package pt.mleiria.rl.mdp.env.grid;
+
+/**
+ * A fixed-size set of grid cells, one bit per cell, packed into a {@code long[]}.
+ * A 4096x4096 grid needs 2 MiB, where a {@code Set<Integer>} of the same cells would need
+ * tens of bytes per member plus boxing on every lookup.
+ */
+public final class CellBitSet {
+
+    private final int size;
+    private final long[] words;
+
+    /**
+     * @param size The number of cells.
+     */
+    public CellBitSet(int size) {
+        this.size = size;
+        this.words = new long[(size + 63) >>> 6];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean get(int cell) {
+        return (words[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public void set(int cell) {
+        words[cell >>> 6] |= 1L << cell;
+    }
+
+    public void clear(int cell) {
+        words[cell >>> 6] &= ~(1L << cell);
+    }
+
+    /**
+     * @return The number of cells in the set.
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the first cell in the set at or after {@code from}, or -1 if there is none.
+     */
+    public int nextSetBit(int from) {
+        if (from >= size) {
+            return -1;
+        }
+        int index = from >>> 6;
+        long word = words[index] & (-1L << from);
+        while (word == 0) {
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+        return (index << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * @return The memory taken by the bits themselves.
+     */
+    public long sizeInBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+}
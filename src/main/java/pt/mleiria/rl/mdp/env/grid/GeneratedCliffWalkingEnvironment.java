@@ -0,0 +1,127 @@
+package pt.mleiria.rl.mdp.env.grid;
+
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * A procedurally generated Cliff Walking grid of up to {@value GridEnvironment#MAX_SIDE} cells per side.
+ * <p>
+ * Same rules as {@link pt.mleiria.rl.mdp.env.CliffWalkingEnvironment}: start in the bottom-left cell,
+ * goal in the bottom-right, -1 per step, and stepping onto the cliff costs -100, ends the episode and puts
+ * the agent back at the start. The whole bottom row between start and goal is cliff, as in the original;
+ * every other cell is also cliff with probability {@code cliffDensity}. A random path that climbs off the
+ * bottom row, wanders right (and up or down) above it, and drops onto the goal is then cleared, so the
+ * goal is always reachable. Cliff cells are kept in a {@link CellBitSet}.
+ */
+public class GeneratedCliffWalkingEnvironment extends GridEnvironment {
+
+    private final int start;
+    private final int goal;
+    private final CellBitSet cliff;
+    private final Map<Integer, String> specialStates;
+
+    /**
+     * Generates a grid from a seed; the same arguments always give the same grid.
+     *
+     * @param rows         The number of rows.
+     * @param cols         The number of columns.
+     * @param cliffDensity The probability that a cell above the bottom row is cliff, before the path is cleared.
+     * @param seed         The seed of the generator.
+     */
+    public GeneratedCliffWalkingEnvironment(int rows, int cols, double cliffDensity, long seed) {
+        this(rows, cols, cliffDensity, RandomUtils.newGenerator(seed));
+    }
+
+    /**
+     * Generates a grid, drawing the layout from {@code random}.
+     *
+     * @param rows         The number of rows.
+     * @param cols         The number of columns.
+     * @param cliffDensity The probability that a cell above the bottom row is cliff, before the path is cleared.
+     * @param random       The source of randomness for the layout.
+     */
+    public GeneratedCliffWalkingEnvironment(int rows, int cols, double cliffDensity, RandomGenerator random) {
+        super(rows, cols);
+        if (cliffDensity < 0.0 || cliffDensity >= 1.0) {
+            throw new IllegalArgumentException("Cliff density must be in [0, 1): " + cliffDensity);
+        }
+        this.start = (rows - 1) * cols;
+        this.goal = rows * cols - 1;
+        this.cliff = new CellBitSet(rows * cols);
+        for (int cell = 0; cell < start; cell++) {
+            if (random.nextDouble() < cliffDensity) {
+                cliff.set(cell);
+            }
+        }
+        for (int cell = start + 1; cell < goal; cell++) {
+            cliff.set(cell);
+        }
+        // Clear a path: up off the start, then right with occasional vertical detours, then down to the goal
+        int row = rows - 2;
+        int col = 0;
+        cliff.clear(row * cols + col);
+        while (col < cols - 1) {
+            final int choice = random.nextInt(3);
+            if (choice == 0 && row > 0) {
+                row--;
+            } else if (choice == 1 && row < rows - 2) {
+                row++;
+            } else {
+                col++;
+            }
+            cliff.clear(row * cols + col);
+        }
+        while (row < rows - 2) {
+            row++;
+            cliff.clear(row * cols + col);
+        }
+        this.specialStates = new SpecialStatesView(start, goal, cliff, "C");
+        this.currentState = start;
+    }
+
+    @Override
+    public int reset() {
+        this.currentState = start;
+        return this.currentState;
+    }
+
+    @Override
+    public void step(int action, MutableStepResult result) {
+        this.currentState = move(currentState, action);
+        if (cliff.get(currentState)) {
+            // Fell off the cliff, send back to start
+            this.currentState = start;
+            result.set(currentState, -100.0, true);
+        } else {
+            result.set(currentState, -1.0, currentState == goal);
+        }
+    }
+
+    public boolean isCliff(int state) {
+        return cliff.get(state);
+    }
+
+    public int getStartState() {
+        return start;
+    }
+
+    public int getGoalState() {
+        return goal;
+    }
+
+    @Override
+    public long mapSizeInBytes() {
+        return cliff.sizeInBytes();
+    }
+
+    /**
+     * Returns a lazy view of the start, goal and cliff cells; nothing is copied, however large the grid.
+     */
+    @Override
+    public Map<Integer, String> getSpecialStates() {
+        return specialStates;
+    }
+}
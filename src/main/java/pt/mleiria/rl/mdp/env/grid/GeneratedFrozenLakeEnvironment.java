@@ -0,0 +1,164 @@
+package pt.mleiria.rl.mdp.env.grid;
+
+import pt.mleiria.rl.mdp.env.SlipKernel;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * A procedurally generated Frozen Lake of up to {@value GridEnvironment#MAX_SIDE} cells per side.
+ * <p>
+ * Same rules as {@link pt.mleiria.rl.mdp.env.FrozenLakeEnvironment}: start in the top-left cell, reward 1
+ * for reaching the bottom-right goal, and falling into a hole ends the episode with reward 0. Each cell
+ * other than start and goal is a hole with probability {@code holeDensity}; a random monotone path
+ * (right and down moves only) from start to goal is then cleared of holes, so the goal is always reachable.
+ * Holes are kept in a {@link CellBitSet}.
+ * <p>
+ * A lake created with a {@link SlipKernel} is slippery: each step first samples the direction actually
+ * taken, in O(1) and with no per-cell memory, since the kernel is the same everywhere.
+ */
+public class GeneratedFrozenLakeEnvironment extends GridEnvironment {
+
+    private final int goal;
+    private final CellBitSet holes;
+    private final Map<Integer, String> specialStates;
+    private final SlipKernel slipKernel;
+    private final RandomGenerator random;
+
+    /**
+     * Generates a lake from a seed; the same arguments always give the same lake.
+     *
+     * @param rows        The number of rows.
+     * @param cols        The number of columns.
+     * @param holeDensity The probability that a cell is a hole, before the path is cleared.
+     * @param seed        The seed of the generator.
+     */
+    public GeneratedFrozenLakeEnvironment(int rows, int cols, double holeDensity, long seed) {
+        this(rows, cols, holeDensity, RandomUtils.newGenerator(seed));
+    }
+
+    /**
+     * Generates a lake, drawing the layout from {@code random}.
+     *
+     * @param rows        The number of rows.
+     * @param cols        The number of columns.
+     * @param holeDensity The probability that a cell is a hole, before the path is cleared.
+     * @param random      The source of randomness for the layout.
+     */
+    public GeneratedFrozenLakeEnvironment(int rows, int cols, double holeDensity, RandomGenerator random) {
+        this(rows, cols, holeDensity, null, random);
+    }
+
+    /**
+     * Generates a slippery lake from a seed. The layout is the same as the deterministic lake with the same
+     * seed; the slips are drawn from the same generator after the layout.
+     *
+     * @param rows        The number of rows.
+     * @param cols        The number of columns.
+     * @param holeDensity The probability that a cell is a hole, before the path is cleared.
+     * @param slipKernel  The distribution of the actual move given the intended one.
+     * @param seed        The seed of the generator.
+     */
+    public GeneratedFrozenLakeEnvironment(int rows, int cols, double holeDensity, SlipKernel slipKernel, long seed) {
+        this(rows, cols, holeDensity, slipKernel, RandomUtils.newGenerator(seed));
+    }
+
+    /**
+     * Generates a lake, drawing first the layout and then, if slippery, every slip from {@code random}.
+     *
+     * @param rows        The number of rows.
+     * @param cols        The number of columns.
+     * @param holeDensity The probability that a cell is a hole, before the path is cleared.
+     * @param slipKernel  The distribution of the actual move given the intended one; {@code null} for a
+     *                    deterministic lake.
+     * @param random      The source of randomness for the layout and the slips.
+     */
+    public GeneratedFrozenLakeEnvironment(int rows, int cols, double holeDensity, SlipKernel slipKernel,
+                                          RandomGenerator random) {
+        super(rows, cols);
+        if (holeDensity < 0.0 || holeDensity >= 1.0) {
+            throw new IllegalArgumentException("Hole density must be in [0, 1): " + holeDensity);
+        }
+        this.goal = rows * cols - 1;
+        this.holes = new CellBitSet(rows * cols);
+        for (int cell = 1; cell < goal; cell++) {
+            if (random.nextDouble() < holeDensity) {
+                holes.set(cell);
+            }
+        }
+        // Clear a random right/down path; it has exactly (rows - 1) down and (cols - 1) right moves
+        int row = 0;
+        int col = 0;
+        while (row < rows - 1 || col < cols - 1) {
+            final int downsLeft = rows - 1 - row;
+            final int rightsLeft = cols - 1 - col;
+            if (random.nextInt(downsLeft + rightsLeft) < downsLeft) {
+                row++;
+            } else {
+                col++;
+            }
+            holes.clear(row * cols + col);
+        }
+        this.specialStates = new SpecialStatesView(0, goal, holes, "H");
+        this.slipKernel = slipKernel;
+        this.random = random;
+    }
+
+    @Override
+    public int reset() {
+        this.currentState = 0;
+        return this.currentState;
+    }
+
+    @Override
+    public void step(int action, MutableStepResult result) {
+        if (slipKernel != null) {
+            action = slipKernel.sample(action, random);
+        }
+        this.currentState = move(currentState, action);
+        if (holes.get(currentState)) {
+            result.set(currentState, 0.0, true);
+        } else if (currentState == goal) {
+            result.set(currentState, 1.0, true);
+        } else {
+            result.set(currentState, 0.0, false);
+        }
+    }
+
+    /**
+     * @return True if moves are sampled from a {@link SlipKernel}.
+     */
+    public boolean isSlippery() {
+        return slipKernel != null;
+    }
+
+    public boolean isHole(int state) {
+        return holes.get(state);
+    }
+
+    public int getGoalState() {
+        return goal;
+    }
+
+    /**
+     * @return The number of holes.
+     */
+    public int getHoleCount() {
+        return holes.cardinality();
+    }
+
+    @Override
+    public long mapSizeInBytes() {
+        return holes.sizeInBytes();
+    }
+
+    /**
+     * Returns a lazy view of the start, goal and holes; nothing is copied, however large the lake.
+     */
+    @Override
+    public Map<Integer, String> getSpecialStates() {
+        return specialStates;
+    }
+}
@@ -0,0 +1,88 @@
+package pt.mleiria.rl.mdp.env.grid;
+
+import pt.mleiria.rl.mdp.env.SettableEnvironment;
+import pt.mleiria.rl.mdp.env.Snapshottable;
+
+/**
+ * Shared geometry of the generated grid worlds: a {@code rows x cols} grid whose state is the row-major
+ * cell index, with the four moves 0: Up, 1: Right, 2: Down, 3: Left that stop at the border.
+ * The layout is fixed at construction, so a snapshot is just the current cell.
+ */
+public abstract class GridEnvironment implements SettableEnvironment, Snapshottable {
+
+    /**
+     * The largest supported number of rows or columns.
+     */
+    public static final int MAX_SIDE = 4096;
+
+    protected final int rows;
+    protected final int cols;
+    protected int currentState;
+
+    protected GridEnvironment(int rows, int cols) {
+        if (rows < 2 || cols < 2 || rows > MAX_SIDE || cols > MAX_SIDE) {
+            throw new IllegalArgumentException("Grid must be between 2x2 and " + MAX_SIDE + "x" + MAX_SIDE
+                    + ": " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+    }
+
+    /**
+     * Returns the cell reached by moving from {@code state} in a direction, staying put at the border.
+     *
+     * @param state     The starting cell.
+     * @param direction 0: Up, 1: Right, 2: Down, 3: Left.
+     * @return The resulting cell.
+     */
+    public int move(int state, int direction) {
+        final int col = state % cols;
+        return switch (direction) {
+            case 0 -> state >= cols ? state - cols : state;
+            case 1 -> col < cols - 1 ? state + 1 : state;
+            case 2 -> state < (rows - 1) * cols ? state + cols : state;
+            case 3 -> col > 0 ? state - 1 : state;
+            default -> throw new IllegalArgumentException("Invalid action: " + direction);
+        };
+    }
+
+    @Override
+    public int getNumStates() {
+        return rows * cols;
+    }
+
+    @Override
+    public int getNumActions() {
+        return 4;
+    }
+
+    @Override
+    public void setState(int state) {
+        this.currentState = state;
+    }
+
+    @Override
+    public long snapshot() {
+        return currentState;
+    }
+
+    @Override
+    public void restore(long snapshot) {
+        this.currentState = (int) snapshot;
+    }
+
+    @Override
+    public int getGridRows() {
+        return rows;
+    }
+
+    @Override
+    public int getGridCols() {
+        return cols;
+    }
+
+    /**
+     * @return The memory used by the map of the grid (not counting per-object overhead).
+     */
+    public abstract long mapSizeInBytes();
+}
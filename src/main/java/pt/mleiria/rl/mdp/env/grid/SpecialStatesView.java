@@ -0,0 +1,98 @@
+package pt.mleiria.rl.mdp.env.grid;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only {@code Map<Integer, String>} of special states backed by a {@link CellBitSet}.
+ * <p>
+ * Start and goal are fixed entries; every cell in the bitset maps to the same label (e.g. "H" for holes).
+ * Lookups read the bitset directly, and iteration walks the set bits as it goes, so even a map with
+ * millions of entries is never materialized. Iteration order is start, goal, then cells in increasing order.
+ */
+final class SpecialStatesView extends AbstractMap<Integer, String> {
+
+    private final int start;
+    private final int goal;
+    private final CellBitSet cells;
+    private final String label;
+    private final Set<Map.Entry<Integer, String>> entrySet = new EntrySet();
+
+    SpecialStatesView(int start, int goal, CellBitSet cells, String label) {
+        this.start = start;
+        this.goal = goal;
+        this.cells = cells;
+        this.label = label;
+    }
+
+    @Override
+    public String get(Object key) {
+        if (!(key instanceof Integer cell)) {
+            return null;
+        }
+        if (cell == start) {
+            return "S";
+        }
+        if (cell == goal) {
+            return "G";
+        }
+        return cell >= 0 && cell < cells.size() && cells.get(cell) ? label : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return cells.cardinality() + 2;
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, String>> entrySet() {
+        return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<Integer, String>> {
+        @Override
+        public int size() {
+            return SpecialStatesView.this.size();
+        }
+
+        @Override
+        public Iterator<Map.Entry<Integer, String>> iterator() {
+            return new Iterator<>() {
+                // -2: start, -1: goal, then the next cell to look from
+                private int position = -2;
+
+                @Override
+                public boolean hasNext() {
+                    return position < 0 || cells.nextSetBit(position) >= 0;
+                }
+
+                @Override
+                public Map.Entry<Integer, String> next() {
+                    if (position == -2) {
+                        position = -1;
+                        return Map.entry(start, "S");
+                    }
+                    if (position == -1) {
+                        position = 0;
+                        return Map.entry(goal, "G");
+                    }
+                    final int cell = cells.nextSetBit(position);
+                    if (cell < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    position = cell + 1;
+                    return Map.entry(cell, label);
+                }
+            };
+        }
+    }
+}
@@ -1,11 +1,56 @@
 package pt.mleiria.rl.mdp.env.marl;
 
 import pt.mleiria.rl.mdp.vo.MultiAgentStepResult;
+import pt.mleiria.rl.mdp.vo.MutableMultiAgentStepResult;
 
+/**
+ * An environment in which several agents act at once. Each agent receives its own observation, an encoded
+ * state in {@code [0, getNumStates())}, so independent learners can keep one small table each.
+ */
 public interface MultiAgentEnvironment {
 
+    /**
+     * @return The number of distinct observations of a single agent.
+     */
     int getNumStates();
+
     int getNumActions();
+
+    /**
+     * @return The number of agents acting in every step.
+     */
+    int getNumAgents();
+
     void reset();
-    MultiAgentStepResult step(int[] action);
+
+    /**
+     * Returns the current observation of one agent, e.g. its starting observation after {@link #reset()}.
+     *
+     * @param agent The agent index, in {@code [0, getNumAgents())}.
+     * @return The agent's observation.
+     */
+    int getObservation(int agent);
+
+    /**
+     * Takes one joint action and returns the result. Allocates on every call;
+     * training loops should prefer {@link #step(int[], MutableMultiAgentStepResult)}, which is also the only
+     * form for more than two agents.
+     *
+     * @param action One action per agent.
+     * @return The next per-agent states, the per-agent rewards and the done flag.
+     * @throws IllegalStateException If the environment does not have exactly two agents.
+     */
+    default MultiAgentStepResult step(int[] action) {
+        final MutableMultiAgentStepResult result = new MutableMultiAgentStepResult(action.length);
+        step(action, result);
+        return result.toStepResult();
+    }
+
+    /**
+     * Takes one joint action and writes the result into a caller-owned holder, without allocating.
+     *
+     * @param action One action per agent.
+     * @param result Receives the next per-agent observations, the per-agent rewards and the done flag.
+     */
+    void step(int[] action, MutableMultiAgentStepResult result);
 }
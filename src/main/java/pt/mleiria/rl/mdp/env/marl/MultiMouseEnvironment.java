@@ -1,192 +1,336 @@
 package pt.mleiria.rl.mdp.env.marl;
 
-import pt.mleiria.rl.mdp.vo.MultiAgentStepResult;
+import pt.mleiria.rl.mdp.env.Snapshottable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableMultiAgentStepResult;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
-public class MultiMouseEnvironment { // Can't implement the single-agent Environment interface directly
+/**
+ * Any number of mice share the {@link pt.mleiria.rl.mdp.env.MouseEnvironment} grid: all start in the top-left
+ * corner, each must eat and drink before reaching the exit, and mice that step onto the same food or water cell
+ * in the same turn all die. The episode ends as soon as one mouse reaches the exit or dies.
+ * <p>
+ * Each mouse observes only its own position and flags, encoded as in the single-mouse environment, so an
+ * independent learner needs a 400-state table instead of one indexed by the joint state. With two mice the
+ * 160000-state joint encoding is still available from {@link #getJointState()}.
+ * <p>
+ * Mouse state lives in primitive arrays indexed by mouse. Conflicts are found with an occupancy grid whose
+ * cells are stamped with the current step's generation: a cell stamped in an earlier step counts as empty, so
+ * the grid is never cleared and a step costs O(number of mice), with no pairwise checks.
+ */
+public class MultiMouseEnvironment implements MultiAgentEnvironment, Snapshottable {
 
     // --- Grid and Action Constants ---
     private static final int GRID_ROWS = 10;
     private static final int GRID_COLS = 10;
-    private static final int NUM_AGENTS = 2;
+    private static final int GRID_CELLS = GRID_ROWS * GRID_COLS;
+    private static final int DEFAULT_AGENTS = 2;
     private static final int NUM_ACTIONS = 4; // 0:N, 1:S, 2:E, 3:W
 
     // --- State Space Calculation ---
-    // State: (pos1 * pos2 * eaten1 * drunk1 * eaten2 * drunk2)
-    private static final int NUM_STATES = (GRID_ROWS * GRID_COLS) * (GRID_ROWS * GRID_COLS) * 2 * 2 * 2 * 2;
+    // Observation of one agent: (pos * eaten * drunk)
+    private static final int NUM_STATES = GRID_CELLS * 2 * 2;
+    // Joint state of two agents: (pos1 * pos2 * eaten1 * drunk1 * eaten2 * drunk2)
+    private static final int NUM_JOINT_STATES = GRID_CELLS * GRID_CELLS * 2 * 2 * 2 * 2;
+
+    // Flag bits of a mouse
+    private static final int EATEN = 1;
+    private static final int DRUNK = 2;
+
+    // A long snapshot holds food and water (8 bits each) and 9 bits per mouse
+    private static final int MAX_LONG_SNAPSHOT_AGENTS = (Long.SIZE - 16) / 9;
 
     // --- Special Locations ---
     private final int startState1D = 0;
-    private final int exitState1D = (GRID_ROWS * GRID_COLS) - 1;
+    private final int exitState1D = GRID_CELLS - 1;
     private int foodState1D;
     private int waterState1D;
 
-    // --- Internal State Variables for BOTH agents ---
-    private int agent1Row, agent1Col;
-    private boolean agent1HasEaten, agent1HasDrunk;
+    // --- Internal State Variables, one slot per mouse ---
+    private final int numAgents;
+    private final int[] position;
+    private final int[] flags;
+    private final int[] target;
 
-    private int agent2Row, agent2Col;
-    private boolean agent2HasEaten, agent2HasDrunk;
+    // --- Occupancy grid: a cell's count is valid only while its stamp equals the current generation ---
+    private final int[] cellStamp = new int[GRID_CELLS];
+    private final int[] cellCount = new int[GRID_CELLS];
+    private int generation;
 
-    private final Random random = new Random();
+    private final RandomGenerator random;
+
+    // Cached view for getSpecialStates(); food and water are fixed, so it is built once
+    private Map<Integer, String> specialStates;
 
     public MultiMouseEnvironment() {
+        this(DEFAULT_AGENTS);
+    }
+
+    /**
+     * @param random The source of randomness for the environment, e.g. a seeded stream.
+     */
+    public MultiMouseEnvironment(RandomGenerator random) {
+        this(DEFAULT_AGENTS, random);
+    }
+
+    /**
+     * @param numAgents The number of mice.
+     */
+    public MultiMouseEnvironment(int numAgents) {
+        this(numAgents, RandomUtils.newGenerator());
+    }
+
+    /**
+     * @param numAgents The number of mice.
+     * @param random    The source of randomness for the environment, e.g. a seeded stream.
+     */
+    public MultiMouseEnvironment(int numAgents, RandomGenerator random) {
+        if (numAgents <= 0) {
+            throw new IllegalArgumentException("Number of agents must be positive.");
+        }
+        this.numAgents = numAgents;
+        this.position = new int[numAgents];
+        this.flags = new int[numAgents];
+        this.target = new int[numAgents];
+        this.random = random;
         reset();
     }
 
+    /**
+     * @return The number of observations of one agent (400).
+     */
+    @Override
     public int getNumStates() {
         return NUM_STATES;
     }
 
+    /**
+     * @return The number of joint states of two mice (160000), which a learner observing both would need.
+     */
+    public int getNumJointStates() {
+        return NUM_JOINT_STATES;
+    }
+
+    @Override
     public int getNumActions() {
         return NUM_ACTIONS;
     }
 
+    @Override
+    public int getNumAgents() {
+        return numAgents;
+    }
+
     /**
-     * Resets the environment. Both agents return to the start.
-     * Food and water locations are randomized for the new episode.
+     * Resets the environment. All agents return to the start.
+     * Food and water stay in their fixed locations.
      */
-    public int reset() {
-        // Reset agent 1
-        this.agent1Row = 0;
-        this.agent1Col = 0;
-        this.agent1HasEaten = false;
-        this.agent1HasDrunk = false;
-
-        // Reset agent 2
-        this.agent2Row = 0;
-        this.agent2Col = 0;
-        this.agent2HasEaten = false;
-        this.agent2HasDrunk = false;
+    @Override
+    public void reset() {
+        Arrays.fill(position, startState1D);
+        Arrays.fill(flags, 0);
 
         // Randomize food/water (can be fixed for easier learning)
         // For this example, let's fix them to make the problem solvable.
         this.foodState1D = 27;
         this.waterState1D = 72;
+    }
 
-        return encodeState();
+    @Override
+    public int getObservation(int agent) {
+        return encodeObservation(position[agent], flags[agent]);
     }
 
     /**
-     * Encodes the complete state of the world into a single integer.
+     * Encodes one agent's view like {@link pt.mleiria.rl.mdp.env.MouseEnvironment}: pos + 100 * eaten + 200 * drunk.
      */
-    private int encodeState() {
-        int pos1 = agent1Row * GRID_COLS + agent1Col;
-        int pos2 = agent2Row * GRID_COLS + agent2Col;
-        int e1 = agent1HasEaten ? 1 : 0;
-        int d1 = agent1HasDrunk ? 1 : 0;
-        int e2 = agent2HasEaten ? 1 : 0;
-        int d2 = agent2HasDrunk ? 1 : 0;
+    private static int encodeObservation(int pos, int flags) {
+        return pos + GRID_CELLS * (flags & EATEN) + GRID_CELLS * (flags & DRUNK);
+    }
 
+    /**
+     * @return The encoded joint state of two mice.
+     * @throws IllegalStateException If there are not exactly two mice.
+     */
+    public int getJointState() {
+        if (numAgents != 2) {
+            throw new IllegalStateException("The joint state is only defined for two agents, not " + numAgents);
+        }
         // Use a base-N encoding system where N is the size of each state variable
-        int state = pos1;
-        state = state * 100 + pos2;
-        state = state * 2 + e1;
-        state = state * 2 + d1;
-        state = state * 2 + e2;
-        state = state * 2 + d2;
+        int state = position[0];
+        state = state * GRID_CELLS + position[1];
+        state = state * 2 + (flags[0] & EATEN);
+        state = state * 2 + (flags[0] & DRUNK) / DRUNK;
+        state = state * 2 + (flags[1] & EATEN);
+        state = state * 2 + (flags[1] & DRUNK) / DRUNK;
         return state;
     }
 
     /**
-     * The new step function takes an array of actions, one for each agent.
+     * Packs the food cell into bits 0-7, the water cell into bits 8-15 and each mouse's position and flags
+     * into 9 further bits.
      *
-     * @param actions actions[0] is for agent 1, actions[1] is for agent 2.
-     * @return A result object containing the next state, rewards, and done flag.
+     * @throws IllegalStateException If there are more mice than fit in a long; use {@link #snapshot(int[])}.
      */
-    public MultiAgentStepResult step(int[] actions) {
-        // --- 1. Calculate potential next positions ---
-        int[] nextRow = {agent1Row, agent2Row};
-        int[] nextCol = {agent1Col, agent2Col};
-        for (int i = 0; i < NUM_AGENTS; i++) {
-            switch (actions[i]) {
-                case 0:
-                    nextRow[i] = Math.max(0, nextRow[i] - 1);
-                    break; // N
-                case 1:
-                    nextRow[i] = Math.min(GRID_ROWS - 1, nextRow[i] + 1);
-                    break; // S
-                case 2:
-                    nextCol[i] = Math.min(GRID_COLS - 1, nextCol[i] + 1);
-                    break; // E
-                case 3:
-                    nextCol[i] = Math.max(0, nextCol[i] - 1);
-                    break; // W
-            }
+    @Override
+    public long snapshot() {
+        if (numAgents > MAX_LONG_SNAPSHOT_AGENTS) {
+            throw new IllegalStateException("A long snapshot holds at most " + MAX_LONG_SNAPSHOT_AGENTS + " agents");
         }
-        int nextPos1 = nextRow[0] * GRID_COLS + nextCol[0];
-        int nextPos2 = nextRow[1] * GRID_COLS + nextCol[1];
+        long snapshot = foodState1D | (long) waterState1D << 8;
+        for (int i = 0; i < numAgents; i++) {
+            snapshot |= (long) (position[i] | flags[i] << 7) << (16 + 9 * i);
+        }
+        return snapshot;
+    }
 
-        double[] rewards = {-1.0, -1.0}; // Default step penalty for each agent
-        boolean done = false;
+    @Override
+    public void restore(long snapshot) {
+        if (numAgents > MAX_LONG_SNAPSHOT_AGENTS) {
+            throw new IllegalStateException("A long snapshot holds at most " + MAX_LONG_SNAPSHOT_AGENTS + " agents");
+        }
+        foodState1D = (int) snapshot & 0xFF;
+        waterState1D = (int) (snapshot >>> 8) & 0xFF;
+        for (int i = 0; i < numAgents; i++) {
+            final int packed = (int) (snapshot >>> (16 + 9 * i)) & 0x1FF;
+            position[i] = packed & 0x7F;
+            flags[i] = packed >>> 7;
+        }
+    }
 
-        // --- 2. Check for the new "death" rule (Conflict Resolution) ---
-        boolean agent1Dies = false;
-        boolean agent2Dies = false;
+    /**
+     * @return The length of the buffer needed by {@link #snapshot(int[])}.
+     */
+    public int getSnapshotLength() {
+        return numAgents + 1;
+    }
 
-        // If they try to move to the exact same resource square on the same turn, they both die.
-        if (nextPos1 == nextPos2 && (nextPos1 == foodState1D || nextPos1 == waterState1D)) {
-            agent1Dies = true;
-            agent2Dies = true;
+    /**
+     * Copies the full state, for any number of mice, into a caller-owned buffer.
+     *
+     * @param buffer Receives the snapshot; at least {@link #getSnapshotLength()} long.
+     */
+    public void snapshot(int[] buffer) {
+        buffer[0] = foodState1D | waterState1D << 8;
+        for (int i = 0; i < numAgents; i++) {
+            buffer[i + 1] = position[i] | flags[i] << 7;
         }
+    }
 
-        if (agent1Dies || agent2Dies) {
-            if (agent1Dies) rewards[0] -= 100.0; // Strong penalty for dying
-            if (agent2Dies) rewards[1] -= 100.0;
-            done = true;
-            // No need to update positions or check other rewards, the episode is over.
-            return new MultiAgentStepResult(encodeState(), 0, rewards, true);
+    /**
+     * Restores a snapshot taken by {@link #snapshot(int[])}.
+     *
+     * @param buffer The snapshot.
+     */
+    public void restore(int[] buffer) {
+        foodState1D = buffer[0] & 0xFF;
+        waterState1D = buffer[0] >>> 8;
+        for (int i = 0; i < numAgents; i++) {
+            position[i] = buffer[i + 1] & 0x7F;
+            flags[i] = buffer[i + 1] >>> 7;
         }
+    }
 
-        // --- 3. If no conflict, update positions ---
-        agent1Row = nextRow[0];
-        agent1Col = nextCol[0];
-        agent2Row = nextRow[1];
-        agent2Col = nextCol[1];
-
-        // --- 4. Check for rewards and status changes for each agent ---
-        // Agent 1
-        if (nextPos1 == foodState1D && !agent1HasEaten) {
-            agent1HasEaten = true;
-            rewards[0] += 20.0;
-        }
-        if (nextPos1 == waterState1D && !agent1HasDrunk) {
-            agent1HasDrunk = true;
-            rewards[0] += 20.0;
-        }
-        if (nextPos1 == exitState1D) {
-            rewards[0] += (agent1HasEaten && agent1HasDrunk) ? 50.0 : -50.0;
-            done = true;
+    /**
+     * Writes each agent's next observation, its reward and the done flag into a caller-owned holder
+     * created with one slot per mouse.
+     *
+     * @param actions actions[i] is the action of mouse i.
+     * @param result  Receives the next observations, rewards, and done flag.
+     */
+    @Override
+    public void step(int[] actions, MutableMultiAgentStepResult result) {
+        final int[] nextStates = result.nextStates();
+        final double[] rewards = result.rewards();
+        if (++generation == 0) {
+            // After 2^32 steps stale stamps could match again, so start over from a clean grid
+            Arrays.fill(cellStamp, 0);
+            generation = 1;
         }
 
-        // Agent 2
-        if (nextPos2 == foodState1D && !agent2HasEaten) {
-            agent2HasEaten = true;
-            rewards[1] += 20.0;
+        // --- 1. Calculate potential next positions, counting the mice that head for each resource cell ---
+        boolean conflict = false;
+        for (int i = 0; i < numAgents; i++) {
+            final int next = move(position[i], actions[i]);
+            target[i] = next;
+            rewards[i] = -1.0; // Default step penalty for each agent
+            if (next == foodState1D || next == waterState1D) {
+                if (cellStamp[next] != generation) {
+                    cellStamp[next] = generation;
+                    cellCount[next] = 1;
+                } else {
+                    cellCount[next]++;
+                    conflict = true;
+                }
+            }
         }
-        if (nextPos2 == waterState1D && !agent2HasDrunk) {
-            agent2HasDrunk = true;
-            rewards[1] += 20.0;
+
+        // --- 2. Mice that try to move to the same resource square on the same turn die ---
+        if (conflict) {
+            for (int i = 0; i < numAgents; i++) {
+                final int next = target[i];
+                if (cellStamp[next] == generation && cellCount[next] > 1) {
+                    rewards[i] -= 100.0; // Strong penalty for dying
+                }
+                // No need to update positions or check other rewards, the episode is over.
+                nextStates[i] = getObservation(i);
+            }
+            result.setDone(true);
+            return;
         }
-        if (nextPos2 == exitState1D) {
-            rewards[1] += (agent2HasEaten && agent2HasDrunk) ? 50.0 : -50.0;
-            done = true;
+
+        // --- 3. If no conflict, update positions and check for rewards and status changes ---
+        boolean done = false;
+        for (int i = 0; i < numAgents; i++) {
+            final int next = target[i];
+            position[i] = next;
+            if (next == foodState1D && (flags[i] & EATEN) == 0) {
+                flags[i] |= EATEN;
+                rewards[i] += 20.0;
+            }
+            if (next == waterState1D && (flags[i] & DRUNK) == 0) {
+                flags[i] |= DRUNK;
+                rewards[i] += 20.0;
+            }
+            if (next == exitState1D) {
+                rewards[i] += flags[i] == (EATEN | DRUNK) ? 50.0 : -50.0;
+                done = true;
+            }
+            nextStates[i] = getObservation(i);
         }
+        result.setDone(done);
+    }
 
-        int nextState = encodeState();
-        return new MultiAgentStepResult(nextState, 0, rewards, done);
+    private static int move(int pos, int action) {
+        switch (action) {
+            case 0:
+                return pos >= GRID_COLS ? pos - GRID_COLS : pos; // N
+            case 1:
+                return pos < GRID_CELLS - GRID_COLS ? pos + GRID_COLS : pos; // S
+            case 2:
+                return pos % GRID_COLS < GRID_COLS - 1 ? pos + 1 : pos; // E
+            case 3:
+                return pos % GRID_COLS > 0 ? pos - 1 : pos; // W
+            default:
+                return pos;
+        }
     }
 
     // Helper for visualization
     public Map<Integer, String> getSpecialStates() {
-        final Map<Integer, String> special = new HashMap<>();
-        special.put(startState1D, "S");
-        special.put(exitState1D, "E");
-        special.put(foodState1D, "F");
-        special.put(waterState1D, "W");
-        return special;
+        if (specialStates == null) {
+            final Map<Integer, String> special = new HashMap<>();
+            special.put(startState1D, "S");
+            special.put(exitState1D, "E");
+            special.put(foodState1D, "F");
+            special.put(waterState1D, "W");
+            specialStates = Collections.unmodifiableMap(special);
+        }
+        return specialStates;
     }
 }
@@ -0,0 +1,89 @@
+package pt.mleiria.rl.mdp.env.vector;
+
+import java.util.Arrays;
+
+/**
+ * A {@link VectorEnvironment} of N Cliff Walking environments, with the same dynamics
+ * as {@link pt.mleiria.rl.mdp.env.CliffWalkingEnvironment}.
+ */
+public final class CliffWalkingVectorEnvironment implements VectorEnvironment {
+
+    private static final int N_ROWS = 4;
+    private static final int N_COLS = 12;
+    private static final int NUM_STATES = N_ROWS * N_COLS;
+    private static final int NUM_ACTIONS = 4; // 0:Up, 1:Right, 2:Down, 3:Left
+    private static final int START_STATE = 36;
+    private static final int GOAL_STATE = 47;
+    // Indexed by state, replaces the Set<Integer> lookup of the scalar environment
+    private static final boolean[] CLIFF = new boolean[NUM_STATES];
+
+    static {
+        for (int i = 37; i < 47; i++) {
+            CLIFF[i] = true;
+        }
+    }
+
+    private final int numEnvs;
+    private final int[] currentState;
+
+    public CliffWalkingVectorEnvironment(int numEnvs) {
+        this.numEnvs = numEnvs;
+        this.currentState = new int[numEnvs];
+        Arrays.fill(currentState, START_STATE);
+    }
+
+    @Override
+    public int getNumEnvs() {
+        return numEnvs;
+    }
+
+    @Override
+    public int getNumStates() {
+        return NUM_STATES;
+    }
+
+    @Override
+    public int getNumActions() {
+        return NUM_ACTIONS;
+    }
+
+    @Override
+    public void reset(int[] states) {
+        for (int i = 0; i < numEnvs; i++) {
+            currentState[i] = START_STATE;
+            states[i] = START_STATE;
+        }
+    }
+
+    @Override
+    public int state(int slot) {
+        return currentState[slot];
+    }
+
+    @Override
+    public void step(int[] actions, int[] nextStates, double[] rewards, boolean[] dones) {
+        for (int i = 0; i < numEnvs; i++) {
+            int row = currentState[i] / N_COLS;
+            int col = currentState[i] % N_COLS;
+            switch (actions[i]) {
+                case 0 -> row = Math.max(0, row - 1);
+                case 1 -> col = Math.min(N_COLS - 1, col + 1);
+                case 2 -> row = Math.min(N_ROWS - 1, row + 1);
+                case 3 -> col = Math.max(0, col - 1);
+                default -> {
+                }
+            }
+            int next = row * N_COLS + col;
+            final boolean cliff = CLIFF[next];
+            if (cliff) {
+                // Fell off the cliff: the scalar environment reports the start state as the successor
+                next = START_STATE;
+            }
+            final boolean done = cliff || next == GOAL_STATE;
+            nextStates[i] = next;
+            rewards[i] = cliff ? -100.0 : -1.0;
+            dones[i] = done;
+            currentState[i] = done ? START_STATE : next;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package pt.mleiria.rl.mdp.env.vector;
+
+/**
+ * A {@link VectorEnvironment} of N Frozen Lake environments, with the same (deterministic) dynamics
+ * as {@link pt.mleiria.rl.mdp.env.FrozenLakeEnvironment}.
+ */
+public final class FrozenLakeVectorEnvironment implements VectorEnvironment {
+
+    private static final int GRID_SIZE = 4;
+    private static final int NUM_STATES = GRID_SIZE * GRID_SIZE;
+    private static final int NUM_ACTIONS = 4; // 0:Up, 1:Right, 2:Down, 3:Left
+    private static final int START_STATE = 0;
+    private static final int GOAL_STATE = 15;
+    // Indexed by state, replaces the Set<Integer> lookup of the scalar environment
+    private static final boolean[] HOLES = new boolean[NUM_STATES];
+
+    static {
+        HOLES[5] = true;
+        HOLES[7] = true;
+        HOLES[11] = true;
+        HOLES[12] = true;
+    }
+
+    private final int numEnvs;
+    private final int[] currentState;
+
+    public FrozenLakeVectorEnvironment(int numEnvs) {
+        this.numEnvs = numEnvs;
+        this.currentState = new int[numEnvs];
+    }
+
+    @Override
+    public int getNumEnvs() {
+        return numEnvs;
+    }
+
+    @Override
+    public int getNumStates() {
+        return NUM_STATES;
+    }
+
+    @Override
+    public int getNumActions() {
+        return NUM_ACTIONS;
+    }
+
+    @Override
+    public void reset(int[] states) {
+        for (int i = 0; i < numEnvs; i++) {
+            currentState[i] = START_STATE;
+            states[i] = START_STATE;
+        }
+    }
+
+    @Override
+    public int state(int slot) {
+        return currentState[slot];
+    }
+
+    @Override
+    public void step(int[] actions, int[] nextStates, double[] rewards, boolean[] dones) {
+        for (int i = 0; i < numEnvs; i++) {
+            int row = currentState[i] / GRID_SIZE;
+            int col = currentState[i] % GRID_SIZE;
+            switch (actions[i]) {
+                case 0 -> row = Math.max(0, row - 1);
+                case 1 -> col = Math.min(GRID_SIZE - 1, col + 1);
+                case 2 -> row = Math.min(GRID_SIZE - 1, row + 1);
+                case 3 -> col = Math.max(0, col - 1);
+                default -> {
+                }
+            }
+            final int next = row * GRID_SIZE + col;
+            final boolean goal = next == GOAL_STATE;
+            final boolean done = goal || HOLES[next];
+            nextStates[i] = next;
+            rewards[i] = goal ? 1.0 : 0.0;
+            dones[i] = done;
+            currentState[i] = done ? START_STATE : next;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package pt.mleiria.rl.mdp.env.vector;
+
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A {@link VectorEnvironment} of N Mouse environments, with the same dynamics and state encoding
+ * as {@link pt.mleiria.rl.mdp.env.MouseEnvironment}.
+ */
+public final class MouseVectorEnvironment implements VectorEnvironment {
+
+    private static final int GRID_ROWS = 10;
+    private static final int GRID_COLS = 10;
+    private static final int GRID_CELLS = GRID_ROWS * GRID_COLS;
+    private static final int NUM_ACTIONS = 4; // 0:N, 1:S, 2:E, 3:W
+    private static final int NUM_STATES = GRID_CELLS * 2 * 2;
+    private static final int START_STATE_1D = 0;
+    private static final int EXIT_STATE_1D = GRID_CELLS - 1;
+
+    private final int numEnvs;
+    // Structure of arrays, one entry per slot
+    private final int[] agentRow;
+    private final int[] agentCol;
+    private final boolean[] hasEaten;
+    private final boolean[] hasDrunk;
+    private final int[] foodState1D;
+    private final int[] waterState1D;
+
+    private final RandomGenerator random;
+
+    public MouseVectorEnvironment(int numEnvs) {
+        this(numEnvs, RandomUtils.newGenerator());
+    }
+
+    /**
+     * @param numEnvs The number of environment copies.
+     * @param random  The source of randomness for the start states of all slots, e.g. a seeded stream.
+     */
+    public MouseVectorEnvironment(int numEnvs, RandomGenerator random) {
+        this.numEnvs = numEnvs;
+        this.random = random;
+        this.agentRow = new int[numEnvs];
+        this.agentCol = new int[numEnvs];
+        this.hasEaten = new boolean[numEnvs];
+        this.hasDrunk = new boolean[numEnvs];
+        this.foodState1D = new int[numEnvs];
+        this.waterState1D = new int[numEnvs];
+        for (int i = 0; i < numEnvs; i++) {
+            resetSlot(i);
+        }
+    }
+
+    @Override
+    public int getNumEnvs() {
+        return numEnvs;
+    }
+
+    @Override
+    public int getNumStates() {
+        return NUM_STATES;
+    }
+
+    @Override
+    public int getNumActions() {
+        return NUM_ACTIONS;
+    }
+
+    @Override
+    public void reset(int[] states) {
+        for (int i = 0; i < numEnvs; i++) {
+            states[i] = resetSlot(i);
+        }
+    }
+
+    private int resetSlot(int i) {
+        agentRow[i] = 0;
+        agentCol[i] = 0;
+        hasEaten[i] = false;
+        hasDrunk[i] = false;
+        int food;
+        do {
+            food = random.nextInt(GRID_CELLS);
+        } while (food == START_STATE_1D || food == EXIT_STATE_1D);
+        int water;
+        do {
+            water = random.nextInt(GRID_CELLS);
+        } while (water == START_STATE_1D || water == EXIT_STATE_1D || water == food);
+        foodState1D[i] = food;
+        waterState1D[i] = water;
+        return state(i);
+    }
+
+    @Override
+    public int state(int slot) {
+        return agentRow[slot] * GRID_COLS + agentCol[slot]
+                + (hasEaten[slot] ? GRID_CELLS : 0)
+                + (hasDrunk[slot] ? GRID_CELLS * 2 : 0);
+    }
+
+    @Override
+    public void step(int[] actions, int[] nextStates, double[] rewards, boolean[] dones) {
+        for (int i = 0; i < numEnvs; i++) {
+            switch (actions[i]) {
+                case 0 -> agentRow[i] = Math.max(0, agentRow[i] - 1);
+                case 1 -> agentRow[i] = Math.min(GRID_ROWS - 1, agentRow[i] + 1);
+                case 2 -> agentCol[i] = Math.min(GRID_COLS - 1, agentCol[i] + 1);
+                case 3 -> agentCol[i] = Math.max(0, agentCol[i] - 1);
+                default -> {
+                }
+            }
+            final int pos = agentRow[i] * GRID_COLS + agentCol[i];
+            double reward = -1.0;
+            boolean done = false;
+            if (pos == foodState1D[i] && !hasEaten[i]) {
+                hasEaten[i] = true;
+                reward += 20.0;
+            }
+            if (pos == waterState1D[i] && !hasDrunk[i]) {
+                hasDrunk[i] = true;
+                reward += 20.0;
+            }
+            if (pos == EXIT_STATE_1D) {
+                reward += (hasEaten[i] && hasDrunk[i]) ? 50.0 : -50.0;
+                done = true;
+            }
+            nextStates[i] = state(i);
+            rewards[i] = reward;
+            dones[i] = done;
+            if (done) {
+                resetSlot(i);
+            }
+        }
+    }
+}
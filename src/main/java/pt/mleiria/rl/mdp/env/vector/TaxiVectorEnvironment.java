@@ -0,0 +1,144 @@
+package pt.mleiria.rl.mdp.env.vector;
+
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A {@link VectorEnvironment} of N Taxi environments, with the same dynamics and state encoding
+ * as {@link pt.mleiria.rl.mdp.env.TaxiEnvironment}.
+ */
+public final class TaxiVectorEnvironment implements VectorEnvironment {
+
+    private static final int GRID_ROWS = 5;
+    private static final int GRID_COLS = 5;
+    private static final int NUM_STATES = 500;
+    private static final int NUM_ACTIONS = 6; // 0:S, 1:N, 2:E, 3:W, 4:Pickup, 5:Dropoff
+    private static final int IN_TAXI = 4;
+
+    // Rows and columns of the 4 special locations R, G, Y, B
+    private static final int[] LOCATION_ROWS = {0, 0, 4, 4};
+    private static final int[] LOCATION_COLS = {0, 4, 0, 3};
+
+    private final int numEnvs;
+    // Structure of arrays: slot i is (taxiRow[i], taxiCol[i], passengerLocationIdx[i], destinationIdx[i])
+    private final int[] taxiRow;
+    private final int[] taxiCol;
+    private final int[] passengerLocationIdx;
+    private final int[] destinationIdx;
+
+    private final RandomGenerator random;
+
+    public TaxiVectorEnvironment(int numEnvs) {
+        this(numEnvs, RandomUtils.newGenerator());
+    }
+
+    /**
+     * @param numEnvs The number of environment copies.
+     * @param random  The source of randomness for the start states of all slots, e.g. a seeded stream.
+     */
+    public TaxiVectorEnvironment(int numEnvs, RandomGenerator random) {
+        this.numEnvs = numEnvs;
+        this.random = random;
+        this.taxiRow = new int[numEnvs];
+        this.taxiCol = new int[numEnvs];
+        this.passengerLocationIdx = new int[numEnvs];
+        this.destinationIdx = new int[numEnvs];
+        for (int i = 0; i < numEnvs; i++) {
+            resetSlot(i);
+        }
+    }
+
+    @Override
+    public int getNumEnvs() {
+        return numEnvs;
+    }
+
+    @Override
+    public int getNumStates() {
+        return NUM_STATES;
+    }
+
+    @Override
+    public int getNumActions() {
+        return NUM_ACTIONS;
+    }
+
+    @Override
+    public void reset(int[] states) {
+        for (int i = 0; i < numEnvs; i++) {
+            states[i] = resetSlot(i);
+        }
+    }
+
+    private int resetSlot(int i) {
+        taxiRow[i] = random.nextInt(GRID_ROWS);
+        taxiCol[i] = random.nextInt(GRID_COLS);
+        passengerLocationIdx[i] = random.nextInt(LOCATION_ROWS.length);
+        int destination;
+        do {
+            destination = random.nextInt(LOCATION_ROWS.length);
+        } while (destination == passengerLocationIdx[i]);
+        destinationIdx[i] = destination;
+        return state(i);
+    }
+
+    @Override
+    public int state(int slot) {
+        return destinationIdx[slot] + passengerLocationIdx[slot] * 4 + taxiCol[slot] * 20 + taxiRow[slot] * 100;
+    }
+
+    /**
+     * Sets one slot to a specific configuration, as {@link pt.mleiria.rl.mdp.env.TaxiEnvironment#setState} does.
+     *
+     * @return The encoded state of the slot.
+     */
+    public int setState(int slot, int row, int col, int passIdx, int destIdx) {
+        taxiRow[slot] = row;
+        taxiCol[slot] = col;
+        passengerLocationIdx[slot] = passIdx;
+        destinationIdx[slot] = destIdx;
+        return state(slot);
+    }
+
+    @Override
+    public void step(int[] actions, int[] nextStates, double[] rewards, boolean[] dones) {
+        for (int i = 0; i < numEnvs; i++) {
+            double reward = -1.0;
+            boolean done = false;
+            final int passenger = passengerLocationIdx[i];
+            switch (actions[i]) {
+                case 0 -> taxiRow[i] = Math.min(taxiRow[i] + 1, GRID_ROWS - 1);
+                case 1 -> taxiRow[i] = Math.max(taxiRow[i] - 1, 0);
+                case 2 -> taxiCol[i] = Math.min(taxiCol[i] + 1, GRID_COLS - 1);
+                case 3 -> taxiCol[i] = Math.max(taxiCol[i] - 1, 0);
+                case 4 -> {
+                    if (passenger == IN_TAXI
+                            || taxiRow[i] != LOCATION_ROWS[passenger] || taxiCol[i] != LOCATION_COLS[passenger]) {
+                        reward = -10.0; // Illegal pickup
+                    } else {
+                        passengerLocationIdx[i] = IN_TAXI;
+                    }
+                }
+                case 5 -> {
+                    final int destination = destinationIdx[i];
+                    if (passenger != IN_TAXI
+                            || taxiRow[i] != LOCATION_ROWS[destination] || taxiCol[i] != LOCATION_COLS[destination]) {
+                        reward = -10.0; // Illegal dropoff
+                    } else {
+                        reward = 20.0;
+                        done = true;
+                    }
+                }
+                default -> {
+                }
+            }
+            nextStates[i] = state(i);
+            rewards[i] = reward;
+            dones[i] = done;
+            if (done) {
+                resetSlot(i);
+            }
+        }
+    }
+}
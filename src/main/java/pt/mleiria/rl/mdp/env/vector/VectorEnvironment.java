@@ -0,0 +1,55 @@
+package pt.mleiria.rl.mdp.env.vector;
+
+/**
+ * N independent copies of an environment that are stepped in lockstep, one action per copy ("slot").
+ * <p>
+ * Implementations keep the state of all copies in parallel primitive arrays (structure of arrays)
+ * and step every slot in one tight loop, so a batch of transitions costs one call instead of N.
+ * Slots whose episode ends are reset automatically inside {@link #step}.
+ */
+public interface VectorEnvironment {
+
+    /**
+     * Returns the number of environment copies (slots).
+     */
+    int getNumEnvs();
+
+    /**
+     * Returns the number of states of a single copy.
+     */
+    int getNumStates();
+
+    /**
+     * Returns the number of actions of a single copy.
+     */
+    int getNumActions();
+
+    /**
+     * Resets every slot to the start of a new episode.
+     *
+     * @param states Receives the encoded initial state of each slot; length at least {@link #getNumEnvs()}.
+     */
+    void reset(int[] states);
+
+    /**
+     * Takes one action in every slot.
+     * <p>
+     * {@code nextStates[i]} is always the successor of the transition taken in slot {@code i}, so it can be
+     * used for learning. When {@code dones[i]} is {@code true}, slot {@code i} has already been reset and
+     * its new initial state is available from {@link #state(int)}.
+     *
+     * @param actions    The action for each slot.
+     * @param nextStates Receives the next state of each slot.
+     * @param rewards    Receives the reward of each slot.
+     * @param dones      Receives whether the episode in each slot ended.
+     */
+    void step(int[] actions, int[] nextStates, double[] rewards, boolean[] dones);
+
+    /**
+     * Returns the current encoded state of one slot.
+     *
+     * @param slot The slot index.
+     * @return The state the next action in this slot will be taken from.
+     */
+    int state(int slot);
+}
@@ -0,0 +1,40 @@
+package pt.mleiria.rl.mdp.kernel;
+
+/**
+ * Holds the {@link RowKernels} implementation; initialized on first use of {@link RowKernels#get()}.
+ */
+final class KernelSelection {
+
+    static final RowKernels KERNELS = select();
+
+    private KernelSelection() {
+    }
+
+    private static RowKernels select() {
+        final String choice = System.getProperty(RowKernels.PROPERTY, "auto");
+        if (choice.equals("scalar")) {
+            return new ScalarRowKernels();
+        }
+        final boolean available = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        if (!available) {
+            if (choice.equals("vector")) {
+                throw new IllegalStateException("Vector kernels requested but jdk.incubator.vector is not loaded; "
+                        + "run with --add-modules jdk.incubator.vector");
+            }
+            return new ScalarRowKernels();
+        }
+        // Loaded by name, so that this class links without the incubator module
+        try {
+            final Class<?> type = Class.forName("pt.mleiria.rl.mdp.kernel.VectorRowKernels");
+            if (!choice.equals("vector") && !(Boolean) type.getDeclaredMethod("isWorthwhile").invoke(null)) {
+                return new ScalarRowKernels();
+            }
+            return (RowKernels) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            if (choice.equals("vector")) {
+                throw new IllegalStateException("Vector kernels could not be loaded", e);
+            }
+            return new ScalarRowKernels();
+        }
+    }
+}
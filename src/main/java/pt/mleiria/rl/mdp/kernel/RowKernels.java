@@ -0,0 +1,50 @@
+package pt.mleiria.rl.mdp.kernel;
+
+/**
+ * Loops over contiguous runs of doubles that Q-tables and agents spend most of their time in: the max and
+ * argmax of a row and the exponentials of a softmax.
+ * <p>
+ * {@link #get()} returns the implementation chosen once, when this interface is first used: SIMD kernels on
+ * the {@code jdk.incubator.vector} API if that module is present (run with
+ * {@code --add-modules jdk.incubator.vector}), otherwise plain scalar loops. The system property
+ * {@value #PROPERTY} set to {@code scalar} or {@code vector} overrides the choice. Both give the same argmax,
+ * and the same max up to the sign of zero: a row holding both {@code 0.0} and {@code -0.0} may yield either.
+ * Exponentials may differ in the last bit, and rows containing NaN are not supported.
+ */
+public interface RowKernels {
+
+    /**
+     * The system property that selects the implementation: {@code scalar}, {@code vector} or {@code auto}.
+     */
+    String PROPERTY = "pt.mleiria.kernels";
+
+    /**
+     * @return The implementation selected at startup.
+     */
+    static RowKernels get() {
+        return KernelSelection.KERNELS;
+    }
+
+    /**
+     * @return A short name of the implementation, e.g. for benchmark output.
+     */
+    String name();
+
+    /**
+     * @return The largest of {@code a[from], ..., a[from + length - 1]}; {@code length} must be positive.
+     */
+    double max(double[] a, int from, int length);
+
+    /**
+     * @return The position, relative to {@code from}, of the first occurrence of the largest value of the run.
+     */
+    int argMax(double[] a, int from, int length);
+
+    /**
+     * Writes {@code exp((a[from + i] - shift) * scale)} to {@code dst[i]} for each i in the run.
+     *
+     * @return The sum of the written values.
+     */
+    double expShifted(double[] a, int from, int length, double shift, double scale, double[] dst);
+
+}
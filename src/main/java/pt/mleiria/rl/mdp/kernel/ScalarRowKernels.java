@@ -0,0 +1,48 @@
+package pt.mleiria.rl.mdp.kernel;
+
+/**
+ * Plain loops; the fallback when the Vector API is not available, and the reference for the SIMD kernels.
+ */
+final class ScalarRowKernels implements RowKernels {
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public double max(double[] a, int from, int length) {
+        double max = a[from];
+        for (int i = from + 1; i < from + length; i++) {
+            if (a[i] > max) {
+                max = a[i];
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public int argMax(double[] a, int from, int length) {
+        int best = 0;
+        double max = a[from];
+        for (int i = 1; i < length; i++) {
+            if (a[from + i] > max) {
+                max = a[from + i];
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public double expShifted(double[] a, int from, int length, double shift, double scale, double[] dst) {
+        double sum = 0.0;
+        for (int i = 0; i < length; i++) {
+            final double value = Math.exp((a[from + i] - shift) * scale);
+            dst[i] = value;
+            sum += value;
+        }
+        return sum;
+    }
+
+}
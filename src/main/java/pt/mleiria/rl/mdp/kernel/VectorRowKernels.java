@@ -0,0 +1,99 @@
+package pt.mleiria.rl.mdp.kernel;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernels on the incubating Vector API, at the platform's preferred width (8 doubles with AVX-512,
+ * 4 with AVX2). Short runs, and the tails of longer ones, use the scalar loops.
+ * <p>
+ * Only loaded by {@link KernelSelection} once it has checked that {@code jdk.incubator.vector} is present.
+ */
+final class VectorRowKernels implements RowKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    // Below two vectors the scalar max and argmax loops are as fast, measured with RowKernelsBenchmark
+    private static final int MIN_SEARCH_LENGTH = 2 * LANES;
+
+    private final ScalarRowKernels scalar = new ScalarRowKernels();
+
+    /**
+     * @return True if the preferred vectors hold at least four doubles; narrower ones do not pay for
+     * themselves over the scalar loops.
+     */
+    static boolean isWorthwhile() {
+        return LANES >= 4;
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+
+    @Override
+    public double max(double[] a, int from, int length) {
+        if (length < MIN_SEARCH_LENGTH) {
+            return scalar.max(a, from, length);
+        }
+        final int bound = SPECIES.loopBound(length);
+        DoubleVector max = DoubleVector.fromArray(SPECIES, a, from);
+        for (int i = LANES; i < bound; i += LANES) {
+            max = max.max(DoubleVector.fromArray(SPECIES, a, from + i));
+        }
+        double result = max.reduceLanes(VectorOperators.MAX);
+        for (int i = bound; i < length; i++) {
+            if (a[from + i] > result) {
+                result = a[from + i];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int argMax(double[] a, int from, int length) {
+        if (length < MIN_SEARCH_LENGTH) {
+            return scalar.argMax(a, from, length);
+        }
+        // Find the maximum first, then the first lane that holds it
+        final double max = max(a, from, length);
+        final int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += LANES) {
+            final VectorMask<Double> hits = DoubleVector.fromArray(SPECIES, a, from + i).compare(VectorOperators.EQ, max);
+            if (hits.anyTrue()) {
+                return i + hits.firstTrue();
+            }
+        }
+        for (int i = bound; i < length; i++) {
+            if (a[from + i] == max) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public double expShifted(double[] a, int from, int length, double shift, double scale, double[] dst) {
+        if (length < LANES) {
+            return scalar.expShifted(a, from, length, shift, scale, dst);
+        }
+        final int bound = SPECIES.loopBound(length);
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        for (int i = 0; i < bound; i += LANES) {
+            final DoubleVector value = DoubleVector.fromArray(SPECIES, a, from + i)
+                    .sub(shift).mul(scale).lanewise(VectorOperators.EXP);
+            value.intoArray(dst, i);
+            sum = sum.add(value);
+        }
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (int i = bound; i < length; i++) {
+            final double value = Math.exp((a[from + i] - shift) * scale);
+            dst[i] = value;
+            result += value;
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,311 @@
+package pt.mleiria.rl.mdp.planner;
+
+import pt.mleiria.rl.mdp.env.Environment;
+import pt.mleiria.rl.mdp.env.Snapshottable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MctsConfig;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+/**
+ * A decision-time planner: Monte Carlo Tree Search with UCT selection and random rollouts.
+ * <p>
+ * Every decision searches from a {@link Snapshottable#snapshot() snapshot} of the live environment. Each
+ * worker owns a private simulator built by the factory, restores the snapshot at the start of every
+ * simulation and replays the tree's actions on it, so nodes store statistics only, never states. This
+ * open-loop search also handles stochastic dynamics, whose outcomes are simply averaged.
+ * <p>
+ * Each tree lives in a preallocated {@link NodePool}; nothing is allocated per simulation. With several
+ * workers the search is parallel as described in {@link MctsConfig}: the roots of independent trees are
+ * merged, and threads sharing a tree add a virtual loss to the nodes on their path so that they tend to
+ * explore different branches.
+ * <p>
+ * Planners with more than one worker own a thread pool and must be {@link #close() closed}.
+ *
+ * @param <E> The environment type; simulators must accept snapshots of the live environment.
+ */
+public class MctsPlanner<E extends Environment & Snapshottable> implements AutoCloseable {
+
+    private final E env;
+    private final MctsConfig config;
+    private final int numActions;
+    private final NodePool[] trees;
+    private final List<Worker> workers;
+    private final List<Callable<Void>> tasks;
+    private final ExecutorService executor;
+    private final AtomicInteger remaining = new AtomicInteger();
+    private final int[] rootVisits;
+    private final double[] rootValues;
+
+    private long rootSnapshot;
+    private long deadline;
+    private int lastSimulations;
+
+    /**
+     * Creates a planner with an unseeded random stream.
+     *
+     * @param env              The live environment, snapshotted at every decision.
+     * @param simulatorFactory Creates a private simulator for each worker from a private random stream,
+     *                         e.g. {@code TaxiEnvironment::new}.
+     * @param config           The search settings.
+     */
+    public MctsPlanner(E env, Function<RandomGenerator, E> simulatorFactory, MctsConfig config) {
+        this(env, simulatorFactory, config, RandomUtils.newGenerator().nextLong());
+    }
+
+    /**
+     * Creates a planner whose rollouts are drawn from streams split off one seeded generator. With one
+     * worker, and the simulation limit as the only budget, decisions are reproducible.
+     *
+     * @param env              The live environment, snapshotted at every decision.
+     * @param simulatorFactory Creates a private simulator for each worker from a private random stream.
+     * @param config           The search settings.
+     * @param seed             The seed of the root random generator.
+     */
+    public MctsPlanner(E env, Function<RandomGenerator, E> simulatorFactory, MctsConfig config, long seed) {
+        this.env = env;
+        this.config = config;
+        this.numActions = env.getNumActions();
+        this.trees = new NodePool[config.trees()];
+        for (int t = 0; t < trees.length; t++) {
+            trees[t] = new NodePool(config.nodeCapacity(), numActions);
+        }
+        final SplittableGenerator root = RandomUtils.newGenerator(seed);
+        this.workers = new ArrayList<>(config.workers());
+        this.tasks = new ArrayList<>(config.workers());
+        for (int w = 0; w < config.workers(); w++) {
+            final SplittableGenerator random = root.split();
+            final Worker worker = new Worker(simulatorFactory.apply(random.split()), trees[w / config.threadsPerTree()], random);
+            workers.add(worker);
+            tasks.add(() -> {
+                worker.search();
+                return null;
+            });
+        }
+        this.executor = workers.size() > 1 ? Executors.newFixedThreadPool(workers.size()) : null;
+        this.rootVisits = new int[numActions];
+        this.rootValues = new double[numActions];
+    }
+
+    /**
+     * Searches from the live environment's current state and returns the most visited root action.
+     *
+     * @param state The current encoded state; the search starts from the environment's full snapshot, which
+     *              this state is part of, so it is not used otherwise.
+     * @return The chosen action.
+     */
+    public int chooseAction(int state) {
+        return plan(env.snapshot());
+    }
+
+    /**
+     * Searches from a snapshot and returns the most visited root action.
+     *
+     * @param snapshot A snapshot of the live environment, or of one built with the same arguments.
+     * @return The chosen action.
+     */
+    public int plan(long snapshot) {
+        this.rootSnapshot = snapshot;
+        this.deadline = config.maxDuration() == null ? Long.MAX_VALUE
+                : System.nanoTime() + config.maxDuration().toNanos();
+        for (NodePool tree : trees) {
+            tree.clear();
+        }
+        remaining.set(config.simulations());
+        if (executor == null) {
+            workers.get(0).search();
+        } else {
+            runParallel();
+        }
+
+        // Merge the roots of all trees; ties go to the better mean value
+        Arrays.fill(rootVisits, 0);
+        Arrays.fill(rootValues, 0.0);
+        for (NodePool tree : trees) {
+            final int first = tree.firstChild(0);
+            if (first < 0) {
+                continue;
+            }
+            for (int a = 0; a < numActions; a++) {
+                rootVisits[a] += tree.visits(first + a);
+                rootValues[a] += tree.valueSum(first + a);
+            }
+        }
+        int best = 0;
+        for (int a = 1; a < numActions; a++) {
+            if (rootVisits[a] > rootVisits[best] || (rootVisits[a] == rootVisits[best] && rootVisits[a] > 0
+                    && rootValues[a] / rootVisits[a] > rootValues[best] / rootVisits[best])) {
+                best = a;
+            }
+        }
+        this.lastSimulations = config.simulations() - Math.max(0, remaining.get());
+        return best;
+    }
+
+    private void runParallel() {
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while planning", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Planning worker failed", e.getCause());
+        }
+    }
+
+    /**
+     * @return The number of simulations run by the last decision.
+     */
+    public int getLastSimulations() {
+        return lastSimulations;
+    }
+
+    /**
+     * @return The number of nodes used by the last decision, summed over all trees.
+     */
+    public int getLastTreeSize() {
+        int size = 0;
+        for (NodePool tree : trees) {
+            size += tree.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * One search thread: a private simulator, random stream and path buffers.
+     */
+    private final class Worker {
+
+        private final E simulator;
+        private final NodePool tree;
+        private final RandomGenerator random;
+        private final MutableStepResult result = new MutableStepResult();
+        private final int[] path;
+        private final double[] rewards;
+
+        Worker(E simulator, NodePool tree, RandomGenerator random) {
+            this.simulator = simulator;
+            this.tree = tree;
+            this.random = random;
+            this.path = new int[config.horizon() + 1];
+            this.rewards = new double[config.horizon()];
+        }
+
+        void search() {
+            while (remaining.getAndDecrement() > 0) {
+                if (System.nanoTime() >= deadline) {
+                    // Give back the simulation that was not run, so the count stays exact
+                    remaining.incrementAndGet();
+                    return;
+                }
+                simulate();
+            }
+        }
+
+        private void simulate() {
+            final int horizon = config.horizon();
+            final double gamma = config.gamma();
+            simulator.restore(rootSnapshot);
+            int node = 0;
+            int depth = 0;
+            boolean done = false;
+            path[0] = 0;
+            tree.addVirtualLoss(0);
+
+            // Selection: descend through expanded nodes
+            while (!done && depth < horizon) {
+                final int first = tree.firstChild(node);
+                if (first < 0) {
+                    break;
+                }
+                final int action = select(node, first);
+                simulator.step(action, result);
+                rewards[depth] = result.reward();
+                done = result.done();
+                node = first + action;
+                path[++depth] = node;
+                tree.addVirtualLoss(node);
+            }
+
+            // Expansion: grow the tree by one level once a leaf has been visited before
+            if (!done && depth < horizon && (node == 0 || tree.visits(node) > 0)
+                    && tree.firstChild(node) == NodePool.UNEXPANDED) {
+                final int first = tree.expand(node);
+                if (first >= 0) {
+                    final int action = random.nextInt(numActions);
+                    simulator.step(action, result);
+                    rewards[depth] = result.reward();
+                    done = result.done();
+                    node = first + action;
+                    path[++depth] = node;
+                    tree.addVirtualLoss(node);
+                }
+            }
+
+            // Rollout: uniformly random actions until the episode or the horizon ends
+            double value = 0.0;
+            double discount = 1.0;
+            for (int step = depth; !done && step < horizon; step++) {
+                simulator.step(random.nextInt(numActions), result);
+                value += discount * result.reward();
+                discount *= gamma;
+                done = result.done();
+            }
+
+            // Backup: each node gets the discounted return from the edge that leads into it
+            for (int i = depth; i > 0; i--) {
+                value = rewards[i - 1] + gamma * value;
+                tree.backup(path[i], value);
+            }
+            tree.backup(0, value);
+        }
+
+        /**
+         * UCT on normalized values. Virtual losses count as visits that returned the worst value seen, and
+         * unvisited children come first, in an order that starts at a random action.
+         */
+        private int select(int node, int first) {
+            final double logParent = Math.log(Math.max(1, tree.visits(node) + tree.virtualLoss(node)));
+            final int offset = random.nextInt(numActions);
+            int best = offset;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < numActions; i++) {
+                final int action = (offset + i) % numActions;
+                final int child = first + action;
+                final int visits = tree.visits(child);
+                final int pending = visits + tree.virtualLoss(child);
+                if (pending == 0) {
+                    return action;
+                }
+                final double mean = visits > 0 ? tree.normalize(tree.valueSum(child) / visits) : 0.0;
+                final double score = mean * visits / pending + config.exploration() * Math.sqrt(logParent / pending);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = action;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package pt.mleiria.rl.mdp.planner;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A search tree stored as parallel primitive arrays, allocated once and reused for every decision.
+ * <p>
+ * Node 0 is the root. Expanding a node claims a contiguous block of {@code numActions} nodes, so the child
+ * reached by action {@code a} is simply {@code firstChild[node] + a} and no per-node objects or child lists
+ * exist. Statistics are updated atomically through {@link VarHandle}s, so several threads can share one tree.
+ */
+final class NodePool {
+
+    static final int UNEXPANDED = -1;
+    // Claimed by a thread that is still initializing the children
+    static final int EXPANDING = -2;
+    // Never expanded because the pool ran out of nodes
+    static final int FULL = -3;
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle DOUBLES = MethodHandles.arrayElementVarHandle(double[].class);
+
+    private final int capacity;
+    private final int numActions;
+    private final int[] firstChild;
+    private final int[] visits;
+    private final int[] virtualLoss;
+    private final double[] valueSum;
+    private final AtomicInteger used = new AtomicInteger();
+
+    // Range of backed-up returns, used to normalize values; racy updates only blur it slightly
+    private volatile double minValue;
+    private volatile double maxValue;
+
+    NodePool(int capacity, int numActions) {
+        this.capacity = capacity;
+        this.numActions = numActions;
+        this.firstChild = new int[capacity];
+        this.visits = new int[capacity];
+        this.virtualLoss = new int[capacity];
+        this.valueSum = new double[capacity];
+        clear();
+    }
+
+    /**
+     * Drops the whole tree, leaving a fresh root.
+     */
+    void clear() {
+        used.set(1);
+        initialize(0);
+        minValue = Double.POSITIVE_INFINITY;
+        maxValue = Double.NEGATIVE_INFINITY;
+    }
+
+    private void initialize(int node) {
+        firstChild[node] = UNEXPANDED;
+        visits[node] = 0;
+        virtualLoss[node] = 0;
+        valueSum[node] = 0.0;
+    }
+
+    /**
+     * @return The first child of {@code node}, or a negative marker if it has no children yet.
+     */
+    int firstChild(int node) {
+        return (int) INTS.getAcquire(firstChild, node);
+    }
+
+    /**
+     * Allocates the children of a leaf.
+     *
+     * @return The first child, or a negative marker if another thread got there first or the pool is full.
+     */
+    int expand(int node) {
+        if (!INTS.compareAndSet(firstChild, node, UNEXPANDED, EXPANDING)) {
+            return EXPANDING;
+        }
+        final int first = used.getAndAdd(numActions);
+        if (first + numActions > capacity) {
+            INTS.setRelease(firstChild, node, FULL);
+            return FULL;
+        }
+        for (int child = first; child < first + numActions; child++) {
+            initialize(child);
+        }
+        INTS.setRelease(firstChild, node, first);
+        return first;
+    }
+
+    int visits(int node) {
+        return (int) INTS.getOpaque(visits, node);
+    }
+
+    int virtualLoss(int node) {
+        return (int) INTS.getOpaque(virtualLoss, node);
+    }
+
+    double valueSum(int node) {
+        return (double) DOUBLES.getOpaque(valueSum, node);
+    }
+
+    void addVirtualLoss(int node) {
+        INTS.getAndAdd(virtualLoss, node, 1);
+    }
+
+    /**
+     * Records one simulation's return through {@code node} and removes the virtual loss it added.
+     */
+    void backup(int node, double value) {
+        DOUBLES.getAndAdd(valueSum, node, value);
+        INTS.getAndAdd(visits, node, 1);
+        INTS.getAndAdd(virtualLoss, node, -1);
+        if (value < minValue) {
+            minValue = value;
+        }
+        if (value > maxValue) {
+            maxValue = value;
+        }
+    }
+
+    /**
+     * Maps a value onto [0, 1] using the range of returns seen so far in this tree.
+     */
+    double normalize(double value) {
+        final double min = minValue;
+        final double max = maxValue;
+        return max > min ? (value - min) / (max - min) : 0.5;
+    }
+
+    /**
+     * @return The number of nodes in use, including any block lost to a full pool.
+     */
+    int size() {
+        return Math.min(used.get(), capacity);
+    }
+}
@@ -0,0 +1,146 @@
+package pt.mleiria.rl.mdp.qtable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A {@link QTable} that can be shared by several training threads without locks ("Hogwild" style).
+ * <p>
+ * Values are stored as raw double bits in one row-major {@code long[]} and accessed through a
+ * {@link VarHandle}. Reads are opaque, so every thread eventually sees the others' writes.
+ * How {@link #add} behaves under contention depends on the {@link Mode}.
+ */
+public class AtomicQTable implements QTable {
+
+    /**
+     * How concurrent {@link #add} calls on the same (state, action) pair are resolved.
+     */
+    public enum Mode {
+        /**
+         * Read-modify-write with compare-and-set on the double bits; no update is ever lost.
+         */
+        CAS,
+        /**
+         * Plain read then write; concurrent updates to the same entry may overwrite each other.
+         * Cheaper, and usually harmless for sparse tabular updates.
+         */
+        RACY
+    }
+
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int numStates;
+    private final int numActions;
+    private final long[] bits;
+    private final Mode mode;
+
+    /**
+     * Creates a zero-initialized shared Q-table.
+     *
+     * @param numStates  The number of states (rows).
+     * @param numActions The number of actions per state (row stride).
+     * @param mode       How concurrent updates are applied.
+     */
+    public AtomicQTable(int numStates, int numActions, Mode mode) {
+        if (numStates <= 0 || numActions <= 0) {
+            throw new IllegalArgumentException("Number of states and actions must be positive.");
+        }
+        if ((long) numStates * numActions > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Q-table too large: " + numStates + " x " + numActions);
+        }
+        this.numStates = numStates;
+        this.numActions = numActions;
+        this.bits = new long[numStates * numActions];
+        this.mode = mode;
+        // 0L is the bit pattern of +0.0, so the table starts zero-initialized
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    @Override
+    public int getNumStates() {
+        return numStates;
+    }
+
+    @Override
+    public int getNumActions() {
+        return numActions;
+    }
+
+    private double load(int index) {
+        return Double.longBitsToDouble((long) VALUES.getOpaque(bits, index));
+    }
+
+    @Override
+    public double get(int state, int action) {
+        return load(state * numActions + action);
+    }
+
+    @Override
+    public void set(int state, int action, double value) {
+        VALUES.setOpaque(bits, state * numActions + action, Double.doubleToRawLongBits(value));
+    }
+
+    @Override
+    public void add(int state, int action, double delta) {
+        final int index = state * numActions + action;
+        if (mode == Mode.RACY) {
+            VALUES.setOpaque(bits, index, Double.doubleToRawLongBits(load(index) + delta));
+            return;
+        }
+        long current;
+        do {
+            current = (long) VALUES.getOpaque(bits, index);
+        } while (!VALUES.weakCompareAndSet(bits, index, current,
+                Double.doubleToRawLongBits(Double.longBitsToDouble(current) + delta)));
+    }
+
+    @Override
+    public double max(int state) {
+        final int from = state * numActions;
+        final int to = from + numActions;
+        double maxQ = load(from);
+        for (int i = from + 1; i < to; i++) {
+            final double value = load(i);
+            if (value > maxQ) {
+                maxQ = value;
+            }
+        }
+        return maxQ;
+    }
+
+    @Override
+    public int argMax(int state) {
+        final int from = state * numActions;
+        int bestAction = 0;
+        double maxQ = load(from);
+        for (int action = 1; action < numActions; action++) {
+            final double value = load(from + action);
+            if (value > maxQ) {
+                maxQ = value;
+                bestAction = action;
+            }
+        }
+        return bestAction;
+    }
+
+    @Override
+    public double[] copyRow(int state, double[] dst) {
+        final int from = state * numActions;
+        for (int action = 0; action < numActions; action++) {
+            dst[action] = load(from + action);
+        }
+        return dst;
+    }
+
+    @Override
+    public double[][] toArray() {
+        final double[][] copy = new double[numStates][numActions];
+        for (int state = 0; state < numStates; state++) {
+            copyRow(state, copy[state]);
+        }
+        return copy;
+    }
+}
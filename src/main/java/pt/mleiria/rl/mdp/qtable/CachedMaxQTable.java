@@ -0,0 +1,165 @@
+package pt.mleiria.rl.mdp.qtable;
+
+import java.util.Arrays;
+
+/**
+ * A {@link DenseQTable} layout that also keeps, per state, the maximum value, its lowest-index action and
+ * the number of actions that share it, so that {@link #max(int)} and {@link #argMax(int)} are O(1) instead
+ * of a scan of the row.
+ * <p>
+ * The cache is maintained on every write in O(1) when the written value rises above the maximum, reaches
+ * it, or stays below it. Only a write that lowers the last action holding the maximum, or lowers the cached
+ * argmax while other actions still tie with it, rescans the row. In Q-learning that is the greedy action
+ * being corrected downwards, so how much the cache saves depends on how often the learned values fall; it
+ * pays off once rows are long, e.g. for the joint actions of several agents. The three per-state fields add
+ * 16 bytes per state, negligible against the row for the action counts where the cache is worth using.
+ */
+public class CachedMaxQTable implements QTable {
+
+    private final int numStates;
+    private final int numActions;
+    private final double[] values;
+    private final double[] rowMax;
+    private final int[] rowArgMax;
+    private final int[] rowMaxCount;
+    private long rescans;
+
+    /**
+     * Creates a zero-initialized Q-table; every action of every state initially ties for the maximum.
+     *
+     * @param numStates  The number of states (rows).
+     * @param numActions The number of actions per state (row stride).
+     */
+    public CachedMaxQTable(int numStates, int numActions) {
+        if (numStates <= 0 || numActions <= 0) {
+            throw new IllegalArgumentException("Number of states and actions must be positive.");
+        }
+        if ((long) numStates * numActions > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Q-table too large: " + numStates + " x " + numActions);
+        }
+        this.numStates = numStates;
+        this.numActions = numActions;
+        this.values = new double[numStates * numActions];
+        this.rowMax = new double[numStates];
+        this.rowArgMax = new int[numStates];
+        this.rowMaxCount = new int[numStates];
+        Arrays.fill(rowMaxCount, numActions);
+    }
+
+    @Override
+    public int getNumStates() {
+        return numStates;
+    }
+
+    @Override
+    public int getNumActions() {
+        return numActions;
+    }
+
+    @Override
+    public double get(int state, int action) {
+        return values[state * numActions + action];
+    }
+
+    @Override
+    public void set(int state, int action, double value) {
+        final int index = state * numActions + action;
+        final double old = values[index];
+        values[index] = value;
+        update(state, action, old, value);
+    }
+
+    @Override
+    public void add(int state, int action, double delta) {
+        final int index = state * numActions + action;
+        final double old = values[index];
+        final double value = old + delta;
+        values[index] = value;
+        update(state, action, old, value);
+    }
+
+    private void update(int state, int action, double old, double value) {
+        final double max = rowMax[state];
+        if (value > max) {
+            rowMax[state] = value;
+            rowArgMax[state] = action;
+            rowMaxCount[state] = 1;
+        } else if (value == max) {
+            if (old != max) {
+                rowMaxCount[state]++;
+                if (action < rowArgMax[state]) {
+                    rowArgMax[state] = action;
+                }
+            }
+        } else if (old == max) {
+            // This action held the maximum and has dropped below it
+            if (--rowMaxCount[state] == 0 || action == rowArgMax[state]) {
+                rescan(state);
+            }
+        } else if (value != value || max != max) {
+            // NaN compares false with everything; rescan so that max and argMax match a scan of the row
+            rescan(state);
+        }
+    }
+
+    private void rescan(int state) {
+        rescans++;
+        final int from = state * numActions;
+        double max = values[from];
+        int argMax = 0;
+        int count = 1;
+        for (int action = 1; action < numActions; action++) {
+            final double value = values[from + action];
+            if (value > max) {
+                max = value;
+                argMax = action;
+                count = 1;
+            } else if (value == max) {
+                count++;
+            }
+        }
+        rowMax[state] = max;
+        rowArgMax[state] = argMax;
+        rowMaxCount[state] = count;
+    }
+
+    @Override
+    public double max(int state) {
+        return rowMax[state];
+    }
+
+    @Override
+    public int argMax(int state) {
+        return rowArgMax[state];
+    }
+
+    /**
+     * @return The number of actions of the state whose value equals {@link #max(int)}; when it is 1,
+     * {@link #argMax(int)} is the only greedy action and no tie needs breaking.
+     */
+    public int maxCount(int state) {
+        return rowMaxCount[state];
+    }
+
+    /**
+     * @return The number of writes that had to rescan their row, a measure of how well the cache works.
+     */
+    public long getRescans() {
+        return rescans;
+    }
+
+    @Override
+    public double[] copyRow(int state, double[] dst) {
+        System.arraycopy(values, state * numActions, dst, 0, numActions);
+        return dst;
+    }
+
+    @Override
+    public double[][] toArray() {
+        final double[][] copy = new double[numStates][numActions];
+        for (int state = 0; state < numStates; state++) {
+            System.arraycopy(values, state * numActions, copy[state], 0, numActions);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,122 @@
+package pt.mleiria.rl.mdp.qtable;
+
+import pt.mleiria.rl.mdp.kernel.RowKernels;
+
+/**
+ * A {@link QTable} stored in a single contiguous, row-major {@code double[]}.
+ * <p>
+ * The value for a (state, action) pair lives at {@code state * numActions + action}, so a state's
+ * action values (its "row") are adjacent in memory. Compared with a jagged {@code double[][]} this
+ * avoids a pointer chase per lookup and keeps the whole table in one object for the GC. Row max and argmax
+ * run on the {@link RowKernels} selected at startup, which use SIMD for long rows when available.
+ */
+public class DenseQTable implements QTable {
+
+    private static final RowKernels KERNELS = RowKernels.get();
+
+    private final int numStates;
+    private final int numActions;
+    private final double[] values;
+
+    /**
+     * Creates a zero-initialized Q-table.
+     *
+     * @param numStates  The number of states (rows).
+     * @param numActions The number of actions per state (row stride).
+     */
+    public DenseQTable(int numStates, int numActions) {
+        if (numStates <= 0 || numActions <= 0) {
+            throw new IllegalArgumentException("Number of states and actions must be positive.");
+        }
+        if ((long) numStates * numActions > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Q-table too large: " + numStates + " x " + numActions);
+        }
+        this.numStates = numStates;
+        this.numActions = numActions;
+        this.values = new double[numStates * numActions];
+    }
+
+    /**
+     * Builds a Q-table from a jagged array, copying its values.
+     *
+     * @param qTable A rectangular array where rows correspond to states and columns to actions.
+     * @return A new DenseQTable holding the same values.
+     */
+    public static DenseQTable fromArray(double[][] qTable) {
+        final DenseQTable table = new DenseQTable(qTable.length, qTable[0].length);
+        for (int state = 0; state < qTable.length; state++) {
+            System.arraycopy(qTable[state], 0, table.values, state * table.numActions, table.numActions);
+        }
+        return table;
+    }
+
+    @Override
+    public int getNumStates() {
+        return numStates;
+    }
+
+    @Override
+    public int getNumActions() {
+        return numActions;
+    }
+
+    /**
+     * Returns the index of the first action of the given state in {@link #values()}.
+     *
+     * @param state The state.
+     * @return The row offset, i.e. {@code state * numActions}.
+     */
+    public int offset(int state) {
+        return state * numActions;
+    }
+
+    @Override
+    public double get(int state, int action) {
+        return values[state * numActions + action];
+    }
+
+    @Override
+    public void set(int state, int action, double value) {
+        values[state * numActions + action] = value;
+    }
+
+    @Override
+    public void add(int state, int action, double delta) {
+        values[state * numActions + action] += delta;
+    }
+
+    @Override
+    public double max(int state) {
+        return KERNELS.max(values, state * numActions, numActions);
+    }
+
+    @Override
+    public int argMax(int state) {
+        return KERNELS.argMax(values, state * numActions, numActions);
+    }
+
+    @Override
+    public double[] copyRow(int state, double[] dst) {
+        System.arraycopy(values, state * numActions, dst, 0, numActions);
+        return dst;
+    }
+
+    /**
+     * Returns the backing array. Row {@code s} occupies {@code [offset(s), offset(s) + numActions)}.
+     * Writes to the returned array are writes to the table.
+     *
+     * @return The live, row-major value array.
+     */
+    public double[] values() {
+        return values;
+    }
+
+    @Override
+    public double[][] toArray() {
+        final double[][] copy = new double[numStates][numActions];
+        for (int state = 0; state < numStates; state++) {
+            System.arraycopy(values, state * numActions, copy[state], 0, numActions);
+        }
+        return copy;
+    }
+}
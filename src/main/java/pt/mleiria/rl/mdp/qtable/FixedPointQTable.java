@@ -0,0 +1,164 @@
+package pt.mleiria.rl.mdp.qtable;
+
+/**
+ * A dense {@link QTable} in 16-bit fixed point: each value is a {@code short} holding
+ * {@code round(value * scale)}, a quarter of the memory of the double table.
+ * <p>
+ * The scale is chosen from the largest magnitude the table must represent, {@code range}, so values lie in
+ * {@code [-range, range]} with a resolution of {@code range / 32767}. Writes round to the nearest step and
+ * saturate at the ends of the range instead of wrapping around, so a value that overshoots sticks at the bound
+ * rather than changing sign; values that saturate together tie.
+ * An update smaller than half a step is lost, which bounds how closely the values can converge; pick the
+ * smallest range that covers the returns of the environment.
+ */
+public class FixedPointQTable implements QTable {
+
+    /**
+     * The default range, with a resolution of 1/128; it covers the values of Cliff Walking and the Mouse
+     * under a discount of 0.99, but Taxi's values approach 2000 and need a wider range.
+     */
+    public static final double DEFAULT_RANGE = 256.0;
+
+    private static final int MAX_RAW = Short.MAX_VALUE;
+
+    private final int numStates;
+    private final int numActions;
+    private final double range;
+    private final double scale;
+    private final double inverseScale;
+    private final short[] values;
+
+    /**
+     * Creates a zero-initialized Q-table covering {@code [-DEFAULT_RANGE, DEFAULT_RANGE]}.
+     *
+     * @param numStates  The number of states (rows).
+     * @param numActions The number of actions per state (row stride).
+     */
+    public FixedPointQTable(int numStates, int numActions) {
+        this(numStates, numActions, DEFAULT_RANGE);
+    }
+
+    /**
+     * Creates a zero-initialized Q-table.
+     *
+     * @param numStates  The number of states (rows).
+     * @param numActions The number of actions per state (row stride).
+     * @param range      The largest magnitude a value can take; larger values saturate.
+     */
+    public FixedPointQTable(int numStates, int numActions, double range) {
+        if (numStates <= 0 || numActions <= 0) {
+            throw new IllegalArgumentException("Number of states and actions must be positive.");
+        }
+        if ((long) numStates * numActions > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Q-table too large: " + numStates + " x " + numActions);
+        }
+        if (!(range > 0.0) || Double.isInfinite(range)) {
+            throw new IllegalArgumentException("Range must be positive and finite: " + range);
+        }
+        this.numStates = numStates;
+        this.numActions = numActions;
+        this.range = range;
+        this.scale = MAX_RAW / range;
+        this.inverseScale = range / MAX_RAW;
+        this.values = new short[numStates * numActions];
+    }
+
+    // Rounds to the nearest step and saturates; NaN maps to zero
+    private short quantize(double value) {
+        final long raw = Math.round(value * scale);
+        return (short) Math.max(-MAX_RAW, Math.min(MAX_RAW, raw));
+    }
+
+    @Override
+    public int getNumStates() {
+        return numStates;
+    }
+
+    @Override
+    public int getNumActions() {
+        return numActions;
+    }
+
+    /**
+     * @return The largest magnitude a value can take.
+     */
+    public double getRange() {
+        return range;
+    }
+
+    /**
+     * @return The difference between adjacent representable values.
+     */
+    public double getResolution() {
+        return inverseScale;
+    }
+
+    @Override
+    public double get(int state, int action) {
+        return values[state * numActions + action] * inverseScale;
+    }
+
+    @Override
+    public void set(int state, int action, double value) {
+        values[state * numActions + action] = quantize(value);
+    }
+
+    @Override
+    public void add(int state, int action, double delta) {
+        final int index = state * numActions + action;
+        values[index] = quantize(values[index] * inverseScale + delta);
+    }
+
+    // The scale is positive, so comparisons can stay on the raw values
+    @Override
+    public double max(int state) {
+        final int from = state * numActions;
+        final int to = from + numActions;
+        short maxQ = values[from];
+        for (int i = from + 1; i < to; i++) {
+            if (values[i] > maxQ) {
+                maxQ = values[i];
+            }
+        }
+        return maxQ * inverseScale;
+    }
+
+    @Override
+    public int argMax(int state) {
+        final int from = state * numActions;
+        int bestAction = 0;
+        short maxQ = values[from];
+        for (int action = 1; action < numActions; action++) {
+            if (values[from + action] > maxQ) {
+                maxQ = values[from + action];
+                bestAction = action;
+            }
+        }
+        return bestAction;
+    }
+
+    @Override
+    public double[] copyRow(int state, double[] dst) {
+        final int from = state * numActions;
+        for (int action = 0; action < numActions; action++) {
+            dst[action] = values[from + action] * inverseScale;
+        }
+        return dst;
+    }
+
+    /**
+     * @return The memory used by the value array (not counting per-object overhead).
+     */
+    public long sizeInBytes() {
+        return (long) values.length * Short.BYTES;
+    }
+
+    @Override
+    public double[][] toArray() {
+        final double[][] copy = new double[numStates][numActions];
+        for (int state = 0; state < numStates; state++) {
+            copyRow(state, copy[state]);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,270 @@
+package pt.mleiria.rl.mdp.qtable;
+
+import java.util.Arrays;
+
+/**
+ * A sparse {@link QTable} that stores rows only for states that have been written, for encoded state spaces
+ * that are much larger than the set of states an agent ever reaches.
+ * <p>
+ * States are keys of a primitive open-addressing hash table (linear probing, no boxing) that maps each
+ * state to a row number; rows are contiguous {@code numActions}-value blocks of one {@code double[]}, in
+ * order of first write, exactly like the rows of a {@link DenseQTable}. Reading a state that has no row
+ * returns the default value without allocating one, so memory grows with the states actually updated.
+ * The hash index is rebuilt at twice the size when its load factor is exceeded; rows never move between
+ * slots of the value array, only the array itself grows.
+ */
+public class HashedQTable implements QTable {
+
+    private static final int EMPTY = -1;
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+    private static final double DEFAULT_LOAD_FACTOR = 0.5;
+
+    private final int numStates;
+    private final int numActions;
+    private final double defaultValue;
+    private final double loadFactor;
+
+    private int[] keys;
+    private int[] rows;
+    private int mask;
+    private int threshold;
+    private int size;
+    private double[] values;
+
+    /**
+     * Creates an empty table whose unvisited states read as zero.
+     *
+     * @param numStates  The size of the encoded state space; states must lie in {@code [0, numStates)}.
+     * @param numActions The number of actions per state.
+     */
+    public HashedQTable(int numStates, int numActions) {
+        this(numStates, numActions, 0.0);
+    }
+
+    /**
+     * Creates an empty table whose unvisited states read as {@code defaultValue}, e.g. a positive value for
+     * optimistic initialization.
+     *
+     * @param numStates    The size of the encoded state space.
+     * @param numActions   The number of actions per state.
+     * @param defaultValue The value of every action of a state until it is first written.
+     */
+    public HashedQTable(int numStates, int numActions, double defaultValue) {
+        this(numStates, numActions, defaultValue, DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * @param numStates       The size of the encoded state space.
+     * @param numActions      The number of actions per state.
+     * @param defaultValue    The value of every action of a state until it is first written.
+     * @param initialCapacity The number of hash slots to start with; rounded up to a power of two.
+     * @param loadFactor      The fraction of occupied slots, in (0, 1), above which the index doubles.
+     */
+    public HashedQTable(int numStates, int numActions, double defaultValue, int initialCapacity, double loadFactor) {
+        if (numStates <= 0 || numActions <= 0) {
+            throw new IllegalArgumentException("Number of states and actions must be positive.");
+        }
+        if (initialCapacity <= 0 || initialCapacity > 1 << 30) {
+            throw new IllegalArgumentException("Initial capacity must be in [1, 2^30]: " + initialCapacity);
+        }
+        if (!(loadFactor > 0.0 && loadFactor < 1.0)) {
+            throw new IllegalArgumentException("Load factor must be in (0, 1): " + loadFactor);
+        }
+        this.numStates = numStates;
+        this.numActions = numActions;
+        this.defaultValue = defaultValue;
+        this.loadFactor = loadFactor;
+        final int capacity = Math.max(2, Integer.highestOneBit(initialCapacity - 1) << 1);
+        allocateIndex(capacity);
+        this.values = new double[Math.max(1, threshold) * numActions];
+    }
+
+    private void allocateIndex(int capacity) {
+        this.keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        this.rows = new int[capacity];
+        this.mask = capacity - 1;
+        this.threshold = (int) (capacity * loadFactor);
+    }
+
+    // Spreads consecutive states over the index (Fibonacci hashing); the mask keeps the high-quality bits
+    private int slot(int state) {
+        final int h = state * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // Also keeps EMPTY, which is -1, from matching a free slot as if it were a stored state
+    private void checkState(int state) {
+        if (state < 0 || state >= numStates) {
+            throw new IndexOutOfBoundsException("State " + state + " out of range [0, " + numStates + ")");
+        }
+    }
+
+    /**
+     * @return The offset of the state's row in the value array, or -1 if it has none.
+     */
+    private int find(int state) {
+        checkState(state);
+        int slot = slot(state);
+        while (true) {
+            final int key = keys[slot];
+            if (key == state) {
+                return rows[slot] * numActions;
+            }
+            if (key == EMPTY) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * @return The offset of the state's row, allocating and filling it with the default value if needed.
+     */
+    private int findOrInsert(int state) {
+        checkState(state);
+        int slot = slot(state);
+        while (true) {
+            final int key = keys[slot];
+            if (key == state) {
+                return rows[slot] * numActions;
+            }
+            if (key == EMPTY) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        final int row = size++;
+        keys[slot] = state;
+        rows[slot] = row;
+        final int offset = row * numActions;
+        if (offset + numActions > values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, offset + numActions));
+        }
+        Arrays.fill(values, offset, offset + numActions, defaultValue);
+        if (size > threshold) {
+            rehash();
+        }
+        return offset;
+    }
+
+    private void rehash() {
+        final int[] oldKeys = keys;
+        final int[] oldRows = rows;
+        allocateIndex(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                rows[slot] = oldRows[i];
+            }
+        }
+    }
+
+    @Override
+    public int getNumStates() {
+        return numStates;
+    }
+
+    @Override
+    public int getNumActions() {
+        return numActions;
+    }
+
+    public double getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * @return The number of states that have a row, i.e. that have been written at least once.
+     */
+    public int getStoredStates() {
+        return size;
+    }
+
+    /**
+     * @return The memory used by the index and the value array (not counting per-object overhead).
+     */
+    public long sizeInBytes() {
+        return (long) keys.length * Integer.BYTES * 2 + (long) values.length * Double.BYTES;
+    }
+
+    @Override
+    public double get(int state, int action) {
+        final int offset = find(state);
+        return offset < 0 ? defaultValue : values[offset + action];
+    }
+
+    // The offset is computed before indexing, since inserting a row may replace the value array
+    @Override
+    public void set(int state, int action, double value) {
+        final int offset = findOrInsert(state);
+        values[offset + action] = value;
+    }
+
+    @Override
+    public void add(int state, int action, double delta) {
+        final int offset = findOrInsert(state);
+        values[offset + action] += delta;
+    }
+
+    @Override
+    public double max(int state) {
+        final int from = find(state);
+        if (from < 0) {
+            return defaultValue;
+        }
+        final int to = from + numActions;
+        double maxQ = values[from];
+        for (int i = from + 1; i < to; i++) {
+            if (values[i] > maxQ) {
+                maxQ = values[i];
+            }
+        }
+        return maxQ;
+    }
+
+    @Override
+    public int argMax(int state) {
+        final int from = find(state);
+        if (from < 0) {
+            return 0;
+        }
+        int bestAction = 0;
+        double maxQ = values[from];
+        for (int action = 1; action < numActions; action++) {
+            if (values[from + action] > maxQ) {
+                maxQ = values[from + action];
+                bestAction = action;
+            }
+        }
+        return bestAction;
+    }
+
+    @Override
+    public double[] copyRow(int state, double[] dst) {
+        final int from = find(state);
+        if (from < 0) {
+            Arrays.fill(dst, 0, numActions, defaultValue);
+        } else {
+            System.arraycopy(values, from, dst, 0, numActions);
+        }
+        return dst;
+    }
+
+    /**
+     * Returns a dense copy, with unvisited states filled with the default value. This allocates the full
+     * {@code numStates x numActions} array the sparse table exists to avoid.
+     */
+    @Override
+    public double[][] toArray() {
+        final double[][] copy = new double[numStates][numActions];
+        for (int state = 0; state < numStates; state++) {
+            copyRow(state, copy[state]);
+        }
+        return copy;
+    }
+}
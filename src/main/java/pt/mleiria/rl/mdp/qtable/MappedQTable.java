@@ -0,0 +1,113 @@
+package pt.mleiria.rl.mdp.qtable;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * A read-only {@link QTable} over a row-major {@link DoubleBuffer}, typically a view of a memory-mapped
+ * checkpoint file. Values are read straight from the buffer, so opening a table costs no copying
+ * regardless of its size; the operating system pages values in as they are touched.
+ * <p>
+ * {@link #set} and {@link #add} throw {@link UnsupportedOperationException}; to keep training from a
+ * checkpoint, load it into a {@link DenseQTable} instead.
+ */
+public class MappedQTable implements QTable {
+
+    private final int numStates;
+    private final int numActions;
+    private final DoubleBuffer values;
+
+    /**
+     * @param numStates  The number of states (rows).
+     * @param numActions The number of actions per state (row stride).
+     * @param values     The values; must hold at least {@code numStates * numActions} elements from index 0.
+     */
+    public MappedQTable(int numStates, int numActions, DoubleBuffer values) {
+        if (numStates <= 0 || numActions <= 0) {
+            throw new IllegalArgumentException("Number of states and actions must be positive.");
+        }
+        if (values.capacity() < (long) numStates * numActions) {
+            throw new IllegalArgumentException("Buffer holds " + values.capacity() + " values, expected "
+                    + (long) numStates * numActions);
+        }
+        this.numStates = numStates;
+        this.numActions = numActions;
+        this.values = values;
+    }
+
+    @Override
+    public int getNumStates() {
+        return numStates;
+    }
+
+    @Override
+    public int getNumActions() {
+        return numActions;
+    }
+
+    @Override
+    public double get(int state, int action) {
+        return values.get(state * numActions + action);
+    }
+
+    @Override
+    public void set(int state, int action, double value) {
+        throw new UnsupportedOperationException("Mapped Q-tables are read-only");
+    }
+
+    @Override
+    public void add(int state, int action, double delta) {
+        throw new UnsupportedOperationException("Mapped Q-tables are read-only");
+    }
+
+    @Override
+    public double max(int state) {
+        final int from = state * numActions;
+        double maxQ = values.get(from);
+        for (int i = from + 1; i < from + numActions; i++) {
+            final double value = values.get(i);
+            if (value > maxQ) {
+                maxQ = value;
+            }
+        }
+        return maxQ;
+    }
+
+    @Override
+    public int argMax(int state) {
+        final int from = state * numActions;
+        int bestAction = 0;
+        double maxQ = values.get(from);
+        for (int action = 1; action < numActions; action++) {
+            final double value = values.get(from + action);
+            if (value > maxQ) {
+                maxQ = value;
+                bestAction = action;
+            }
+        }
+        return bestAction;
+    }
+
+    @Override
+    public double[] copyRow(int state, double[] dst) {
+        values.get(state * numActions, dst, 0, numActions);
+        return dst;
+    }
+
+    /**
+     * Copies all values into {@code dst} in one bulk transfer.
+     *
+     * @param dst Destination array of at least {@code numStates * numActions} elements.
+     */
+    public void copyTo(double[] dst) {
+        values.get(0, dst, 0, numStates * numActions);
+    }
+
+    @Override
+    public double[][] toArray() {
+        final double[][] copy = new double[numStates][numActions];
+        for (int state = 0; state < numStates; state++) {
+            copyRow(state, copy[state]);
+        }
+        return copy;
+    }
+}
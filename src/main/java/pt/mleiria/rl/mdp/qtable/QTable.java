@@ -0,0 +1,55 @@
+package pt.mleiria.rl.mdp.qtable;
+
+/**
+ * A tabular action-value function Q(s, a) with {@code getNumStates()} rows of {@code getNumActions()} values.
+ * <p>
+ * {@link DenseQTable} is the default, single-threaded storage; other implementations trade
+ * memory layout or thread safety for specific use cases.
+ */
+public interface QTable {
+
+    int getNumStates();
+
+    int getNumActions();
+
+    double get(int state, int action);
+
+    void set(int state, int action, double value);
+
+    /**
+     * Adds {@code delta} to Q(state, action).
+     */
+    void add(int state, int action, double delta);
+
+    /**
+     * Returns the maximum action value of a state, i.e. max_a Q(state, a).
+     *
+     * @param state The state.
+     * @return The largest value in the state's row.
+     */
+    double max(int state);
+
+    /**
+     * Returns the action with the highest value in a state. Ties resolve to the lowest action index.
+     *
+     * @param state The state.
+     * @return argmax_a Q(state, a).
+     */
+    int argMax(int state);
+
+    /**
+     * Copies the action values of a state into {@code dst}.
+     *
+     * @param state The state.
+     * @param dst   Destination array of at least {@code getNumActions()} elements.
+     * @return {@code dst}, for convenience.
+     */
+    double[] copyRow(int state, double[] dst);
+
+    /**
+     * Returns a copy of this table as a jagged array, for code that still expects {@code double[][]}.
+     *
+     * @return A new {@code numStates x numActions} array.
+     */
+    double[][] toArray();
+}
@@ -0,0 +1,61 @@
+package pt.mleiria.rl.mdp.qtable;
+
+/**
+ * The storage precision of a dense Q-table, for agents that create their own table.
+ */
+public enum QTablePrecision {
+
+    /**
+     * 8 bytes per value, {@link DenseQTable}.
+     */
+    DOUBLE(Double.BYTES),
+    /**
+     * 4 bytes per value, {@link FloatQTable}.
+     */
+    FLOAT(Float.BYTES),
+    /**
+     * 2 bytes per value, {@link FixedPointQTable} over its default range.
+     */
+    FIXED16(Short.BYTES);
+
+    private final int bytesPerValue;
+
+    QTablePrecision(int bytesPerValue) {
+        this.bytesPerValue = bytesPerValue;
+    }
+
+    /**
+     * @return The number of bytes used to store one Q-value.
+     */
+    public int bytesPerValue() {
+        return bytesPerValue;
+    }
+
+    /**
+     * Creates a zero-initialized table of this precision.
+     *
+     * @param numStates  The number of states (rows).
+     * @param numActions The number of actions per state (row stride).
+     * @return A new table.
+     */
+    public QTable newTable(int numStates, int numActions) {
+        return switch (this) {
+            case DOUBLE -> new DenseQTable(numStates, numActions);
+            case FLOAT -> new FloatQTable(numStates, numActions);
+            case FIXED16 -> new FixedPointQTable(numStates, numActions);
+        };
+    }
+
+    /**
+     * Creates a zero-initialized table of this precision that must hold values in {@code [-range, range]}.
+     * Only the fixed-point table uses the range; values outside it saturate.
+     *
+     * @param numStates  The number of states (rows).
+     * @param numActions The number of actions per state (row stride).
+     * @param range      The largest magnitude of a Q-value.
+     * @return A new table.
+     */
+    public QTable newTable(int numStates, int numActions, double range) {
+        return this == FIXED16 ? new FixedPointQTable(numStates, numActions, range) : newTable(numStates, numActions);
+    }
+}
@@ -0,0 +1,69 @@
+package pt.mleiria.rl.mdp.solver;
+
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+
+import java.util.stream.IntStream;
+
+/**
+ * Bellman backups shared by the solvers. States are swept with a parallel stream, i.e. on the common
+ * fork-join pool; every sweep reads one value array and writes another, so the threads never race.
+ */
+final class Bellman {
+
+    private Bellman() {
+    }
+
+    static void checkArguments(double gamma, double theta) {
+        if (gamma < 0.0 || gamma >= 1.0) {
+            throw new IllegalArgumentException("Discount factor must be in [0, 1): " + gamma);
+        }
+        if (theta <= 0.0) {
+            throw new IllegalArgumentException("Convergence threshold must be positive: " + theta);
+        }
+    }
+
+    /**
+     * One synchronous optimality backup: {@code next[s] = max_a Q(s, a)} under {@code values}.
+     *
+     * @return The largest absolute change of any state value.
+     */
+    static double optimalitySweep(TransitionModel model, double[] values, double[] next, double gamma) {
+        final int numActions = model.getNumActions();
+        return IntStream.range(0, model.getNumStates()).parallel().mapToDouble(state -> {
+            double best = model.actionValue(state, 0, values, gamma);
+            for (int action = 1; action < numActions; action++) {
+                best = Math.max(best, model.actionValue(state, action, values, gamma));
+            }
+            next[state] = best;
+            return Math.abs(best - values[state]);
+        }).max().orElse(0.0);
+    }
+
+    /**
+     * One synchronous evaluation backup of a fixed policy: {@code next[s] = Q(s, policy[s])} under {@code values}.
+     *
+     * @return The largest absolute change of any state value.
+     */
+    static double evaluationSweep(TransitionModel model, int[] policy, double[] values, double[] next, double gamma) {
+        return IntStream.range(0, model.getNumStates()).parallel().mapToDouble(state -> {
+            final double value = model.actionValue(state, policy[state], values, gamma);
+            next[state] = value;
+            return Math.abs(value - values[state]);
+        }).max().orElse(0.0);
+    }
+
+    /**
+     * Expands state values into a Q-table by one-step lookahead.
+     */
+    static DenseQTable toQTable(TransitionModel model, double[] values, double gamma) {
+        final int numActions = model.getNumActions();
+        final DenseQTable qTable = new DenseQTable(model.getNumStates(), numActions);
+        final double[] q = qTable.values();
+        IntStream.range(0, model.getNumStates()).parallel().forEach(state -> {
+            for (int action = 0; action < numActions; action++) {
+                q[state * numActions + action] = model.actionValue(state, action, values, gamma);
+            }
+        });
+        return qTable;
+    }
+}
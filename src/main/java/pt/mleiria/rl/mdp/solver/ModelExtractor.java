@@ -0,0 +1,78 @@
+package pt.mleiria.rl.mdp.solver;
+
+import pt.mleiria.rl.mdp.env.CompiledEnvironment;
+import pt.mleiria.rl.mdp.env.SettableEnvironment;
+import pt.mleiria.rl.mdp.env.SlipKernel;
+
+/**
+ * Builds a {@link TransitionModel} from a deterministic environment by putting it into every state
+ * and trying every action once, or from a deterministic grid world combined with a {@link SlipKernel}.
+ */
+public class ModelExtractor {
+
+    private ModelExtractor() {
+    }
+
+    /**
+     * Enumerates all transitions of a deterministic environment.
+     * <p>
+     * The enumeration is done by {@link CompiledEnvironment}, which steps each (state, action) pair twice
+     * from the same state and fails if the two outcomes differ.
+     *
+     * @param env The environment to enumerate; it is left in an arbitrary state.
+     * @return A model with exactly one outcome, of probability 1, per (state, action) pair.
+     * @throws IllegalStateException If the environment behaves non-deterministically.
+     */
+    public static TransitionModel extract(SettableEnvironment env) {
+        return extract(new CompiledEnvironment(env));
+    }
+
+    /**
+     * Converts an already compiled environment into a model.
+     *
+     * @param env The compiled environment.
+     * @return A model with exactly one outcome, of probability 1, per (state, action) pair.
+     */
+    public static TransitionModel extract(CompiledEnvironment env) {
+        final int numStates = env.getNumStates();
+        final int numActions = env.getNumActions();
+        final TransitionModel.Builder builder = new TransitionModel.Builder(numStates, numActions);
+        for (int state = 0; state < numStates; state++) {
+            for (int action = 0; action < numActions; action++) {
+                builder.add(state, action, env.nextState(state, action), 1.0, env.reward(state, action),
+                        env.isTerminal(state, action));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Builds the model of a slippery grid world from its deterministic counterpart: intended action
+     * {@code a} leads to the deterministic outcome of move {@code m} with probability
+     * {@code kernel.probability(a, m)}.
+     *
+     * @param env    The deterministic grid world, compiled; its actions must be the kernel's moves.
+     * @param kernel The slip kernel of the stochastic version.
+     * @return A model with up to {@value SlipKernel#NUM_MOVES} outcomes per (state, action) pair.
+     */
+    public static TransitionModel extract(CompiledEnvironment env, SlipKernel kernel) {
+        final int numStates = env.getNumStates();
+        final int numActions = env.getNumActions();
+        if (numActions != SlipKernel.NUM_MOVES) {
+            throw new IllegalArgumentException("Slip kernels need " + SlipKernel.NUM_MOVES + " actions, got " + numActions);
+        }
+        final TransitionModel.Builder builder = new TransitionModel.Builder(numStates, numActions);
+        for (int state = 0; state < numStates; state++) {
+            for (int action = 0; action < numActions; action++) {
+                for (int move = 0; move < SlipKernel.NUM_MOVES; move++) {
+                    final double probability = kernel.probability(action, move);
+                    if (probability > 0.0) {
+                        builder.add(state, action, env.nextState(state, move), probability, env.reward(state, move),
+                                env.isTerminal(state, move));
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+}
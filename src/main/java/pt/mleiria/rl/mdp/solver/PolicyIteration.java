@@ -0,0 +1,73 @@
+package pt.mleiria.rl.mdp.solver;
+
+import pt.mleiria.rl.mdp.vo.SolverResult;
+
+import java.util.stream.IntStream;
+
+/**
+ * Policy iteration over a {@link TransitionModel}.
+ * <p>
+ * Alternates iterative policy evaluation (synchronous, parallel sweeps until no value moves by more than
+ * {@code theta}) with greedy improvement of every state in parallel, until the policy stops changing.
+ * During improvement a state keeps its current action unless another one is strictly better, so ties
+ * cannot make the policy oscillate.
+ */
+public class PolicyIteration {
+
+    private static final double IMPROVEMENT_TOLERANCE = 1e-12;
+
+    private PolicyIteration() {
+    }
+
+    /**
+     * Solves a model for an optimal policy and its values.
+     *
+     * @param model         The MDP model.
+     * @param gamma         The discount factor, in [0, 1).
+     * @param theta         The convergence threshold of each policy evaluation.
+     * @param maxIterations The maximum number of improvement steps.
+     * @return The Q-table of the final policy's values, those values, the policy itself and the number
+     * of improvement steps performed.
+     */
+    public static SolverResult solve(TransitionModel model, double gamma, double theta, int maxIterations) {
+        Bellman.checkArguments(gamma, theta);
+        final int numStates = model.getNumStates();
+        final int numActions = model.getNumActions();
+        final int[] policy = new int[numStates];
+        double[] values = new double[numStates];
+        double[] next = new double[numStates];
+        int iterations = 0;
+        boolean stable = false;
+        while (!stable && iterations < maxIterations) {
+            // Evaluation, warm-started from the previous policy's values
+            double delta = Double.POSITIVE_INFINITY;
+            while (delta >= theta) {
+                delta = Bellman.evaluationSweep(model, policy, values, next, gamma);
+                final double[] swap = values;
+                values = next;
+                next = swap;
+            }
+            // Improvement
+            final double[] current = values;
+            final int changed = IntStream.range(0, numStates).parallel().map(state -> {
+                int bestAction = policy[state];
+                double best = model.actionValue(state, bestAction, current, gamma);
+                for (int action = 0; action < numActions; action++) {
+                    final double q = model.actionValue(state, action, current, gamma);
+                    if (q > best + IMPROVEMENT_TOLERANCE) {
+                        best = q;
+                        bestAction = action;
+                    }
+                }
+                if (bestAction == policy[state]) {
+                    return 0;
+                }
+                policy[state] = bestAction;
+                return 1;
+            }).sum();
+            stable = changed == 0;
+            iterations++;
+        }
+        return new SolverResult(Bellman.toQTable(model, values, gamma), values, policy, iterations);
+    }
+}
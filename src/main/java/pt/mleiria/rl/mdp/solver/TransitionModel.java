@@ -0,0 +1,202 @@
+package pt.mleiria.rl.mdp.solver;
+
+import java.util.Arrays;
+
+/**
+ * A tabular MDP model stored in compressed sparse row (CSR) form.
+ * <p>
+ * Row {@code state * numActions + action} lists the possible outcomes of taking {@code action} in
+ * {@code state}; its outcomes occupy indices {@code [offsets[row], offsets[row + 1])} of the parallel
+ * {@link #next}, {@link #probability}, {@link #reward} and {@link #done} arrays. A deterministic
+ * environment has exactly one outcome per row; stochastic ones may have several.
+ * <p>
+ * Models are built with a {@link Builder} and are read-only afterwards, so solvers can sweep them from
+ * several threads at once.
+ */
+public class TransitionModel {
+
+    private static final double PROBABILITY_TOLERANCE = 1e-9;
+
+    private final int numStates;
+    private final int numActions;
+    private final int[] offsets;
+    private final int[] next;
+    private final double[] probability;
+    private final double[] reward;
+    private final boolean[] done;
+
+    private TransitionModel(Builder builder) {
+        this.numStates = builder.numStates;
+        this.numActions = builder.numActions;
+        this.offsets = builder.offsets;
+        this.next = Arrays.copyOf(builder.next, builder.size);
+        this.probability = Arrays.copyOf(builder.probability, builder.size);
+        this.reward = Arrays.copyOf(builder.reward, builder.size);
+        this.done = Arrays.copyOf(builder.done, builder.size);
+    }
+
+    public int getNumStates() {
+        return numStates;
+    }
+
+    public int getNumActions() {
+        return numActions;
+    }
+
+    /**
+     * @return The total number of stored outcomes, across all (state, action) pairs.
+     */
+    public int getNumTransitions() {
+        return next.length;
+    }
+
+    /**
+     * @return The index of the first outcome of a (state, action) pair.
+     */
+    public int begin(int state, int action) {
+        return offsets[state * numActions + action];
+    }
+
+    /**
+     * @return One past the index of the last outcome of a (state, action) pair.
+     */
+    public int end(int state, int action) {
+        return offsets[state * numActions + action + 1];
+    }
+
+    public int next(int transition) {
+        return next[transition];
+    }
+
+    public double probability(int transition) {
+        return probability[transition];
+    }
+
+    public double reward(int transition) {
+        return reward[transition];
+    }
+
+    public boolean done(int transition) {
+        return done[transition];
+    }
+
+    /**
+     * Computes the one-step lookahead value of a (state, action) pair:
+     * {@code sum p * (r + gamma * V(s'))}, where outcomes that end the episode do not bootstrap.
+     *
+     * @param state  The state.
+     * @param action The action.
+     * @param values The current state values, indexed by state.
+     * @param gamma  The discount factor.
+     * @return The expected discounted return of taking the action and then following {@code values}.
+     */
+    public double actionValue(int state, int action, double[] values, double gamma) {
+        final int row = state * numActions + action;
+        double q = 0.0;
+        for (int t = offsets[row]; t < offsets[row + 1]; t++) {
+            q += probability[t] * (done[t] ? reward[t] : reward[t] + gamma * values[next[t]]);
+        }
+        return q;
+    }
+
+    /**
+     * Accumulates transitions row by row. Rows must be added in increasing
+     * {@code state * numActions + action} order, and every (state, action) pair needs at least one outcome.
+     */
+    public static class Builder {
+        private final int numStates;
+        private final int numActions;
+        private final int[] offsets;
+        private int[] next;
+        private double[] probability;
+        private double[] reward;
+        private boolean[] done;
+        private int size;
+        private int currentRow = -1;
+
+        /**
+         * @param numStates  The number of states.
+         * @param numActions The number of actions per state.
+         */
+        public Builder(int numStates, int numActions) {
+            if (numStates <= 0 || numActions <= 0) {
+                throw new IllegalArgumentException("Number of states and actions must be positive.");
+            }
+            this.numStates = numStates;
+            this.numActions = numActions;
+            this.offsets = new int[numStates * numActions + 1];
+            final int capacity = numStates * numActions;
+            this.next = new int[capacity];
+            this.probability = new double[capacity];
+            this.reward = new double[capacity];
+            this.done = new boolean[capacity];
+        }
+
+        /**
+         * Adds one outcome of taking {@code action} in {@code state}.
+         *
+         * @param state       The state the action is taken in.
+         * @param action      The action taken.
+         * @param nextState   The resulting state.
+         * @param probability The probability of this outcome.
+         * @param reward      The reward received.
+         * @param done        Whether the outcome ends the episode.
+         * @return This builder.
+         */
+        public Builder add(int state, int action, int nextState, double probability, double reward, boolean done) {
+            if (state < 0 || state >= numStates || action < 0 || action >= numActions) {
+                throw new IllegalArgumentException("Invalid state/action: " + state + "/" + action);
+            }
+            if (nextState < 0 || nextState >= numStates) {
+                throw new IllegalArgumentException("Invalid next state: " + nextState);
+            }
+            final int row = state * numActions + action;
+            if (row < currentRow) {
+                throw new IllegalStateException("Transitions must be added in state/action order.");
+            }
+            // Close every row between the previous one and this one
+            while (currentRow < row) {
+                offsets[++currentRow] = size;
+            }
+            if (size == next.length) {
+                grow();
+            }
+            this.next[size] = nextState;
+            this.probability[size] = probability;
+            this.reward[size] = reward;
+            this.done[size] = done;
+            size++;
+            return this;
+        }
+
+        /**
+         * @return The finished model.
+         * @throws IllegalStateException If a (state, action) pair has no outcomes or its probabilities do not sum to 1.
+         */
+        public TransitionModel build() {
+            final int rows = numStates * numActions;
+            while (currentRow < rows) {
+                offsets[++currentRow] = size;
+            }
+            for (int row = 0; row < rows; row++) {
+                double total = 0.0;
+                for (int t = offsets[row]; t < offsets[row + 1]; t++) {
+                    total += probability[t];
+                }
+                if (Math.abs(total - 1.0) > PROBABILITY_TOLERANCE) {
+                    throw new IllegalStateException("Outcome probabilities of state " + row / numActions
+                            + ", action " + row % numActions + " sum to " + total);
+                }
+            }
+            return new TransitionModel(this);
+        }
+
+        private void grow() {
+            final int capacity = next.length * 2;
+            next = Arrays.copyOf(next, capacity);
+            probability = Arrays.copyOf(probability, capacity);
+            reward = Arrays.copyOf(reward, capacity);
+            done = Arrays.copyOf(done, capacity);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package pt.mleiria.rl.mdp.solver;
+
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.vo.SolverResult;
+
+/**
+ * Synchronous value iteration over a {@link TransitionModel}.
+ * <p>
+ * Each sweep applies the Bellman optimality backup to every state in parallel, reading the previous
+ * sweep's values and writing into a second buffer, until no state value moves by more than {@code theta}.
+ */
+public class ValueIteration {
+
+    private ValueIteration() {
+    }
+
+    /**
+     * Solves a model for its optimal values and a greedy policy.
+     *
+     * @param model         The MDP model.
+     * @param gamma         The discount factor, in [0, 1).
+     * @param theta         The convergence threshold on the largest value change per sweep.
+     * @param maxIterations The maximum number of sweeps.
+     * @return The optimal Q-table, state values, greedy policy (ties broken towards the lowest action)
+     * and the number of sweeps performed.
+     */
+    public static SolverResult solve(TransitionModel model, double gamma, double theta, int maxIterations) {
+        Bellman.checkArguments(gamma, theta);
+        double[] values = new double[model.getNumStates()];
+        double[] next = new double[model.getNumStates()];
+        int iterations = 0;
+        double delta = Double.POSITIVE_INFINITY;
+        while (delta >= theta && iterations < maxIterations) {
+            delta = Bellman.optimalitySweep(model, values, next, gamma);
+            final double[] swap = values;
+            values = next;
+            next = swap;
+            iterations++;
+        }
+        final DenseQTable qTable = Bellman.toQTable(model, values, gamma);
+        final int[] policy = new int[model.getNumStates()];
+        for (int state = 0; state < policy.length; state++) {
+            policy[state] = qTable.argMax(state);
+        }
+        return new SolverResult(qTable, values, policy, iterations);
+    }
+}
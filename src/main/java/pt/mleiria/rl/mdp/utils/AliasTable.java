@@ -0,0 +1,98 @@
+package pt.mleiria.rl.mdp.utils;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Walker's alias method for sampling a fixed discrete distribution in O(1).
+ * <p>
+ * Construction (Vose's variant, O(n)) splits the distribution into {@code n} equally likely columns, each
+ * holding at most two outcomes: the column's own index, kept with probability {@code threshold[i]}, and an
+ * {@code alias[i]} otherwise. Sampling then takes one uniform draw, which picks both the column (its
+ * integer part) and the side (its fraction), and two array reads, whatever the number of outcomes.
+ */
+public final class AliasTable {
+
+    private final double[] threshold;
+    private final int[] alias;
+
+    /**
+     * @param probabilities The outcome probabilities; non-negative and summing to 1 (within 1e-9).
+     */
+    public AliasTable(double[] probabilities) {
+        final int n = probabilities.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("Distribution must have at least one outcome.");
+        }
+        double total = 0.0;
+        for (double p : probabilities) {
+            if (p < 0.0 || Double.isNaN(p)) {
+                throw new IllegalArgumentException("Probabilities must not be negative.");
+            }
+            total += p;
+        }
+        if (Math.abs(total - 1.0) > 1e-9) {
+            throw new IllegalArgumentException("Probabilities must sum to 1, not " + total);
+        }
+        this.threshold = new double[n];
+        this.alias = new int[n];
+
+        // Scale to mean 1 and sort columns into under- and over-full work lists, both kept in one array
+        final double[] scaled = new double[n];
+        final int[] work = new int[n];
+        int small = 0;
+        int large = n;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = probabilities[i] * n;
+            if (scaled[i] < 1.0) {
+                work[small++] = i;
+            } else {
+                work[--large] = i;
+            }
+        }
+        // Fill each under-full column from an over-full one
+        int smallTop = small;
+        int largeTop = large;
+        while (smallTop > 0 && largeTop < n) {
+            final int under = work[--smallTop];
+            final int over = work[largeTop];
+            threshold[under] = scaled[under];
+            alias[under] = over;
+            scaled[over] -= 1.0 - scaled[under];
+            if (scaled[over] < 1.0) {
+                // The over-full column became under-full: move it to the small list
+                largeTop++;
+                work[smallTop++] = over;
+            }
+        }
+        // Whatever is left is full up to rounding error
+        while (largeTop < n) {
+            final int full = work[largeTop++];
+            threshold[full] = 1.0;
+            alias[full] = full;
+        }
+        while (smallTop > 0) {
+            final int full = work[--smallTop];
+            threshold[full] = 1.0;
+            alias[full] = full;
+        }
+    }
+
+    /**
+     * @return The number of outcomes.
+     */
+    public int size() {
+        return threshold.length;
+    }
+
+    /**
+     * Draws an outcome index.
+     *
+     * @param random The source of randomness; exactly one {@code nextDouble()} is drawn.
+     * @return An index in {@code [0, size())}, distributed as the probabilities given at construction.
+     */
+    public int sample(RandomGenerator random) {
+        final double u = random.nextDouble() * threshold.length;
+        final int column = (int) u;
+        return u - column < threshold[column] ? column : alias[column];
+    }
+}
@@ -0,0 +1,140 @@
+package pt.mleiria.rl.mdp.utils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary max-heap over the integer keys {@code [0, capacity)}, each with a {@code double} priority.
+ * <p>
+ * A position index maps every key to its slot in the heap, so a key can be found, re-prioritized or
+ * tested for membership in O(1) or O(log n) without searching. Everything lives in three primitive
+ * arrays sized once at construction, so no operation allocates.
+ */
+public class IndexedMaxPriorityQueue {
+
+    private final int[] heap;
+    private final int[] position;
+    private final double[] priority;
+    private int size;
+
+    /**
+     * @param capacity The number of distinct keys; keys are {@code 0 .. capacity - 1}.
+     */
+    public IndexedMaxPriorityQueue(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.priority = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int key) {
+        return position[key] >= 0;
+    }
+
+    /**
+     * Returns the priority of a queued key.
+     */
+    public double priority(int key) {
+        if (!contains(key)) {
+            throw new NoSuchElementException("Key not in queue: " + key);
+        }
+        return priority[key];
+    }
+
+    /**
+     * Inserts a key, or raises its priority if it is already queued with a lower one.
+     * A queued key with a higher priority is left unchanged.
+     *
+     * @param key      The key.
+     * @param priority The priority.
+     */
+    public void offer(int key, double priority) {
+        if (position[key] < 0) {
+            heap[size] = key;
+            position[key] = size;
+            this.priority[key] = priority;
+            siftUp(size++);
+        } else if (priority > this.priority[key]) {
+            this.priority[key] = priority;
+            siftUp(position[key]);
+        }
+    }
+
+    /**
+     * Removes and returns the key with the highest priority.
+     *
+     * @throws NoSuchElementException If the queue is empty.
+     */
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        final int top = heap[0];
+        position[top] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Removes every key, in O(size).
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        final int key = heap[i];
+        final double p = priority[key];
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (priority[heap[parent]] >= p) {
+                break;
+            }
+            move(parent, i);
+            i = parent;
+        }
+        heap[i] = key;
+        position[key] = i;
+    }
+
+    private void siftDown(int i) {
+        final int key = heap[i];
+        final double p = priority[key];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && priority[heap[child + 1]] > priority[heap[child]]) {
+                child++;
+            }
+            if (priority[heap[child]] <= p) {
+                break;
+            }
+            move(child, i);
+            i = child;
+        }
+        heap[i] = key;
+        position[key] = i;
+    }
+
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        position[heap[to]] = to;
+    }
+}
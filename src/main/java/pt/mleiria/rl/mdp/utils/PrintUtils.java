@@ -2,6 +2,7 @@ package pt.mleiria.rl.mdp.utils;
 
 import pt.mleiria.rl.mdp.agent.Agent;
 import pt.mleiria.rl.mdp.env.Environment;
+import pt.mleiria.rl.mdp.qtable.QTable;
 import pt.mleiria.rl.mdp.vo.AgentResult;
 
 import java.util.List;
@@ -9,7 +10,7 @@ import java.util.Map;
 
 public class PrintUtils {
     public static void printGridPolicy(Agent agent, Environment env) {
-        double[][] qTable = agent.getQTable();
+        final QTable qTable = agent.getTable();
         int rows = env.getGridRows();
         int cols = env.getGridCols();
         Map<Integer, String> specialStates = env.getSpecialStates();
@@ -23,7 +24,7 @@ public class PrintUtils {
                 if (specialStates.containsKey(stateIdx)) {
                     sb.append(String.format(" %-2s", specialStates.get(stateIdx)));
                 } else {
-                    int bestAction = findBestAction(qTable, stateIdx);
+                    int bestAction = qTable.argMax(stateIdx);
                     sb.append(String.format(" %-2s", actionSymbols[bestAction]));
                 }
             }
@@ -32,18 +33,6 @@ public class PrintUtils {
         System.out.println(sb.toString());
     }
 
-    private static int findBestAction(double[][] qTable, int state) {
-        int bestAction = 0;
-        double maxQ = Double.NEGATIVE_INFINITY;
-        for (int action = 0; action < qTable[state].length; action++) {
-            if (qTable[state][action] > maxQ) {
-                maxQ = qTable[state][action];
-                bestAction = action;
-            }
-        }
-        return bestAction;
-    }
-
     public static void printRewardSummary(AgentResult result, String agentName) {
         List<Double> rewards = result.episodeRewards();
         double avgReward = rewards.stream().mapToDouble(d -> d).average().orElse(0.0);
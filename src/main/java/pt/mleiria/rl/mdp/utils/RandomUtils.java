@@ -0,0 +1,55 @@
+package pt.mleiria.rl.mdp.utils;
+
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Factory for the random number generators used by agents and environments.
+ * <p>
+ * All components draw from {@value #ALGORITHM}, a splittable LXM generator. Unlike {@link java.util.Random}
+ * its state is not updated with an atomic compare-and-set, and {@link SplittableGenerator#split()} yields
+ * statistically independent streams, so parallel workers can each own one. Creating the root generator
+ * from a seed makes a whole run reproducible for a given seed and thread count.
+ */
+public final class RandomUtils {
+
+    public static final String ALGORITHM = "L64X128MixRandom";
+
+    private static final RandomGeneratorFactory<SplittableGenerator> FACTORY = RandomGeneratorFactory.of(ALGORITHM);
+
+    private RandomUtils() {
+    }
+
+    /**
+     * Creates a generator seeded from system entropy, for runs that need not be reproducible.
+     *
+     * @return A new, unseeded generator.
+     */
+    public static SplittableGenerator newGenerator() {
+        return FACTORY.create();
+    }
+
+    /**
+     * Creates a generator whose whole output (and that of every generator split from it) is fixed by the seed.
+     *
+     * @param seed The seed.
+     * @return A new, seeded generator.
+     */
+    public static SplittableGenerator newGenerator(long seed) {
+        return FACTORY.create(seed);
+    }
+
+    /**
+     * Returns an independent stream for a component, splitting it off {@code source} when possible.
+     *
+     * @param source The parent generator.
+     * @return A new generator; {@code source} itself advances by the split.
+     */
+    public static RandomGenerator split(RandomGenerator source) {
+        if (source instanceof SplittableGenerator splittable) {
+            return splittable.split();
+        }
+        return FACTORY.create(source.nextLong());
+    }
+}
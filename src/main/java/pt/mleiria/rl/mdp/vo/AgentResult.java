@@ -1,9 +1,11 @@
 package pt.mleiria.rl.mdp.vo;
 
+import pt.mleiria.rl.mdp.qtable.QTable;
+
 import java.util.List;
 /**
  * Represents the result of an agent's interaction with the environment.
  * Contains the Q-table and a list of rewards collected during episodes.
  */
-public record AgentResult(double[][] qTable, List<Double> episodeRewards) {
+public record AgentResult(QTable qTable, List<Double> episodeRewards) {
 }
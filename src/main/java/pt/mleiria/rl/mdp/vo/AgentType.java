@@ -3,9 +3,16 @@ package pt.mleiria.rl.mdp.vo;
 public enum AgentType {
     Q_LEARNING,
     SARSA,
-    BOLTZMANN;
+    BOLTZMANN,
+    DYNA_Q,
+    SARSA_LAMBDA,
+    Q_LAMBDA;
 
     public static boolean isOnPolicy(AgentType agentType) {
-        return agentType == SARSA;
+        return agentType == SARSA || agentType == SARSA_LAMBDA;
+    }
+
+    public static boolean usesEligibilityTraces(AgentType agentType) {
+        return agentType == SARSA_LAMBDA || agentType == Q_LAMBDA;
     }
 }
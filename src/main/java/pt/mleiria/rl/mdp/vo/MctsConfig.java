@@ -0,0 +1,81 @@
+package pt.mleiria.rl.mdp.vo;
+
+import java.time.Duration;
+
+/**
+ * Search settings of the Monte Carlo Tree Search planner. Start from {@link #simulations(int)} and adjust
+ * the rest with the {@code with...} methods.
+ * <p>
+ * The planner runs {@code trees * threadsPerTree} worker threads. Each tree is searched independently and
+ * the root visit counts of all trees are summed to pick the action (root parallelism); the threads that
+ * share a tree are spread apart by virtual loss (tree parallelism). One tree with one thread is the
+ * sequential algorithm.
+ *
+ * @param simulations    The number of simulations per decision, across all workers.
+ * @param maxDuration    The wall-clock budget per decision; {@code null} for none. Search stops at whichever
+ *                       of the two limits is reached first.
+ * @param gamma          The discount factor of simulated returns.
+ * @param exploration    The UCT exploration constant; values are normalized to [0, 1] before it is applied.
+ * @param horizon        The maximum number of steps simulated from the root, in the tree plus the rollout.
+ * @param trees          The number of independent trees.
+ * @param threadsPerTree The number of threads sharing each tree.
+ * @param nodeCapacity   The number of nodes preallocated per tree; once full, leaves are no longer expanded.
+ */
+public record MctsConfig(int simulations, Duration maxDuration, double gamma, double exploration, int horizon,
+                         int trees, int threadsPerTree, int nodeCapacity) {
+
+    public MctsConfig {
+        if (simulations <= 0 || horizon <= 0) {
+            throw new IllegalArgumentException("Simulations and horizon must be positive.");
+        }
+        if (gamma < 0.0 || gamma > 1.0 || exploration < 0.0) {
+            throw new IllegalArgumentException("Gamma must be in [0, 1] and exploration must not be negative.");
+        }
+        if (trees <= 0 || threadsPerTree <= 0) {
+            throw new IllegalArgumentException("Number of trees and threads must be positive.");
+        }
+        if (nodeCapacity <= 0) {
+            throw new IllegalArgumentException("Node capacity must be positive.");
+        }
+    }
+
+    /**
+     * @param simulations The number of simulations per decision.
+     * @return A sequential search with gamma 0.99, exploration {@code sqrt(2)}, horizon 100 and room for
+     * 2^18 nodes.
+     */
+    public static MctsConfig simulations(int simulations) {
+        return new MctsConfig(simulations, null, 0.99, Math.sqrt(2), 100, 1, 1, 1 << 18);
+    }
+
+    public MctsConfig withMaxDuration(Duration duration) {
+        return new MctsConfig(simulations, duration, gamma, exploration, horizon, trees, threadsPerTree, nodeCapacity);
+    }
+
+    public MctsConfig withGamma(double gamma) {
+        return new MctsConfig(simulations, maxDuration, gamma, exploration, horizon, trees, threadsPerTree, nodeCapacity);
+    }
+
+    public MctsConfig withExploration(double exploration) {
+        return new MctsConfig(simulations, maxDuration, gamma, exploration, horizon, trees, threadsPerTree, nodeCapacity);
+    }
+
+    public MctsConfig withHorizon(int horizon) {
+        return new MctsConfig(simulations, maxDuration, gamma, exploration, horizon, trees, threadsPerTree, nodeCapacity);
+    }
+
+    public MctsConfig withParallelism(int trees, int threadsPerTree) {
+        return new MctsConfig(simulations, maxDuration, gamma, exploration, horizon, trees, threadsPerTree, nodeCapacity);
+    }
+
+    public MctsConfig withNodeCapacity(int nodeCapacity) {
+        return new MctsConfig(simulations, maxDuration, gamma, exploration, horizon, trees, threadsPerTree, nodeCapacity);
+    }
+
+    /**
+     * @return The total number of worker threads.
+     */
+    public int workers() {
+        return trees * threadsPerTree;
+    }
+}
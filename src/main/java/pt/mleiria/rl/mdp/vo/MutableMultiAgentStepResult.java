@@ -0,0 +1,87 @@
+package pt.mleiria.rl.mdp.vo;
+
+/**
+ * A reusable, caller-owned holder for the result of a joint step in a multi-agent environment.
+ * The next-state and rewards arrays are allocated once, with one slot per agent, and overwritten on every step.
+ */
+public final class MutableMultiAgentStepResult {
+    private final int[] nextStates;
+    private final double[] rewards;
+    private boolean done;
+
+    /**
+     * @param numAgents The number of agents, i.e. the length of the next-state and rewards arrays.
+     */
+    public MutableMultiAgentStepResult(int numAgents) {
+        if (numAgents <= 0) {
+            throw new IllegalArgumentException("Number of agents must be positive.");
+        }
+        this.nextStates = new int[numAgents];
+        this.rewards = new double[numAgents];
+    }
+
+    /**
+     * Overwrites the next states of a two-agent environment and the done flag. Rewards are written directly into
+     * {@link #rewards()}.
+     */
+    public void set(int nextState1, int nextState2, boolean done) {
+        this.nextStates[0] = nextState1;
+        this.nextStates[1] = nextState2;
+        this.done = done;
+    }
+
+    /**
+     * Overwrites the done flag, for environments that write the next states directly into {@link #nextStates()}.
+     */
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+
+    public int nextState1() {
+        return nextStates[0];
+    }
+
+    public int nextState2() {
+        return nextStates[1];
+    }
+
+    /**
+     * @return The next state (observation) of agent {@code agent}.
+     */
+    public int nextState(int agent) {
+        return nextStates[agent];
+    }
+
+    /**
+     * Returns the live next-state array; index {@code i} holds the observation of agent {@code i}.
+     */
+    public int[] nextStates() {
+        return nextStates;
+    }
+
+    /**
+     * Returns the live rewards array; index {@code i} holds the reward of agent {@code i}.
+     */
+    public double[] rewards() {
+        return rewards;
+    }
+
+    public boolean done() {
+        return done;
+    }
+
+    /**
+     * Returns an immutable-style snapshot of the current contents. {@link MultiAgentStepResult} has room for
+     * the next states of exactly two agents, so this is only defined for a two-agent holder.
+     *
+     * @return A new MultiAgentStepResult holding a copy of the rewards.
+     * @throws IllegalStateException If the holder is not sized for two agents.
+     */
+    public MultiAgentStepResult toStepResult() {
+        if (nextStates.length != 2) {
+            throw new IllegalStateException("MultiAgentStepResult holds two agents, not " + nextStates.length
+                    + "; read nextStates() instead");
+        }
+        return new MultiAgentStepResult(nextStates[0], nextStates[1], rewards.clone(), done);
+    }
+}
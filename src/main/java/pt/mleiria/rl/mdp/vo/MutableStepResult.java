@@ -0,0 +1,48 @@
+package pt.mleiria.rl.mdp.vo;
+
+/**
+ * A reusable, caller-owned holder for the result of taking a step in the environment.
+ * Contains the next state, the reward received, and whether the episode is done.
+ * <p>
+ * Unlike {@link StepResult}, one instance is meant to be allocated once per training loop and
+ * overwritten by every call to {@code Environment.step(int, MutableStepResult)}.
+ */
+public final class MutableStepResult {
+    private int nextState;
+    private double reward;
+    private boolean done;
+
+    /**
+     * Overwrites the contents of this result.
+     *
+     * @param nextState The next state.
+     * @param reward    The reward received.
+     * @param done      Whether the episode is done.
+     */
+    public void set(int nextState, double reward, boolean done) {
+        this.nextState = nextState;
+        this.reward = reward;
+        this.done = done;
+    }
+
+    public int nextState() {
+        return nextState;
+    }
+
+    public double reward() {
+        return reward;
+    }
+
+    public boolean done() {
+        return done;
+    }
+
+    /**
+     * Returns an immutable snapshot of the current contents.
+     *
+     * @return A new StepResult with the same values.
+     */
+    public StepResult toStepResult() {
+        return new StepResult(nextState, reward, done);
+    }
+}
@@ -0,0 +1,14 @@
+package pt.mleiria.rl.mdp.vo;
+
+import pt.mleiria.rl.mdp.qtable.QTable;
+
+/**
+ * Represents the outcome of solving an MDP model exactly.
+ *
+ * @param qTable     The optimal action values, in the same format agents learn into.
+ * @param values     The optimal state values, indexed by state.
+ * @param policy     A greedy action per state.
+ * @param iterations The number of sweeps (value iteration) or improvement steps (policy iteration) performed.
+ */
+public record SolverResult(QTable qTable, double[] values, int[] policy, int iterations) {
+}
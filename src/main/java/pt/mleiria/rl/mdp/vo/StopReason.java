@@ -0,0 +1,23 @@
+package pt.mleiria.rl.mdp.vo;
+
+/**
+ * Why a budgeted training run stopped.
+ */
+public enum StopReason {
+    /**
+     * The configured number of episodes was played.
+     */
+    EPISODE_LIMIT,
+    /**
+     * The wall-clock budget ran out.
+     */
+    WALL_CLOCK,
+    /**
+     * The largest Q-value change per episode stayed below the threshold for the required number of episodes.
+     */
+    Q_CONVERGED,
+    /**
+     * The moving-average episode reward stopped improving.
+     */
+    REWARD_PLATEAU
+}
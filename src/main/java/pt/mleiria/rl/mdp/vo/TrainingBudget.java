@@ -0,0 +1,71 @@
+package pt.mleiria.rl.mdp.vo;
+
+import java.time.Duration;
+
+/**
+ * Limits and stopping criteria for a training run. Start from {@link #episodes(int)}, which only caps the
+ * number of episodes, and enable further criteria with the {@code with...} methods; the run stops at the
+ * first one that triggers.
+ *
+ * @param maxEpisodes        The maximum number of episodes.
+ * @param maxStepsPerEpisode Episodes still running after this many steps are truncated.
+ * @param maxDuration        The wall-clock budget; {@code null} for none.
+ * @param deltaQThreshold    Converged once the largest |ΔQ| of an episode is below this value for
+ *                           {@code deltaQPatience} episodes in a row; 0 to disable.
+ * @param deltaQPatience     The number of consecutive quiet episodes required.
+ * @param plateauWindow      Plateaued once the average reward of the last {@code plateauWindow} episodes has
+ *                           risen more than {@code plateauTolerance} above that of the first window, and then
+ *                           not risen that much above its best for {@code plateauWindow} episodes; 0 to disable.
+ *                           A curve that never improved, such as an untrained agent's, never plateaus.
+ * @param plateauTolerance   The smallest rise of the window average that counts as an improvement.
+ * @param plateauMinEpisodes The number of episodes to play before a plateau may stop the run.
+ */
+public record TrainingBudget(int maxEpisodes, int maxStepsPerEpisode, Duration maxDuration,
+                             double deltaQThreshold, int deltaQPatience,
+                             int plateauWindow, double plateauTolerance, int plateauMinEpisodes) {
+
+    public TrainingBudget {
+        if (maxEpisodes <= 0 || maxStepsPerEpisode <= 0) {
+            throw new IllegalArgumentException("Episode and step limits must be positive.");
+        }
+        if (deltaQThreshold < 0 || deltaQPatience < 0 || plateauWindow < 0 || plateauTolerance < 0
+                || plateauMinEpisodes < 0) {
+            throw new IllegalArgumentException("Convergence settings must not be negative.");
+        }
+    }
+
+    /**
+     * @param maxEpisodes The maximum number of episodes.
+     * @return A budget with no step cap, no time limit and no convergence detection.
+     */
+    public static TrainingBudget episodes(int maxEpisodes) {
+        return new TrainingBudget(maxEpisodes, Integer.MAX_VALUE, null, 0.0, 0, 0, 0.0, 0);
+    }
+
+    public TrainingBudget withMaxStepsPerEpisode(int steps) {
+        return new TrainingBudget(maxEpisodes, steps, maxDuration, deltaQThreshold, deltaQPatience, plateauWindow, plateauTolerance,
+                plateauMinEpisodes);
+    }
+
+    public TrainingBudget withMaxDuration(Duration duration) {
+        return new TrainingBudget(maxEpisodes, maxStepsPerEpisode, duration, deltaQThreshold, deltaQPatience, plateauWindow, plateauTolerance,
+                plateauMinEpisodes);
+    }
+
+    public TrainingBudget withQConvergence(double threshold, int patience) {
+        return new TrainingBudget(maxEpisodes, maxStepsPerEpisode, maxDuration, threshold, patience, plateauWindow, plateauTolerance,
+                plateauMinEpisodes);
+    }
+
+    /**
+     * Enables the reward plateau criterion, with the minimum number of episodes set to two windows.
+     */
+    public TrainingBudget withRewardPlateau(int window, double tolerance) {
+        return withRewardPlateau(window, tolerance, 2 * window);
+    }
+
+    public TrainingBudget withRewardPlateau(int window, double tolerance, int minEpisodes) {
+        return new TrainingBudget(maxEpisodes, maxStepsPerEpisode, maxDuration, deltaQThreshold, deltaQPatience, window, tolerance,
+                minEpisodes);
+    }
+}
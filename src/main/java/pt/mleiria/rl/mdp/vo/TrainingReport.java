@@ -0,0 +1,23 @@
+package pt.mleiria.rl.mdp.vo;
+
+import java.time.Duration;
+
+/**
+ * Represents the outcome of a budgeted training run.
+ *
+ * @param result            The Q-table and the rewards of the episodes actually played.
+ * @param stopReason        Why training stopped.
+ * @param totalSteps        The number of environment steps taken.
+ * @param truncatedEpisodes The number of episodes cut off by the per-episode step limit.
+ * @param elapsed           The wall-clock training time.
+ */
+public record TrainingReport(AgentResult result, StopReason stopReason, long totalSteps, int truncatedEpisodes,
+                             Duration elapsed) {
+
+    /**
+     * @return The number of episodes played.
+     */
+    public int episodes() {
+        return result.episodeRewards().size();
+    }
+}
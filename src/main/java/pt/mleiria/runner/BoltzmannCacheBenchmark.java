@@ -0,0 +1,83 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.agent.BoltzmannAgent;
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+
+/**
+ * Reports {@link BoltzmannAgent} throughput with and without its cache of sampling distributions, on a
+ * fixed random MDP as the number of actions grows: while training, where every choice is followed by an
+ * update of its state, and while running the trained policy without updates.
+ */
+public class BoltzmannCacheBenchmark {
+
+    private static final int NUM_STATES = 1_000;
+    private static final int[] ACTION_COUNTS = {4, 16, 64, 256};
+    private static final int STEPS = 2_000_000;
+    private static final int MAX_STEPS = 200;
+
+    public static void main(String[] args) {
+        System.out.printf("%8s %14s %14s %12s %14s %14s %12s%n", "Actions", "Train steps/s", "cached",
+                "Rebuilds (%)", "Policy steps/s", "cached", "Rebuilds (%)");
+        for (int numActions : ACTION_COUNTS) {
+            // Warm-up, so both loops are compiled before timing
+            measure(numActions, false, STEPS / 10);
+            measure(numActions, true, STEPS / 10);
+            final double[] plain = measure(numActions, false, STEPS);
+            final double[] cached = measure(numActions, true, STEPS);
+            System.out.printf("%8d %14.0f %14.0f %12.2f %14.0f %14.0f %12.2f%n", numActions, plain[0], cached[0],
+                    cached[1], plain[2], cached[2], cached[3]);
+        }
+    }
+
+    /**
+     * Trains an agent for {@code steps} steps, then runs its policy for as many.
+     *
+     * @return Training steps per second, training rebuilds as a percentage of choices, and the same for the policy.
+     */
+    private static double[] measure(int numActions, boolean cache, int steps) {
+        final RandomMdp env = new RandomMdp(NUM_STATES, numActions, RandomUtils.newGenerator(1));
+        final BoltzmannAgent agent = new BoltzmannAgent(new DenseQTable(NUM_STATES, numActions), 0.5, 0.99, 0.1,
+                RandomUtils.newGenerator(2));
+        agent.setDistributionCache(cache);
+        final MutableStepResult result = new MutableStepResult();
+        final double[] report = new double[4];
+
+        long done = 0;
+        long start = System.nanoTime();
+        while (done < steps) {
+            int state = env.reset();
+            for (int step = 0; step < MAX_STEPS; step++) {
+                final int action = agent.chooseAction(state);
+                env.step(action, result);
+                agent.update(state, action, result.reward(), result.nextState(), 0);
+                done++;
+                state = result.nextState();
+                if (result.done()) {
+                    break;
+                }
+            }
+        }
+        report[0] = done / ((System.nanoTime() - start) / 1e9);
+        report[1] = 100.0 * agent.getDistributionRebuilds() / done;
+
+        final long trainingRebuilds = agent.getDistributionRebuilds();
+        done = 0;
+        start = System.nanoTime();
+        while (done < steps) {
+            int state = env.reset();
+            for (int step = 0; step < MAX_STEPS; step++) {
+                env.step(agent.chooseAction(state), result);
+                done++;
+                state = result.nextState();
+                if (result.done()) {
+                    break;
+                }
+            }
+        }
+        report[2] = done / ((System.nanoTime() - start) / 1e9);
+        report[3] = 100.0 * (agent.getDistributionRebuilds() - trainingRebuilds) / done;
+        return report;
+    }
+}
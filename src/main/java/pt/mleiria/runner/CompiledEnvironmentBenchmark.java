@@ -0,0 +1,58 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.env.CliffWalkingEnvironment;
+import pt.mleiria.rl.mdp.env.CompiledEnvironment;
+import pt.mleiria.rl.mdp.env.Environment;
+import pt.mleiria.rl.mdp.env.FrozenLakeEnvironment;
+import pt.mleiria.rl.mdp.env.SettableEnvironment;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Reports raw step throughput of each deterministic environment against its {@link CompiledEnvironment}.
+ */
+public class CompiledEnvironmentBenchmark {
+
+    private static final int STEPS = 20_000_000;
+
+    public static void main(String[] args) {
+        System.out.printf("%-14s %16s %16s %9s %12s%n", "Environment", "Source steps/s", "Compiled steps/s", "Speedup", "Compile (ms)");
+        benchmark("Taxi", TaxiEnvironment::new);
+        benchmark("FrozenLake", FrozenLakeEnvironment::new);
+        benchmark("CliffWalking", CliffWalkingEnvironment::new);
+    }
+
+    private static void benchmark(String name, Supplier<SettableEnvironment> factory) {
+        final Environment source = factory.get();
+        final long start = System.nanoTime();
+        final Environment compiled = new CompiledEnvironment(factory.get());
+        final double compileMillis = (System.nanoTime() - start) / 1e6;
+
+        // Warm-up, so both step loops are compiled before timing
+        stepsPerSecond(source, STEPS / 10);
+        stepsPerSecond(compiled, STEPS / 10);
+        final double sourceRate = stepsPerSecond(source, STEPS);
+        final double compiledRate = stepsPerSecond(compiled, STEPS);
+        System.out.printf("%-14s %16.0f %16.0f %8.2fx %12.2f%n", name, sourceRate, compiledRate,
+                compiledRate / sourceRate, compileMillis);
+    }
+
+    private static double stepsPerSecond(Environment env, int steps) {
+        final RandomGenerator random = RandomUtils.newGenerator(1);
+        final MutableStepResult result = new MutableStepResult();
+        final int numActions = env.getNumActions();
+        env.reset();
+        final long start = System.nanoTime();
+        for (int i = 0; i < steps; i++) {
+            env.step(random.nextInt(numActions), result);
+            if (result.done()) {
+                env.reset();
+            }
+        }
+        return steps / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,10 @@
+package pt.mleiria.runner;
+
+/**
+ * Reusable per-episode counters filled in by {@link MainEvaluator#runEpisode}.
+ */
+final class EpisodeStats {
+    int steps;
+    boolean truncated;
+    double maxDeltaQ;
+}
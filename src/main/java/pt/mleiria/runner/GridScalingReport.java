@@ -0,0 +1,82 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.env.grid.GeneratedCliffWalkingEnvironment;
+import pt.mleiria.rl.mdp.env.grid.GeneratedFrozenLakeEnvironment;
+import pt.mleiria.rl.mdp.env.grid.GridEnvironment;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+import pt.mleiria.rl.mdp.vo.TrainingBudget;
+import pt.mleiria.rl.mdp.vo.TrainingReport;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * Reports how the generated grid worlds scale: generation time, map memory, raw step throughput, and
+ * Q-learning episodes per second while the dense Q-table still fits the configured limit.
+ */
+public class GridScalingReport {
+
+    private static final int[] SIDES = {16, 64, 256, 1024, 4096};
+    private static final int RANDOM_STEPS = 5_000_000;
+    private static final Duration TRAINING_TIME = Duration.ofSeconds(2);
+
+    /**
+     * @param args Optional largest Q-table to train with, in MiB; defaults to 64.
+     */
+    public static void main(String[] args) {
+        final long maxQTableBytes = (args.length > 0 ? Long.parseLong(args[0]) : 64) * 1024 * 1024;
+        final List<String> rows = new ArrayList<>();
+        report("FrozenLake", side -> new GeneratedFrozenLakeEnvironment(side, side, 0.2, side), maxQTableBytes, rows);
+        report("CliffWalking", side -> new GeneratedCliffWalkingEnvironment(side, side, 0.1, side), maxQTableBytes, rows);
+
+        System.out.println("\n=================================================");
+        System.out.println("  Generated grid scaling");
+        System.out.println("=================================================");
+        System.out.printf("%-13s %6s %10s %12s %12s %14s %12s%n", "Environment", "Side", "Gen (ms)", "Map (KiB)",
+                "Q-table (MiB)", "Steps/s", "Episodes/s");
+        rows.forEach(System.out::println);
+    }
+
+    private static void report(String name, IntFunction<GridEnvironment> factory, long maxQTableBytes, List<String> rows) {
+        for (int side : SIDES) {
+            final long start = System.nanoTime();
+            final GridEnvironment env = factory.apply(side);
+            final double generationMillis = (System.nanoTime() - start) / 1e6;
+            final long qTableBytes = (long) env.getNumStates() * env.getNumActions() * Double.BYTES;
+
+            final String episodesPerSecond;
+            if (qTableBytes <= maxQTableBytes) {
+                final QLearningAgent agent = new QLearningAgent(env.getNumStates(), env.getNumActions());
+                final TrainingBudget budget = TrainingBudget.episodes(1_000_000)
+                        .withMaxStepsPerEpisode(8 * side)
+                        .withMaxDuration(TRAINING_TIME);
+                final TrainingReport report = MainEvaluator.trainAgent(agent, env, budget);
+                episodesPerSecond = String.format("%.0f", report.episodes() / (report.elapsed().toNanos() / 1e9));
+            } else {
+                episodesPerSecond = "skipped";
+            }
+            rows.add(String.format("%-13s %6d %10.1f %12.2f %12.1f %14.0f %12s", name, side, generationMillis,
+                    env.mapSizeInBytes() / 1024.0, qTableBytes / (1024.0 * 1024.0), randomStepsPerSecond(env),
+                    episodesPerSecond));
+        }
+    }
+
+    private static double randomStepsPerSecond(GridEnvironment env) {
+        final RandomGenerator random = RandomUtils.newGenerator(1);
+        final MutableStepResult result = new MutableStepResult();
+        env.reset();
+        final long start = System.nanoTime();
+        for (int i = 0; i < RANDOM_STEPS; i++) {
+            env.step(random.nextInt(4), result);
+            if (result.done()) {
+                env.reset();
+            }
+        }
+        return RANDOM_STEPS / ((System.nanoTime() - start) / 1e9);
+    }
+}
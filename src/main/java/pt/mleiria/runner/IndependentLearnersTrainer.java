@@ -0,0 +1,93 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.agent.Agent;
+import pt.mleiria.rl.mdp.env.marl.MultiAgentEnvironment;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.AgentResult;
+import pt.mleiria.rl.mdp.vo.AgentType;
+import pt.mleiria.rl.mdp.vo.MutableMultiAgentStepResult;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Trains one independent learner per agent of a {@link MultiAgentEnvironment}.
+ * <p>
+ * Each agent learns from its own observations and rewards only and treats the others as part of the
+ * environment, so its table is sized by the per-agent observation space rather than the joint state space.
+ * The episode loop mirrors {@link MainEvaluator#trainAgent(Agent, pt.mleiria.rl.mdp.env.Environment, int)}:
+ * off-policy agents start with a random action, epsilon is reduced once per episode, and nothing is
+ * allocated per step.
+ */
+public class IndependentLearnersTrainer {
+
+    /**
+     * Trains the agents with an unseeded random stream.
+     *
+     * @param agents             One agent per environment agent, each sized for the per-agent observations.
+     * @param env                The multi-agent environment.
+     * @param episodes           The number of episodes.
+     * @param maxStepsPerEpisode Episodes still running after this many steps are truncated.
+     * @return One AgentResult per agent, with its Q-table and its own reward in each episode.
+     */
+    public static AgentResult[] trainAgents(Agent[] agents, MultiAgentEnvironment env, int episodes,
+                                            int maxStepsPerEpisode) {
+        return trainAgents(agents, env, episodes, maxStepsPerEpisode, RandomUtils.newGenerator());
+    }
+
+    /**
+     * Trains the agents, drawing the random first actions of off-policy agents from {@code random}.
+     *
+     * @see #trainAgents(Agent[], MultiAgentEnvironment, int, int)
+     */
+    public static AgentResult[] trainAgents(Agent[] agents, MultiAgentEnvironment env, int episodes,
+                                            int maxStepsPerEpisode, RandomGenerator random) {
+        final int numAgents = env.getNumAgents();
+        if (agents.length != numAgents) {
+            throw new IllegalArgumentException("Expected " + numAgents + " agents, got " + agents.length);
+        }
+        final boolean[] onPolicy = new boolean[numAgents];
+        for (int i = 0; i < numAgents; i++) {
+            onPolicy[i] = AgentType.isOnPolicy(AgentType.valueOf(agents[i].getName()));
+        }
+        final int[] states = new int[numAgents];
+        final int[] actions = new int[numAgents];
+        final int[] nextActions = new int[numAgents];
+        final double[][] episodeRewards = new double[numAgents][episodes];
+        final MutableMultiAgentStepResult result = new MutableMultiAgentStepResult(numAgents);
+        final int[] nextStates = result.nextStates();
+        final double[] rewards = result.rewards();
+
+        for (int episode = 0; episode < episodes; episode++) {
+            env.reset();
+            for (int i = 0; i < numAgents; i++) {
+                states[i] = env.getObservation(i);
+                // The on-policy loop requires choosing the first action before the loop
+                actions[i] = onPolicy[i] ? agents[i].chooseAction(states[i]) : random.nextInt(env.getNumActions());
+                agents[i].reduceEpsilon();
+            }
+            boolean done = false;
+            for (int step = 0; !done && step < maxStepsPerEpisode; step++) {
+                env.step(actions, result);
+                for (int i = 0; i < numAgents; i++) {
+                    episodeRewards[i][episode] += rewards[i];
+                    nextActions[i] = agents[i].chooseAction(nextStates[i]);
+                    agents[i].update(states[i], actions[i], rewards[i], nextStates[i], nextActions[i]);
+                    // Prepare for next step. The future becomes the present.
+                    states[i] = nextStates[i];
+                    actions[i] = nextActions[i];
+                }
+                done = result.done();
+            }
+            for (Agent agent : agents) {
+                agent.endEpisode();
+            }
+        }
+
+        final AgentResult[] results = new AgentResult[numAgents];
+        for (int i = 0; i < numAgents; i++) {
+            results[i] = new AgentResult(agents[i].getTable(), Arrays.stream(episodeRewards[i]).boxed().toList());
+        }
+        return results;
+    }
+}
@@ -1,15 +1,21 @@
 package pt.mleiria.runner;
 
 import pt.mleiria.rl.mdp.agent.Agent;
+import pt.mleiria.rl.mdp.checkpoint.AsyncCheckpointer;
 import pt.mleiria.rl.mdp.env.Environment;
 import pt.mleiria.rl.mdp.env.MouseEnvironment;
 import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.env.vector.VectorEnvironment;
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
 import pt.mleiria.rl.mdp.vo.*;
 import pt.mleiria.server.VisualizerServer;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+import java.util.random.RandomGenerator;
 
 public class MainEvaluator {
 
@@ -68,63 +74,336 @@ public class MainEvaluator {
      * @return An AgentResult containing the Q-table and rewards from each episode.
      */
     public static AgentResult trainAgent(Agent agent, Environment env, int episodes, VisualizerServer server) {
+        return trainAgent(agent, env, episodes, server, RandomUtils.newGenerator());
+    }
 
+    /**
+     * Trains the given agent, drawing the random first action of off-policy episodes from {@code random}.
+     * Together with a seeded agent and environment this makes a training run reproducible.
+     *
+     * @param agent    The agent to be trained.
+     * @param env      The environment in which the agent operates.
+     * @param episodes The number of episodes to train the agent.
+     * @param server   Optional visualizer; {@code null} to train at full speed.
+     * @param random   The trainer's source of randomness.
+     * @return An AgentResult containing the Q-table and rewards from each episode.
+     */
+    public static AgentResult trainAgent(Agent agent, Environment env, int episodes, VisualizerServer server,
+                                         RandomGenerator random) {
 
-        final List<Double> episodeRewards = new ArrayList<>();
+        // Per-episode rewards are kept unboxed and the step result holder is reused,
+        // so the loop itself does not allocate; the reward list is built once at the end.
+        final double[] episodeRewards = new double[episodes];
+        final MutableStepResult result = new MutableStepResult();
+        final boolean onPolicy = AgentType.isOnPolicy(AgentType.valueOf(agent.getName()));
 
         for (int episode = 0; episode < episodes; episode++) {
+            handleProgressLogging(episode);
+            episodeRewards[episode] = runEpisode(agent, env, result, onPolicy, random, episode, server);
+            //PrintUtils.printGridPolicy(agent, env);
+        }
+        System.out.println("Episode finished. You can close the browser.");
 
+        return new AgentResult(agent.getTable(), Arrays.stream(episodeRewards).boxed().toList());
+    }
 
-            int state = env.reset();
-            if (null != server) {
-                handleVisualization(server, env, state, episode, 0, 0);
+    /**
+     * Trains the given agent until the first limit or stopping criterion of {@code budget} is reached.
+     *
+     * @param agent  The agent to be trained.
+     * @param env    The environment in which the agent operates.
+     * @param budget The episode, step and time limits and the convergence criteria.
+     * @return A report with the Q-table, the rewards of the episodes played and why training stopped.
+     */
+    public static TrainingReport trainAgent(Agent agent, Environment env, TrainingBudget budget) {
+        return trainAgent(agent, env, budget, RandomUtils.newGenerator());
+    }
+
+    /**
+     * Budgeted training with an explicit source of randomness for the first action of off-policy episodes.
+     * <p>
+     * Convergence is judged from two cheap signals. The Q signal is the largest change of the Q-value
+     * updated at each step (for agents that update more than one pair per step, such as the trace and
+     * planning agents, this tracks the directly updated pair only). The reward signal is the moving average
+     * of the last {@code plateauWindow} episodes, kept as a running sum over a ring buffer of their rewards,
+     * compared with the best average seen so far.
+     *
+     * @see #trainAgent(Agent, Environment, TrainingBudget)
+     */
+    public static TrainingReport trainAgent(Agent agent, Environment env, TrainingBudget budget, RandomGenerator random) {
+        return trainAgent(agent, env, budget, random, null);
+    }
+
+    /**
+     * Budgeted training that also hands every finished episode to a background checkpointer.
+     *
+     * @param checkpointer Takes periodic snapshots of the agent's Q-table; {@code null} for none.
+     * @see #trainAgent(Agent, Environment, TrainingBudget, RandomGenerator)
+     */
+    public static TrainingReport trainAgent(Agent agent, Environment env, TrainingBudget budget, RandomGenerator random,
+                                            AsyncCheckpointer checkpointer) {
+        // Rewards are collected in a growing array, so a generous episode limit costs nothing up front
+        double[] episodeRewards = new double[Math.min(budget.maxEpisodes(), 1024)];
+        final MutableStepResult result = new MutableStepResult();
+        final EpisodeStats stats = new EpisodeStats();
+        final boolean onPolicy = AgentType.isOnPolicy(AgentType.valueOf(agent.getName()));
+        final boolean checkQ = budget.deltaQThreshold() > 0 && budget.deltaQPatience() > 0;
+        final int window = budget.plateauWindow();
+        final long deadline = budget.maxDuration() == null ? Long.MAX_VALUE : System.nanoTime() + budget.maxDuration().toNanos();
+
+        final long start = System.nanoTime();
+        long totalSteps = 0;
+        int truncated = 0;
+        int quietEpisodes = 0;
+        // The rewards of the last window, as a ring buffer, and their sum
+        final double[] windowRewards = new double[window];
+        double windowSum = 0;
+        // The best window average so far, the episode that set it, and whether it beat the first window's
+        double bestAverage = Double.NEGATIVE_INFINITY;
+        int bestEpisode = 0;
+        boolean improved = false;
+        StopReason stopReason = StopReason.EPISODE_LIMIT;
+        int episode = 0;
+        while (episode < budget.maxEpisodes()) {
+            handleProgressLogging(episode);
+            final double reward = runEpisode(agent, env, result, onPolicy, random, episode, null,
+                    budget.maxStepsPerEpisode(), stats);
+            if (episode == episodeRewards.length) {
+                episodeRewards = Arrays.copyOf(episodeRewards, (int) Math.min(budget.maxEpisodes(), 2L * episode));
+            }
+            episodeRewards[episode++] = reward;
+            totalSteps += stats.steps;
+            if (null != checkpointer) {
+                checkpointer.onEpisodeEnd(agent, episode);
+            }
+            if (stats.truncated) {
+                truncated++;
             }
 
-            boolean done = false;
-            double totalReward = 0;
+            if (checkQ) {
+                quietEpisodes = stats.maxDeltaQ < budget.deltaQThreshold() ? quietEpisodes + 1 : 0;
+                if (quietEpisodes >= budget.deltaQPatience()) {
+                    stopReason = StopReason.Q_CONVERGED;
+                    break;
+                }
+            }
+            if (window > 0) {
+                final int slot = (episode - 1) % window;
+                windowSum += reward - windowRewards[slot];
+                windowRewards[slot] = reward;
+                if (episode >= window) {
+                    final double average = windowSum / window;
+                    if (episode == window) {
+                        bestAverage = average;
+                        bestEpisode = episode;
+                    } else if (average > bestAverage + budget.plateauTolerance()) {
+                        bestAverage = average;
+                        bestEpisode = episode;
+                        improved = true;
+                    }
+                    // Only a curve that has risen can level off; a flat one may simply not be learning
+                    if (improved && episode - bestEpisode >= window && episode >= budget.plateauMinEpisodes()) {
+                        stopReason = StopReason.REWARD_PLATEAU;
+                        break;
+                    }
+                }
+            }
+            if (System.nanoTime() >= deadline) {
+                stopReason = StopReason.WALL_CLOCK;
+                break;
+            }
+        }
+        final Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        System.out.printf("Training stopped after %d episodes (%s) in %d ms.%n", episode, stopReason, elapsed.toMillis());
 
-            // The on-policy loop requires choosing the first action before the loop
-            int action =
-                    AgentType.isOnPolicy(AgentType.valueOf(agent.getName()))
-                            ? agent.chooseAction(state)
-                            : List.of(0, 1, 2, 3, 4, 5).get(new Random().nextInt(env.getNumActions()));
+        final AgentResult agentResult = new AgentResult(agent.getTable(),
+                Arrays.stream(episodeRewards, 0, episode).boxed().toList());
+        return new TrainingReport(agentResult, stopReason, totalSteps, truncated, elapsed);
+    }
 
-            handleProgressLogging(episode);
-            int stepCount = 0;
-            agent.reduceEpsilon();
-            while (!done) {
-                stepCount++;
-                StepResult result = env.step(action);
-                totalReward += result.reward();
+    /**
+     * Trains the given agent on N environment copies stepped in lockstep.
+     * Every step produces one transition per slot, which the agent chooses and learns from in one
+     * batched call each; epsilon is reduced once per completed episode, as in {@link #trainAgent}.
+     * <p>
+     * Eligibility-trace agents are rejected: they keep a single trace, which the interleaved episodes of
+     * the slots would share, and {@link Agent#endEpisode()} at the end of one slot's episode would clear
+     * it for the others too.
+     *
+     * @param agent    The agent to be trained.
+     * @param env      The vectorized environment.
+     * @param episodes The number of episodes to complete, across all slots.
+     * @return An AgentResult containing the Q-table and rewards of each episode, in completion order.
+     * @throws IllegalArgumentException If the agent uses eligibility traces.
+     */
+    public static AgentResult trainAgentBatched(Agent agent, VectorEnvironment env, int episodes) {
+        return trainAgentBatched(agent, env, episodes, RandomUtils.newGenerator());
+    }
 
-                int nextAction = agent.chooseAction(result.nextState());
+    /**
+     * Batched training with an explicit source of randomness for the first action of off-policy episodes.
+     *
+     * @see #trainAgentBatched(Agent, VectorEnvironment, int)
+     */
+    public static AgentResult trainAgentBatched(Agent agent, VectorEnvironment env, int episodes, RandomGenerator random) {
+        final AgentType agentType = AgentType.valueOf(agent.getName());
+        if (AgentType.usesEligibilityTraces(agentType)) {
+            throw new IllegalArgumentException("Batched training does not support eligibility-trace agents: " + agentType);
+        }
+        final int numEnvs = env.getNumEnvs();
+        final int[] states = new int[numEnvs];
+        final int[] actions = new int[numEnvs];
+        final int[] nextStates = new int[numEnvs];
+        final int[] nextActions = new int[numEnvs];
+        final double[] rewards = new double[numEnvs];
+        final boolean[] dones = new boolean[numEnvs];
+        final double[] runningRewards = new double[numEnvs];
+        final double[] episodeRewards = new double[episodes];
+        final boolean onPolicy = AgentType.isOnPolicy(agentType);
+
+        env.reset(states);
+        // The on-policy loop requires choosing the first action before the loop
+        if (onPolicy) {
+            agent.chooseActions(states, actions);
+        } else {
+            for (int i = 0; i < numEnvs; i++) {
+                actions[i] = random.nextInt(env.getNumActions());
+            }
+        }
 
-                agent.update(state, action, result.reward(), result.nextState(), nextAction);
-                // Prepare for next step. The future becomes the present.
-                state = result.nextState();
-                action = nextAction;
-                done = result.done();
-                //PrintUtils.printGridPolicy(agent, env);
-                if (null != server) {
-                    handleVisualization(server, env, state, episode, stepCount, totalReward);
-                    sleep(100);
+        int completed = 0;
+        while (completed < episodes) {
+            env.step(actions, nextStates, rewards, dones);
+            agent.chooseActions(nextStates, nextActions);
+            agent.update(states, actions, rewards, nextStates, nextActions, numEnvs);
+
+            // Prepare for next step. The future becomes the present, except in slots that were reset.
+            for (int i = 0; i < numEnvs; i++) {
+                runningRewards[i] += rewards[i];
+                if (dones[i]) {
+                    if (completed < episodes) {
+                        handleProgressLogging(completed);
+                        episodeRewards[completed++] = runningRewards[i];
+                    }
+                    runningRewards[i] = 0;
+                    agent.reduceEpsilon();
+                    states[i] = env.state(i);
+                    actions[i] = onPolicy ? agent.chooseAction(states[i]) : random.nextInt(env.getNumActions());
+                } else {
+                    states[i] = nextStates[i];
+                    actions[i] = nextActions[i];
                 }
             }
-            episodeRewards.add(totalReward);
-            //PrintUtils.printGridPolicy(agent, env);
         }
-        System.out.println("Episode finished. You can close the browser.");
+        return new AgentResult(agent.getTable(), Arrays.stream(episodeRewards).boxed().toList());
+    }
+
+    /**
+     * Runs one training episode, updating the agent after every step.
+     *
+     * @param agent    The agent to be trained.
+     * @param env      The environment in which the agent operates.
+     * @param result   Reusable holder for step results.
+     * @param onPolicy Whether the agent is on-policy (the first action is then chosen by the agent).
+     * @param random   Source for the random first action of off-policy agents.
+     * @param episode  The episode number, for visualization.
+     * @param server   Optional visualizer; {@code null} to train at full speed.
+     * @return The total reward collected in the episode.
+     */
+    static double runEpisode(Agent agent, Environment env, MutableStepResult result, boolean onPolicy,
+                             RandomGenerator random, int episode, VisualizerServer server) {
+        return runEpisode(agent, env, result, onPolicy, random, episode, server, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Runs one training episode of at most {@code maxSteps} steps, updating the agent after every step.
+     * An episode that hits the step limit is truncated: its last update still bootstraps from the next
+     * state, since that state is not terminal.
+     *
+     * @param maxSteps The step limit.
+     * @param stats    Receives the step count, truncation flag and the largest change of an updated
+     *                 Q-value; {@code null} to skip measuring.
+     * @see #runEpisode(Agent, Environment, MutableStepResult, boolean, RandomGenerator, int, VisualizerServer)
+     */
+    static double runEpisode(Agent agent, Environment env, MutableStepResult result, boolean onPolicy,
+                             RandomGenerator random, int episode, VisualizerServer server, int maxSteps,
+                             EpisodeStats stats) {
+        int state = env.reset();
+        if (null != server) {
+            handleVisualization(server, env, state, episode, 0, 0);
+        }
 
-        return new AgentResult(agent.getQTable(), episodeRewards);
+        boolean done = false;
+        double totalReward = 0;
+        final QTable qTable = stats == null ? null : agent.getTable();
+        double maxDeltaQ = 0;
+
+        // The on-policy loop requires choosing the first action before the loop
+        int action = onPolicy ? agent.chooseAction(state) : random.nextInt(env.getNumActions());
+
+        int stepCount = 0;
+        agent.reduceEpsilon();
+        while (!done && stepCount < maxSteps) {
+            stepCount++;
+            env.step(action, result);
+            totalReward += result.reward();
+
+            int nextAction = agent.chooseAction(result.nextState());
+
+            if (null != qTable) {
+                final double before = qTable.get(state, action);
+                agent.update(state, action, result.reward(), result.nextState(), nextAction);
+                maxDeltaQ = Math.max(maxDeltaQ, Math.abs(qTable.get(state, action) - before));
+            } else {
+                agent.update(state, action, result.reward(), result.nextState(), nextAction);
+            }
+            // Prepare for next step. The future becomes the present.
+            state = result.nextState();
+            action = nextAction;
+            done = result.done();
+            //PrintUtils.printGridPolicy(agent, env);
+            if (null != server) {
+                handleVisualization(server, env, state, episode, stepCount, totalReward);
+                sleep(100);
+            }
+        }
+        agent.endEpisode();
+        if (null != stats) {
+            stats.steps = stepCount;
+            stats.truncated = !done;
+            stats.maxDeltaQ = maxDeltaQ;
+        }
+        return totalReward;
     }
 // Assume qTable is your trained Q-table from the training process
-// double[][] qTable = your_trained_agent.getQTable();
+// QTable qTable = your_trained_agent.getTable();
 
     public static void evaluateAgent(double[][] qTable, Environment env) throws InterruptedException {
-        evaluateAgent(qTable, env, null);
+        evaluateAgent(DenseQTable.fromArray(qTable), env, null);
     }
 
     public static void evaluateAgent(double[][] qTable, Environment env, VisualizerServer server) {
+        evaluateAgent(DenseQTable.fromArray(qTable), env, server);
+    }
+
+    public static void evaluateAgent(QTable qTable, Environment env) throws InterruptedException {
+        evaluateAgent(qTable, env, null);
+    }
+
+    public static void evaluateAgent(QTable qTable, Environment env, VisualizerServer server) {
+        evaluateAgent(state -> getBestAction(qTable, state), env, server);
+        runBenchmarkTestTaxiDriver(qTable);
+    }
+
+    /**
+     * Evaluates any decision-time policy, such as a Q-table's greedy policy or a planner, e.g.
+     * {@code evaluateAgent(planner::chooseAction, env, server)}.
+     *
+     * @param policy Maps the current state to the action to take.
+     * @param env    The environment to evaluate on.
+     * @param server Receives every step for visualization; may be {@code null}.
+     */
+    public static void evaluateAgent(IntUnaryOperator policy, Environment env, VisualizerServer server) {
 
         int totalEpisodes = 1000; // Run a large number of episodes for statistical significance
         int successes = 0;
@@ -144,7 +423,7 @@ public class MainEvaluator {
             while (!done && steps < maxStepsPerEpisode) {
                 // *** IMPORTANT: NO EXPLORATION (EPSILON = 0) ***
                 // Choose the best action from the Q-table for the current state.
-                int action = getBestAction(qTable, state);
+                int action = policy.applyAsInt(state);
 
                 StepResult result = env.step(action);
 
@@ -175,8 +454,6 @@ public class MainEvaluator {
         System.out.printf("  - Success Rate: %.2f%%\n", successRate);
         System.out.printf("  - Average Steps per Success: %.2f\n", avgSteps);
         System.out.printf("  - Average Reward per Episode: %.4f\n", avgReward);
-
-        runBenchmarkTestTaxiDriver(qTable);
     }
 
     /**
@@ -186,23 +463,21 @@ public class MainEvaluator {
      * @param state  The current state.
      * @return The best action to take.
      */
+    public static int getBestAction(QTable qTable, int state) {
+        return qTable.argMax(state);
+    }
+
     public static int getBestAction(double[][] qTable, int state) {
-        double maxQValue = Double.NEGATIVE_INFINITY;
-        int bestAction = -1;
-        for (int action = 0; action < qTable[state].length; action++) {
-            if (qTable[state][action] > maxQValue) {
-                maxQValue = qTable[state][action];
+        int bestAction = 0;
+        for (int action = 1; action < qTable[state].length; action++) {
+            if (qTable[state][action] > qTable[state][bestAction]) {
                 bestAction = action;
             }
         }
-        // If all Q-values are the same (e.g., all zero), pick a random action to break ties.
-        if (bestAction == -1) {
-            return new Random().nextInt(qTable[state].length);
-        }
         return bestAction;
     }
 
-    public static void runBenchmarkTestTaxiDriver(double[][] qTable) {
+    public static void runBenchmarkTestTaxiDriver(QTable qTable) {
         TaxiEnvironment env = new TaxiEnvironment();
 
         System.out.println("\n--- Starting Benchmark Test ---");
@@ -223,7 +498,7 @@ public class MainEvaluator {
     /**
      * Helper function to run and print results for one specific episode.
      */
-    private static void runSingleEpisode(TaxiEnvironment env, double[][] qTable, int state) {
+    private static void runSingleEpisode(TaxiEnvironment env, QTable qTable, int state) {
         boolean done = false;
         int steps = 0;
         while (!done) {
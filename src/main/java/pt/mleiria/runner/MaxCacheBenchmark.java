@@ -0,0 +1,56 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.agent.Agent;
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.qtable.CachedMaxQTable;
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Reports Q-learning throughput on a {@link DenseQTable} against a {@link CachedMaxQTable} as the number of
+ * actions grows. The environment is a fixed random MDP, so the cost of a step is almost entirely the agent's:
+ * choosing the greedy action and taking the max over the next state's row.
+ */
+public class MaxCacheBenchmark {
+
+    private static final int NUM_STATES = 1_000;
+    private static final int[] ACTION_COUNTS = {4, 8, 16, 32, 64, 128, 256};
+    private static final int STEPS = 5_000_000;
+    private static final int MAX_STEPS = 200;
+
+    public static void main(String[] args) {
+        System.out.printf("%8s %16s %16s %9s %12s%n", "Actions", "Dense steps/s", "Cached steps/s", "Speedup",
+                "Rescans (%)");
+        for (int numActions : ACTION_COUNTS) {
+            // Warm-up, so both loops are compiled before timing
+            stepsPerSecond(new DenseQTable(NUM_STATES, numActions), STEPS / 10);
+            stepsPerSecond(new CachedMaxQTable(NUM_STATES, numActions), STEPS / 10);
+            final double dense = stepsPerSecond(new DenseQTable(NUM_STATES, numActions), STEPS);
+            final CachedMaxQTable cachedTable = new CachedMaxQTable(NUM_STATES, numActions);
+            final double cached = stepsPerSecond(cachedTable, STEPS);
+            System.out.printf("%8d %16.0f %16.0f %8.2fx %12.2f%n", numActions, dense, cached, cached / dense,
+                    100.0 * cachedTable.getRescans() / STEPS);
+        }
+    }
+
+    private static double stepsPerSecond(QTable table, int steps) {
+        final RandomMdp env = new RandomMdp(NUM_STATES, table.getNumActions(), RandomUtils.newGenerator(1));
+        final Agent agent = new QLearningAgent(table, RandomUtils.newGenerator(2));
+        final RandomGenerator random = RandomUtils.newGenerator(3);
+        final MutableStepResult result = new MutableStepResult();
+        final EpisodeStats stats = new EpisodeStats();
+        long done = 0;
+        int episode = 0;
+        final long start = System.nanoTime();
+        while (done < steps) {
+            MainEvaluator.runEpisode(agent, env, result, false, random, episode++, null, MAX_STEPS, stats);
+            done += stats.steps;
+        }
+        return done / ((System.nanoTime() - start) / 1e9);
+    }
+
+}
@@ -35,7 +35,7 @@ public class MouseRunner {
         for (Agent agent : agents) {
             System.out.println("Initialized Agent: " + agent.getName());
             final AgentResult result = trainAgent(agent, mouseEnv, episodes, server);
-            evaluateAgent(agent.getQTable(), mouseEnv, server);
+            evaluateAgent(agent.getTable(), mouseEnv, server);
             PrintUtils.printGridPolicy(agent, mouseEnv);
             PrintUtils.printRewardSummary(result, agent.getName());
         }
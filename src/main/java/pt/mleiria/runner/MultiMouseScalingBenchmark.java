@@ -0,0 +1,56 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.env.marl.MultiMouseEnvironment;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableMultiAgentStepResult;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Reports MultiMouse step throughput as the number of mice grows. A step costs O(number of mice), so joint
+ * steps per second should fall in proportion to the mouse count while mouse-steps per second stay flat.
+ */
+public class MultiMouseScalingBenchmark {
+
+    private static final int MOUSE_STEPS = 50_000_000;
+    private static final int[] AGENT_COUNTS = {2, 8, 32, 128, 512};
+
+    public static void main(String[] args) {
+        System.out.printf("%8s %16s %18s %14s%n", "Mice", "Joint steps/s", "Mouse-steps/s", "Episode steps");
+        for (int numAgents : AGENT_COUNTS) {
+            final MultiMouseEnvironment env = new MultiMouseEnvironment(numAgents);
+            // Warm-up, so the step loop is compiled before timing
+            run(env, MOUSE_STEPS / 10 / numAgents);
+            final int steps = MOUSE_STEPS / numAgents;
+            final long start = System.nanoTime();
+            final int episodes = run(env, steps);
+            final double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%8d %16.0f %18.0f %14.1f%n", numAgents, steps / seconds,
+                    (double) steps * numAgents / seconds, (double) steps / episodes);
+        }
+    }
+
+    /**
+     * Steps with uniformly random actions, resetting after every episode.
+     *
+     * @return The number of episodes started.
+     */
+    private static int run(MultiMouseEnvironment env, int steps) {
+        final RandomGenerator random = RandomUtils.newGenerator(1);
+        final MutableMultiAgentStepResult result = new MutableMultiAgentStepResult(env.getNumAgents());
+        final int[] actions = new int[env.getNumAgents()];
+        int episodes = 1;
+        env.reset();
+        for (int step = 0; step < steps; step++) {
+            for (int i = 0; i < actions.length; i++) {
+                actions[i] = random.nextInt(env.getNumActions());
+            }
+            env.step(actions, result);
+            if (result.done()) {
+                env.reset();
+                episodes++;
+            }
+        }
+        return episodes;
+    }
+}
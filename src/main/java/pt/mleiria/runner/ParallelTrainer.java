@@ -0,0 +1,121 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.agent.Agent;
+import pt.mleiria.rl.mdp.env.Environment;
+import pt.mleiria.rl.mdp.qtable.AtomicQTable;
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.AgentResult;
+import pt.mleiria.rl.mdp.vo.AgentType;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+/**
+ * Multi-threaded ("Hogwild") tabular training.
+ * <p>
+ * Each worker thread owns its own {@link Environment} and its own {@link Agent}, so exploration state
+ * (epsilon, temperature, random generator) is never shared. Workers draw from independent streams split
+ * off one seeded root generator, so there is no contention on a shared random number generator.
+ * All agents read and update the same lock-free {@link AtomicQTable}. Episodes are dealt out round-robin: worker {@code w} of {@code n}
+ * plays episodes {@code w, w + n, w + 2n, ...}, so the merged reward list stays roughly in wall-clock order.
+ */
+public class ParallelTrainer {
+
+    /**
+     * Trains agents in parallel on a shared Q-table, with unseeded random streams.
+     *
+     * @param agentFactory Creates a worker's agent around the shared Q-table, e.g. {@code QLearningAgent::new}.
+     * @param envFactory   Creates a worker's private environment, e.g. {@code TaxiEnvironment::new}.
+     * @param episodes     The total number of episodes, across all workers.
+     * @param threads      The number of worker threads.
+     * @param mode         How concurrent updates to the shared Q-table are applied.
+     * @return An AgentResult containing the shared Q-table and the rewards of every episode.
+     * @throws InterruptedException If interrupted while waiting for the workers.
+     */
+    public static AgentResult trainAgent(Function<QTable, Agent> agentFactory, Supplier<Environment> envFactory,
+                                         int episodes, int threads, AtomicQTable.Mode mode) throws InterruptedException {
+        return trainAgent((qTable, random) -> agentFactory.apply(qTable), random -> envFactory.get(),
+                episodes, threads, mode, RandomUtils.newGenerator().nextLong());
+    }
+
+    /**
+     * Trains agents in parallel on a shared Q-table, with seeded random streams.
+     * <p>
+     * A root generator is created from {@code seed} and split once per worker; each worker's stream is
+     * split again for its environment and its agent. Every random draw is therefore fixed by the seed and
+     * the thread count. With more than one thread the interleaving of updates to the shared table still
+     * depends on scheduling, so only single-threaded runs are bit-for-bit reproducible.
+     *
+     * @param agentFactory Creates a worker's agent from the shared Q-table and a private random stream,
+     *                     e.g. {@code QLearningAgent::new}.
+     * @param envFactory   Creates a worker's private environment from a private random stream,
+     *                     e.g. {@code TaxiEnvironment::new}.
+     * @param episodes     The total number of episodes, across all workers.
+     * @param threads      The number of worker threads.
+     * @param mode         How concurrent updates to the shared Q-table are applied.
+     * @param seed         The seed of the root random generator.
+     * @return An AgentResult containing the shared Q-table and the rewards of every episode.
+     * @throws InterruptedException If interrupted while waiting for the workers.
+     */
+    public static AgentResult trainAgent(BiFunction<QTable, RandomGenerator, Agent> agentFactory,
+                                         Function<RandomGenerator, Environment> envFactory,
+                                         int episodes, int threads, AtomicQTable.Mode mode, long seed)
+            throws InterruptedException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive.");
+        }
+        final SplittableGenerator root = RandomUtils.newGenerator(seed);
+        final SplittableGenerator[] workerRandoms = new SplittableGenerator[threads];
+        final Environment[] envs = new Environment[threads];
+        for (int w = 0; w < threads; w++) {
+            workerRandoms[w] = root.split();
+            envs[w] = envFactory.apply(workerRandoms[w].split());
+        }
+        final AtomicQTable qTable = new AtomicQTable(envs[0].getNumStates(), envs[0].getNumActions(), mode);
+        // Each worker writes only its own indices, and Future.get() publishes them to this thread
+        final double[] episodeRewards = new double[episodes];
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> workers = new ArrayList<>(threads);
+            for (int w = 0; w < threads; w++) {
+                final int firstEpisode = w;
+                final Environment env = envs[w];
+                final SplittableGenerator random = workerRandoms[w];
+                final Agent agent = agentFactory.apply(qTable, random.split());
+                workers.add(executor.submit(() -> runWorker(agent, env, random, firstEpisode, threads, episodeRewards)));
+            }
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Training worker failed", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new AgentResult(qTable, Arrays.stream(episodeRewards).boxed().toList());
+    }
+
+    private static void runWorker(Agent agent, Environment env, RandomGenerator random, int firstEpisode, int stride,
+                                  double[] episodeRewards) {
+        final MutableStepResult result = new MutableStepResult();
+        final boolean onPolicy = AgentType.isOnPolicy(AgentType.valueOf(agent.getName()));
+        for (int episode = firstEpisode; episode < episodeRewards.length; episode += stride) {
+            episodeRewards[episode] = MainEvaluator.runEpisode(agent, env, result, onPolicy, random, episode, null);
+        }
+    }
+}
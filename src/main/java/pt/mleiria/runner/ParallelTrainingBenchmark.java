@@ -0,0 +1,59 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.env.Environment;
+import pt.mleiria.rl.mdp.env.MouseEnvironment;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.qtable.AtomicQTable;
+import pt.mleiria.rl.mdp.vo.AgentResult;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Reports training throughput (episodes per second) of {@link ParallelTrainer} against the number of threads.
+ */
+public class ParallelTrainingBenchmark {
+
+    /**
+     * @param args Optional maximum thread count; defaults to the number of available processors.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        System.out.printf("Available processors: %d | Max threads: %d%n", Runtime.getRuntime().availableProcessors(), maxThreads);
+
+        benchmark("Taxi", TaxiEnvironment::new, 200_000, maxThreads);
+        benchmark("Mouse", MouseEnvironment::new, 20_000, maxThreads);
+    }
+
+    private static void benchmark(String name, Supplier<Environment> envFactory, int episodes, int maxThreads)
+            throws InterruptedException {
+        System.out.println("\n=================================================");
+        System.out.printf("  %s: %d episodes per run%n", name, episodes);
+        System.out.println("=================================================");
+        System.out.printf("%-6s %-8s %12s %12s %10s %14s%n", "Mode", "Threads", "Time (ms)", "Episodes/s", "Speedup", "Last-100 avg");
+
+        for (AtomicQTable.Mode mode : AtomicQTable.Mode.values()) {
+            // Warm-up run so the JIT has compiled the training loop before timing
+            ParallelTrainer.trainAgent(QLearningAgent::new, envFactory, episodes / 10, 1, mode);
+
+            double baseline = 0;
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                final long start = System.nanoTime();
+                final AgentResult result = ParallelTrainer.trainAgent(QLearningAgent::new, envFactory, episodes, threads, mode);
+                final double seconds = (System.nanoTime() - start) / 1e9;
+                final double episodesPerSecond = episodes / seconds;
+                if (threads == 1) {
+                    baseline = episodesPerSecond;
+                }
+                System.out.printf("%-6s %-8d %12.0f %12.0f %9.2fx %14.2f%n", mode, threads, seconds * 1000,
+                        episodesPerSecond, episodesPerSecond / baseline, last100Average(result.episodeRewards()));
+            }
+        }
+    }
+
+    private static double last100Average(List<Double> rewards) {
+        return rewards.subList(Math.max(0, rewards.size() - 100), rewards.size())
+                .stream().mapToDouble(d -> d).average().orElse(0.0);
+    }
+}
@@ -2,6 +2,7 @@ package pt.mleiria.runner;
 
 import pt.mleiria.rl.mdp.agent.Agent;
 import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.env.CompiledEnvironment;
 import pt.mleiria.rl.mdp.env.Environment;
 import pt.mleiria.rl.mdp.env.FrozenLakeEnvironment;
 import pt.mleiria.rl.mdp.utils.PrintUtils;
@@ -26,7 +27,8 @@ public class QLearningRunnerFrozenLake {
         System.out.println("=================================================");
 
 
-        Environment frozenEnv = new FrozenLakeEnvironment();
+        // Compiled into lookup tables once; steps are then plain array reads
+        Environment frozenEnv = new CompiledEnvironment(new FrozenLakeEnvironment());
 
         Agent qLearningAgentFrozen = new QLearningAgent(frozenEnv.getNumStates(), frozenEnv.getNumActions());
 
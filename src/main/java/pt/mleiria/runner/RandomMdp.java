@@ -0,0 +1,65 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.env.Environment;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * A fixed random MDP for benchmarks, where the cost of a step is almost entirely the agent's. Every
+ * (state, action) pair leads to a fixed random state with reward -1; one state in a hundred is
+ * a goal worth 10 that ends the episode.
+ */
+class RandomMdp implements Environment {
+    private final int numStates;
+    private final int numActions;
+    private final int[] next;
+    private final RandomGenerator random;
+    private int state;
+
+    RandomMdp(int numStates, int numActions, RandomGenerator random) {
+        this.numStates = numStates;
+        this.numActions = numActions;
+        this.next = random.ints((long) numStates * numActions, 0, numStates).toArray();
+        this.random = random;
+    }
+
+    @Override
+    public int getNumStates() {
+        return numStates;
+    }
+
+    @Override
+    public int getNumActions() {
+        return numActions;
+    }
+
+    @Override
+    public int reset() {
+        state = random.nextInt(numStates);
+        return state;
+    }
+
+    @Override
+    public void step(int action, MutableStepResult result) {
+        state = next[state * numActions + action];
+        final boolean goal = state % 100 == 0;
+        result.set(state, goal ? 10.0 : -1.0, goal);
+    }
+
+    @Override
+    public int getGridRows() {
+        return 1;
+    }
+
+    @Override
+    public int getGridCols() {
+        return numStates;
+    }
+
+    @Override
+    public Map<Integer, String> getSpecialStates() {
+        return Map.of();
+    }
+}
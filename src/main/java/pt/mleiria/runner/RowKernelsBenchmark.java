@@ -0,0 +1,66 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.kernel.RowKernels;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+
+/**
+ * Reports the throughput of the selected {@link RowKernels} over runs of growing length, in millions of
+ * elements per second. Run it once with {@code -Dpt.mleiria.kernels=scalar} and once with
+ * {@code --add-modules jdk.incubator.vector -Dpt.mleiria.kernels=vector} to compare the two.
+ */
+public class RowKernelsBenchmark {
+
+    private static final int[] LENGTHS = {4, 8, 16, 32, 64, 256, 1024};
+    private static final long ELEMENTS = 200_000_000L;
+    private static final int ROWS = 1_024;
+
+    private static double sink;
+
+    public static void main(String[] args) {
+        final RowKernels kernels = RowKernels.get();
+        System.out.println("Kernels: " + kernels.name());
+        System.out.printf("%8s %12s %12s %12s%n", "Length", "max", "argMax", "expShifted");
+        for (int length : LENGTHS) {
+            final double[] values = RandomUtils.newGenerator(1).doubles((long) ROWS * length, -10, 10).toArray();
+            // Warm-up, so every loop is compiled before timing
+            measure(kernels, values, length, ELEMENTS / 10);
+            final double[] rates = measure(kernels, values, length, ELEMENTS);
+            System.out.printf("%8d %12.0f %12.0f %12.0f%n", length, rates[0], rates[1], rates[2]);
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    private static double[] measure(RowKernels kernels, double[] values, int length, long elements) {
+        final long calls = elements / length;
+        final double[] dst = new double[length];
+        final double[] rates = new double[3];
+
+        long start = System.nanoTime();
+        double acc = 0;
+        for (long c = 0; c < calls; c++) {
+            acc += kernels.max(values, (int) (c % ROWS) * length, length);
+        }
+        rates[0] = rate(elements, start);
+
+        start = System.nanoTime();
+        for (long c = 0; c < calls; c++) {
+            acc += kernels.argMax(values, (int) (c % ROWS) * length, length);
+        }
+        rates[1] = rate(elements, start);
+
+        start = System.nanoTime();
+        for (long c = 0; c < calls; c++) {
+            acc += kernels.expShifted(values, (int) (c % ROWS) * length, length, 10.0, 0.5, dst);
+        }
+        rates[2] = rate(elements, start);
+
+        sink += acc;
+        return rates;
+    }
+
+    private static double rate(long elements, long start) {
+        return elements / ((System.nanoTime() - start) / 1e3);
+    }
+}
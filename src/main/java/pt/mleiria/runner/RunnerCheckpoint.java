@@ -0,0 +1,99 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.agent.Agent;
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.checkpoint.AsyncCheckpointer;
+import pt.mleiria.rl.mdp.checkpoint.CheckpointHeader;
+import pt.mleiria.rl.mdp.checkpoint.QTableCheckpoint;
+import pt.mleiria.rl.mdp.env.Environment;
+import pt.mleiria.rl.mdp.env.MouseEnvironment;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.qtable.MappedQTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+import pt.mleiria.rl.mdp.vo.TrainingBudget;
+import pt.mleiria.rl.mdp.vo.TrainingReport;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Trains with background snapshots, reloads the checkpoint, evaluates it without retraining and
+ * resumes training from it.
+ */
+public class RunnerCheckpoint {
+
+    /**
+     * @param args Optional directory for the checkpoint files; defaults to a temporary directory.
+     */
+    public static void main(String[] args) throws IOException {
+        final Path dir = args.length > 0 ? Path.of(args[0]) : Files.createTempDirectory("rl-checkpoints");
+        run("Taxi", new TaxiEnvironment(), dir.resolve("taxi.qtable"), 20_000);
+        run("Mouse", new MouseEnvironment(), dir.resolve("mouse.qtable"), 5_000);
+    }
+
+    private static void run(String name, Environment env, Path path, int episodes) throws IOException {
+        System.out.println("\n=================================================");
+        System.out.printf("  %s -> %s%n", name, path);
+        System.out.println("=================================================");
+
+        // Train the first half, snapshotting in the background
+        final Agent agent = new QLearningAgent(env.getNumStates(), env.getNumActions());
+        final TrainingBudget half = TrainingBudget.episodes(episodes / 2).withMaxStepsPerEpisode(500);
+        final AsyncCheckpointer checkpointer = new AsyncCheckpointer(path, 1000);
+        try {
+            MainEvaluator.trainAgent(agent, env, half, RandomUtils.newGenerator(), checkpointer);
+        } finally {
+            checkpointer.close();
+        }
+        System.out.printf("Snapshots written: %d, skipped while busy: %d%n",
+                checkpointer.getWrittenCount(), checkpointer.getSkippedCount());
+
+        long start = System.nanoTime();
+        final MappedQTable mapped = QTableCheckpoint.map(path);
+        final CheckpointHeader header = QTableCheckpoint.readHeader(path);
+        System.out.printf("Mapped %s checkpoint (episode %d, epsilon %.4f) in %.3f ms%n",
+                header.agentType(), header.episode(), header.epsilon(), (System.nanoTime() - start) / 1e6);
+        System.out.printf("Greedy return from the checkpoint: %.2f%n", greedyReturn(mapped, env));
+
+        // Resume: a fresh agent on a writable copy, continuing the exploration schedule
+        start = System.nanoTime();
+        final DenseQTable table = QTableCheckpoint.load(path);
+        System.out.printf("Loaded writable copy in %.3f ms%n", (System.nanoTime() - start) / 1e6);
+        final Agent resumed = new QLearningAgent(table);
+        resumed.setEpsilon(header.epsilon());
+        final TrainingBudget rest = TrainingBudget.episodes(episodes - (int) header.episode()).withMaxStepsPerEpisode(500);
+        try (AsyncCheckpointer resumedCheckpointer = new AsyncCheckpointer(path, 1000, header.episode())) {
+            final TrainingReport report = MainEvaluator.trainAgent(resumed, env, rest, RandomUtils.newGenerator(),
+                    resumedCheckpointer);
+            System.out.printf("Resumed for %d episodes; last-100 average %.2f%n", report.episodes(),
+                    last100Average(report.result().episodeRewards()));
+        }
+        System.out.printf("Final checkpoint episode: %d%n", QTableCheckpoint.readHeader(path).episode());
+    }
+
+    private static double greedyReturn(MappedQTable qTable, Environment env) {
+        final MutableStepResult result = new MutableStepResult();
+        double total = 0;
+        for (int episode = 0; episode < 100; episode++) {
+            int state = env.reset();
+            for (int step = 0; step < 500; step++) {
+                env.step(qTable.argMax(state), result);
+                total += result.reward();
+                if (result.done()) {
+                    break;
+                }
+                state = result.nextState();
+            }
+        }
+        return total / 100;
+    }
+
+    private static double last100Average(List<Double> rewards) {
+        return rewards.subList(Math.max(0, rewards.size() - 100), rewards.size())
+                .stream().mapToDouble(d -> d).average().orElse(0.0);
+    }
+}
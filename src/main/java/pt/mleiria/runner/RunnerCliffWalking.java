@@ -4,6 +4,7 @@ import pt.mleiria.rl.mdp.agent.Agent;
 import pt.mleiria.rl.mdp.agent.QLearningAgent;
 import pt.mleiria.rl.mdp.agent.SARSAAgent;
 import pt.mleiria.rl.mdp.env.CliffWalkingEnvironment;
+import pt.mleiria.rl.mdp.env.CompiledEnvironment;
 import pt.mleiria.rl.mdp.env.Environment;
 import pt.mleiria.rl.mdp.utils.PrintUtils;
 import pt.mleiria.rl.mdp.vo.AgentResult;
@@ -26,7 +27,8 @@ public class RunnerCliffWalking {
         // --- Run on CliffWalking Environment ---
         System.out.println("    RUNNING ON CLIFF WALKING ENVIRONMENT         ");
         System.out.println("=================================================");
-        Environment cliffEnv = new CliffWalkingEnvironment();
+        // Compiled into lookup tables once; steps are then plain array reads
+        Environment cliffEnv = new CompiledEnvironment(new CliffWalkingEnvironment());
         System.out.printf("Environment: Cliff Walking | States: %d | Actions: %d%n", cliffEnv.getNumStates(), cliffEnv.getNumActions());
         System.out.printf("Training for %d episodes.%n", episodes);
 
@@ -36,7 +38,7 @@ public class RunnerCliffWalking {
         for (Agent agent : agents) {
             System.out.println("Initialized Agent: " + agent.getName());
             final AgentResult result = trainAgent(agent, cliffEnv, episodes);
-            evaluateAgent(agent.getQTable(), cliffEnv, server);
+            evaluateAgent(agent.getTable(), cliffEnv, server);
             PrintUtils.printGridPolicy(agent, cliffEnv);
             PrintUtils.printRewardSummary(result, agent.getName());
         }
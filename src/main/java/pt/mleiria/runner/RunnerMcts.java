@@ -0,0 +1,85 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.env.Environment;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.planner.MctsPlanner;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MctsConfig;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+import pt.mleiria.rl.mdp.vo.TrainingBudget;
+import pt.mleiria.rl.mdp.vo.TrainingReport;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Compares decision-time planning with a trained Q-table on Taxi: average return over the same seeded
+ * episodes, and decisions per second. The Q-table pays up front for training and then decides with a
+ * single row lookup; the planner needs no training but searches at every step.
+ */
+public class RunnerMcts {
+
+    private static final int EPISODES = 20;
+    private static final int MAX_STEPS = 200;
+    private static final long EPISODE_SEED = 2024;
+    private static final int HORIZON = 50;
+
+    /**
+     * @param args Optional number of simulations per decision; defaults to 2000.
+     */
+    public static void main(String[] args) {
+        final int simulations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        final int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("\n=================================================");
+        System.out.println("        MCTS vs Q-TABLE ON TAXI                  ");
+        System.out.println("=================================================");
+        System.out.printf("%-32s %12s %14s %12s%n", "Policy", "Avg return", "Decisions/s", "Prep (ms)");
+
+        final long trainStart = System.nanoTime();
+        final TaxiEnvironment trainEnv = new TaxiEnvironment();
+        final QLearningAgent agent = new QLearningAgent(trainEnv.getNumStates(), trainEnv.getNumActions());
+        final TrainingReport report = MainEvaluator.trainAgent(agent, trainEnv,
+                TrainingBudget.episodes(20_000).withMaxStepsPerEpisode(MAX_STEPS));
+        final double trainMillis = (System.nanoTime() - trainStart) / 1e6;
+        final TaxiEnvironment greedyEnv = new TaxiEnvironment(RandomUtils.newGenerator(EPISODE_SEED));
+        evaluate("Q-table (greedy)", state -> report.result().qTable().argMax(state), greedyEnv, trainMillis);
+
+        final MctsConfig base = MctsConfig.simulations(simulations).withHorizon(HORIZON);
+        compare("MCTS sequential", base);
+        compare("MCTS root x" + cores, base.withParallelism(cores, 1));
+        compare("MCTS tree x" + cores, base.withParallelism(1, cores));
+        compare("MCTS 2 trees x 2 threads", base.withParallelism(2, 2));
+    }
+
+    private static void compare(String label, MctsConfig config) {
+        final TaxiEnvironment env = new TaxiEnvironment(RandomUtils.newGenerator(EPISODE_SEED));
+        try (MctsPlanner<TaxiEnvironment> planner = new MctsPlanner<>(env, TaxiEnvironment::new, config, 42)) {
+            evaluate(label + " (" + config.simulations() + ")", planner::chooseAction, env, 0.0);
+        }
+    }
+
+    private static void evaluate(String label, IntUnaryOperator policy, Environment env, double prepMillis) {
+        final MutableStepResult result = new MutableStepResult();
+        double total = 0.0;
+        long decisions = 0;
+        long decisionNanos = 0;
+        for (int episode = 0; episode < EPISODES; episode++) {
+            int state = env.reset();
+            for (int step = 0; step < MAX_STEPS; step++) {
+                final long start = System.nanoTime();
+                final int action = policy.applyAsInt(state);
+                decisionNanos += System.nanoTime() - start;
+                decisions++;
+                env.step(action, result);
+                total += result.reward();
+                state = result.nextState();
+                if (result.done()) {
+                    break;
+                }
+            }
+        }
+        System.out.printf("%-32s %12.2f %14.0f %12.0f%n", label, total / EPISODES,
+                decisions / (decisionNanos / 1e9), prepMillis);
+    }
+}
@@ -0,0 +1,66 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.solver.ModelExtractor;
+import pt.mleiria.rl.mdp.solver.PolicyIteration;
+import pt.mleiria.rl.mdp.solver.TransitionModel;
+import pt.mleiria.rl.mdp.solver.ValueIteration;
+import pt.mleiria.rl.mdp.vo.AgentResult;
+import pt.mleiria.rl.mdp.vo.SolverResult;
+
+/**
+ * Solves the Taxi environment exactly and compares the optimal policy with one learned by Q-learning.
+ */
+public class RunnerMdpSolver {
+
+    // Same discount factor as the agents' default, so the Q-tables are comparable
+    private static final double GAMMA = 0.99;
+    private static final double THETA = 1e-8;
+
+    public static void main(String[] args) throws InterruptedException {
+        final int episodes = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+
+        System.out.println("\n=================================================");
+        System.out.println("        SOLVING TAXI ENVIRONMENT EXACTLY         ");
+        System.out.println("=================================================");
+        final TaxiEnvironment env = new TaxiEnvironment();
+
+        long start = System.nanoTime();
+        final TransitionModel model = ModelExtractor.extract(env);
+        System.out.printf("Model extraction: %d transitions in %.2f ms%n", model.getNumTransitions(), millisSince(start));
+
+        start = System.nanoTime();
+        final SolverResult vi = ValueIteration.solve(model, GAMMA, THETA, 100_000);
+        System.out.printf("Value iteration:  %d sweeps in %.2f ms%n", vi.iterations(), millisSince(start));
+
+        start = System.nanoTime();
+        final SolverResult pi = PolicyIteration.solve(model, GAMMA, THETA, 1_000);
+        System.out.printf("Policy iteration: %d improvements in %.2f ms%n", pi.iterations(), millisSince(start));
+
+        MainEvaluator.runBenchmarkTestTaxiDriver(vi.qTable());
+
+        System.out.printf("%nTraining Q-learning for %d episodes...%n", episodes);
+        final QLearningAgent agent = new QLearningAgent(env.getNumStates(), env.getNumActions());
+        final AgentResult learned = MainEvaluator.trainAgent(agent, env, episodes);
+        System.out.printf("Greedy actions that are optimal: %.1f%%%n", 100.0 * optimalFraction(learned.qTable(), vi.qTable()));
+    }
+
+    /**
+     * Returns the fraction of states in which the learned greedy action is also optimal.
+     */
+    private static double optimalFraction(QTable learned, QTable optimal) {
+        int matches = 0;
+        for (int state = 0; state < optimal.getNumStates(); state++) {
+            if (optimal.get(state, learned.argMax(state)) >= optimal.max(state) - 1e-6) {
+                matches++;
+            }
+        }
+        return (double) matches / optimal.getNumStates();
+    }
+
+    private static double millisSince(long start) {
+        return (System.nanoTime() - start) / 1e6;
+    }
+}
@@ -0,0 +1,110 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.env.Environment;
+import pt.mleiria.rl.mdp.env.FullyObservableMouseEnvironment;
+import pt.mleiria.rl.mdp.env.MouseEnvironment;
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.qtable.FloatQTable;
+import pt.mleiria.rl.mdp.qtable.HashedQTable;
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+import pt.mleiria.rl.mdp.vo.TrainingBudget;
+import pt.mleiria.rl.mdp.vo.TrainingReport;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Compares Q-learning on the partially observable {@link MouseEnvironment} with the
+ * {@link FullyObservableMouseEnvironment}, whose state includes the food and water cells: training
+ * throughput, table memory, and the average return of the greedy policy on fresh layouts.
+ * <p>
+ * The fully observable run is shown with a {@link HashedQTable} and, unless {@code --no-dense} is given,
+ * with a dense table of doubles (about 122 MiB of heap) and a {@link FloatQTable} (about 61 MiB).
+ */
+public class RunnerMouseObservability {
+
+    private static final int EPISODES = 1_000_000;
+    private static final int MAX_STEPS = 200;
+    private static final int EVALUATION_EPISODES = 2_000;
+    private static final int MAX_EVALUATION_STEPS = 200;
+
+    /**
+     * @param args Optional number of training episodes, and {@code --no-dense} to skip the dense 4M-state tables.
+     */
+    public static void main(String[] args) {
+        int episodes = EPISODES;
+        boolean dense = true;
+        for (String arg : args) {
+            if (arg.equals("--no-dense")) {
+                dense = false;
+            } else {
+                episodes = Integer.parseInt(arg);
+            }
+        }
+        System.out.println("\n=================================================");
+        System.out.println("   MOUSE: PARTIAL vs FULL OBSERVABILITY          ");
+        System.out.println("=================================================");
+        System.out.printf("Training for %d episodes, evaluating the greedy policy on %d fresh layouts.%n",
+                episodes, EVALUATION_EPISODES);
+        System.out.printf("%-16s %10s %10s %14s %14s %12s %14s%n", "Variant", "States", "Stored",
+                "Memory (KiB)", "Steps/s", "us/episode", "Greedy return");
+        run("partial", MouseEnvironment::new, e -> new DenseQTable(e.getNumStates(), e.getNumActions()), episodes);
+        run("full, hashed", FullyObservableMouseEnvironment::new,
+                e -> new HashedQTable(e.getNumStates(), e.getNumActions()), episodes);
+        if (dense) {
+            run("full, dense", FullyObservableMouseEnvironment::new,
+                    e -> new DenseQTable(e.getNumStates(), e.getNumActions()), episodes);
+            run("full, float", FullyObservableMouseEnvironment::new,
+                    e -> new FloatQTable(e.getNumStates(), e.getNumActions()), episodes);
+        }
+    }
+
+    private static void run(String label, Supplier<Environment> envFactory, Function<Environment, QTable> tableFactory,
+                            int episodes) {
+        final Environment env = envFactory.get();
+        final QTable table = tableFactory.apply(env);
+        final QLearningAgent agent = new QLearningAgent(table, RandomUtils.newGenerator());
+        final TrainingReport report = MainEvaluator.trainAgent(agent, env,
+                TrainingBudget.episodes(episodes).withMaxStepsPerEpisode(MAX_STEPS));
+
+        final long stored;
+        final long bytes;
+        if (table instanceof HashedQTable hashed) {
+            stored = hashed.getStoredStates();
+            bytes = hashed.sizeInBytes();
+        } else if (table instanceof FloatQTable floats) {
+            stored = env.getNumStates();
+            bytes = floats.sizeInBytes();
+        } else {
+            stored = env.getNumStates();
+            bytes = (long) env.getNumStates() * env.getNumActions() * Double.BYTES;
+        }
+        final double seconds = report.elapsed().toNanos() / 1e9;
+        System.out.printf("%-16s %10d %10d %14d %14.0f %12.2f %14.2f%n", label, env.getNumStates(), stored,
+                bytes / 1024, report.totalSteps() / seconds, seconds * 1e6 / report.result().episodeRewards().size(),
+                greedyReturn(table, envFactory.get()));
+    }
+
+    /**
+     * Returns the average return of the greedy policy, cutting off episodes that run too long.
+     */
+    private static double greedyReturn(QTable qTable, Environment env) {
+        final MutableStepResult result = new MutableStepResult();
+        double total = 0;
+        for (int episode = 0; episode < EVALUATION_EPISODES; episode++) {
+            int state = env.reset();
+            for (int step = 0; step < MAX_EVALUATION_STEPS; step++) {
+                env.step(qTable.argMax(state), result);
+                total += result.reward();
+                if (result.done()) {
+                    break;
+                }
+                state = result.nextState();
+            }
+        }
+        return total / EVALUATION_EPISODES;
+    }
+}
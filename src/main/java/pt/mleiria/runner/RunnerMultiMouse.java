@@ -0,0 +1,115 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.agent.Agent;
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.env.marl.MultiAgentEnvironment;
+import pt.mleiria.rl.mdp.env.marl.MultiMouseEnvironment;
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.qtable.HashedQTable;
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.AgentResult;
+import pt.mleiria.rl.mdp.vo.MutableMultiAgentStepResult;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Compares independent Q-learners on MultiMouse with per-agent observation tables (400 states each) against
+ * the same learners indexed by the joint state (160000 states each): table memory, time per episode and the
+ * average reward of the last episodes. The joint tables are run twice: dense, and as a {@link HashedQTable}
+ * that only stores the joint states actually visited.
+ */
+public class RunnerMultiMouse {
+
+    private static final int EPISODES = 20_000;
+    private static final int MAX_STEPS = 500;
+    private static final int REPORT_WINDOW = 1000;
+
+    public static void main(String[] args) {
+        System.out.println("\n=================================================");
+        System.out.println("   MULTI-MOUSE: FACTORED vs JOINT Q-TABLES       ");
+        System.out.println("=================================================");
+        System.out.printf("%-14s %12s %12s %14s %12s %14s%n", "Tables", "States", "Stored", "Memory (KiB)", "us/episode", "Avg reward");
+        run("factored", new MultiMouseEnvironment(), DenseQTable::new);
+        run("joint", new JointObservations(new MultiMouseEnvironment()), DenseQTable::new);
+        run("joint hashed", new JointObservations(new MultiMouseEnvironment()), HashedQTable::new);
+    }
+
+    private static void run(String label, MultiAgentEnvironment env,
+                            BiFunction<Integer, Integer, QTable> tableFactory) {
+        final Agent[] agents = new Agent[env.getNumAgents()];
+        for (int i = 0; i < agents.length; i++) {
+            agents[i] = new QLearningAgent(tableFactory.apply(env.getNumStates(), env.getNumActions()),
+                    RandomUtils.newGenerator());
+        }
+        final long start = System.nanoTime();
+        final AgentResult[] results = IndependentLearnersTrainer.trainAgents(agents, env, EPISODES, MAX_STEPS);
+        final double microsPerEpisode = (System.nanoTime() - start) / 1e3 / EPISODES;
+
+        long stored = 0;
+        long bytes = 0;
+        for (Agent agent : agents) {
+            if (agent.getTable() instanceof HashedQTable hashed) {
+                stored += hashed.getStoredStates();
+                bytes += hashed.sizeInBytes();
+            } else {
+                stored += env.getNumStates();
+                bytes += (long) env.getNumStates() * env.getNumActions() * Double.BYTES;
+            }
+        }
+        double total = 0;
+        for (AgentResult result : results) {
+            final List<Double> rewards = result.episodeRewards();
+            for (int e = rewards.size() - REPORT_WINDOW; e < rewards.size(); e++) {
+                total += rewards.get(e);
+            }
+        }
+        System.out.printf("%-14s %12d %12d %14d %12.1f %14.2f%n", label, env.getNumStates(), stored, bytes / 1024,
+                microsPerEpisode, total / (REPORT_WINDOW * results.length));
+    }
+
+    /**
+     * Shows every agent the joint state instead of its own observation, as the original joint table did.
+     */
+    private static final class JointObservations implements MultiAgentEnvironment {
+
+        private final MultiMouseEnvironment env;
+
+        JointObservations(MultiMouseEnvironment env) {
+            this.env = env;
+        }
+
+        @Override
+        public int getNumStates() {
+            return env.getNumJointStates();
+        }
+
+        @Override
+        public int getNumActions() {
+            return env.getNumActions();
+        }
+
+        @Override
+        public int getNumAgents() {
+            return env.getNumAgents();
+        }
+
+        @Override
+        public void reset() {
+            env.reset();
+        }
+
+        @Override
+        public int getObservation(int agent) {
+            return env.getJointState();
+        }
+
+        @Override
+        public void step(int[] action, MutableMultiAgentStepResult result) {
+            env.step(action, result);
+            final int joint = env.getJointState();
+            result.set(joint, joint, result.done());
+        }
+    }
+}
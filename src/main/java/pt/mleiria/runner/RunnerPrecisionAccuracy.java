@@ -0,0 +1,152 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.agent.Agent;
+import pt.mleiria.rl.mdp.agent.BoltzmannAgent;
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.agent.SARSAAgent;
+import pt.mleiria.rl.mdp.env.CliffWalkingEnvironment;
+import pt.mleiria.rl.mdp.env.Environment;
+import pt.mleiria.rl.mdp.env.MouseEnvironment;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.qtable.FixedPointQTable;
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.qtable.QTablePrecision;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.AgentType;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+
+import java.util.function.BiFunction;
+import java.util.function.LongFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * Reports how much accuracy the reduced-precision Q-tables give up. Each agent is trained once per
+ * {@link QTablePrecision} with the same seeds and compared with the double baseline on the states its greedy
+ * policy visits: the share of those states whose greedy action agrees, the mean absolute difference of the
+ * state values max_a Q(s, a), and the average return of each greedy policy.
+ * <p>
+ * The runs only stay in lockstep until rounding first changes a decision, after which exploration differs.
+ * A second double run with another seed is shown as the reference for how far two equally precise runs drift
+ * apart; a reduced precision costs accuracy only where it falls clearly below that row.
+ */
+public class RunnerPrecisionAccuracy {
+
+    private static final int MAX_STEPS = 1_000;
+    private static final int EVALUATION_EPISODES = 1_000;
+    private static final int MAX_EVALUATION_STEPS = 200;
+    private static final long SEED = 7;
+    private static final long OTHER_SEED = 8;
+
+    public static void main(String[] args) {
+        report("Taxi", seed -> new TaxiEnvironment(RandomUtils.newGenerator(seed)), 20_000, 2048.0);
+        report("CliffWalking", seed -> new CliffWalkingEnvironment(), 2_000, FixedPointQTable.DEFAULT_RANGE);
+        report("Mouse", seed -> new MouseEnvironment(RandomUtils.newGenerator(seed)), 20_000,
+                FixedPointQTable.DEFAULT_RANGE);
+    }
+
+    /**
+     * @param range The range of the fixed-point table, the smallest power of two above the largest value.
+     */
+    private static void report(String name, LongFunction<Environment> envFactory, int episodes, double range) {
+        System.out.println("\n=================================================");
+        System.out.printf("  %s: %d episodes per run, fixed-point range %.0f%n", name, episodes, range);
+        System.out.println("=================================================");
+        System.out.printf("%-12s %-14s %12s %12s %12s %14s%n", "Agent", "Table", "Storage",
+                "Agreement", "Mean |dV|", "Greedy return");
+        compare(envFactory, episodes, range, "Q_LEARNING", QLearningAgent::new);
+        compare(envFactory, episodes, range, "SARSA", SARSAAgent::new);
+        compare(envFactory, episodes, range, "BOLTZMANN", (table, random) -> new BoltzmannAgent(table, 0.5, 0.99, 0.1, random));
+    }
+
+    private static void compare(LongFunction<Environment> envFactory, int episodes, double range, String label,
+                                BiFunction<QTable, RandomGenerator, Agent> agentFactory) {
+        final QTable baseline = train(envFactory, episodes, agentFactory, QTablePrecision.DOUBLE, range, SEED);
+        final boolean[] path = new boolean[baseline.getNumStates()];
+        final double baselineReturn = greedyReturn(baseline, envFactory.apply(SEED + 1), path);
+        print(label, "DOUBLE", QTablePrecision.DOUBLE, 1.0, 0.0, baselineReturn);
+
+        final QTable reseeded = train(envFactory, episodes, agentFactory, QTablePrecision.DOUBLE, range, OTHER_SEED);
+        print(label, "DOUBLE, reseed", QTablePrecision.DOUBLE, agreement(baseline, reseeded, path),
+                meanValueDifference(baseline, reseeded, path), greedyReturn(reseeded, envFactory.apply(SEED + 1), null));
+        for (QTablePrecision precision : new QTablePrecision[]{QTablePrecision.FLOAT, QTablePrecision.FIXED16}) {
+            final QTable table = train(envFactory, episodes, agentFactory, precision, range, SEED);
+            print(label, precision.name(), precision, agreement(baseline, table, path),
+                    meanValueDifference(baseline, table, path), greedyReturn(table, envFactory.apply(SEED + 1), null));
+        }
+    }
+
+    private static void print(String agent, String table, QTablePrecision precision, double agreement,
+                              double meanDifference, double greedyReturn) {
+        System.out.printf("%-12s %-14s %12s %11.2f%% %12.4f %14.2f%n", agent, table, precision.bytesPerValue() + " B/value",
+                100.0 * agreement, meanDifference, greedyReturn);
+    }
+
+    private static QTable train(LongFunction<Environment> envFactory, int episodes,
+                                BiFunction<QTable, RandomGenerator, Agent> agentFactory, QTablePrecision precision,
+                                double range, long seed) {
+        final Environment env = envFactory.apply(seed);
+        final Agent agent = agentFactory.apply(precision.newTable(env.getNumStates(), env.getNumActions(), range),
+                RandomUtils.newGenerator(seed));
+        final MutableStepResult result = new MutableStepResult();
+        final boolean onPolicy = AgentType.isOnPolicy(AgentType.valueOf(agent.getName()));
+        final RandomGenerator random = RandomUtils.newGenerator(seed);
+        for (int episode = 0; episode < episodes; episode++) {
+            MainEvaluator.runEpisode(agent, env, result, onPolicy, random, episode, null, MAX_STEPS, null);
+        }
+        return agent.getTable();
+    }
+
+    /**
+     * Returns the share of the marked states whose greedy actions agree.
+     */
+    private static double agreement(QTable baseline, QTable table, boolean[] path) {
+        int states = 0;
+        int agreeing = 0;
+        for (int state = 0; state < path.length; state++) {
+            if (path[state]) {
+                states++;
+                if (baseline.argMax(state) == table.argMax(state)) {
+                    agreeing++;
+                }
+            }
+        }
+        return states == 0 ? 1.0 : (double) agreeing / states;
+    }
+
+    private static double meanValueDifference(QTable baseline, QTable table, boolean[] path) {
+        int states = 0;
+        double total = 0;
+        for (int state = 0; state < path.length; state++) {
+            if (path[state]) {
+                states++;
+                total += Math.abs(baseline.max(state) - table.max(state));
+            }
+        }
+        return states == 0 ? 0.0 : total / states;
+    }
+
+    /**
+     * Returns the average return of the greedy policy, cutting off episodes that run too long.
+     *
+     * @param path Marks every state the policy visits; {@code null} to skip.
+     */
+    private static double greedyReturn(QTable qTable, Environment env, boolean[] path) {
+        final MutableStepResult result = new MutableStepResult();
+        double total = 0;
+        for (int episode = 0; episode < EVALUATION_EPISODES; episode++) {
+            int state = env.reset();
+            for (int step = 0; step < MAX_EVALUATION_STEPS; step++) {
+                if (path != null) {
+                    path[state] = true;
+                }
+                env.step(qTable.argMax(state), result);
+                total += result.reward();
+                if (result.done()) {
+                    break;
+                }
+                state = result.nextState();
+            }
+        }
+        return total / EVALUATION_EPISODES;
+    }
+}
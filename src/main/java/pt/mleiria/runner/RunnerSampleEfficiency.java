@@ -0,0 +1,142 @@
+package pt.mleiria.runner;
+
+import pt.mleiria.rl.mdp.agent.Agent;
+import pt.mleiria.rl.mdp.agent.DynaQAgent;
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.agent.SARSALambdaAgent;
+import pt.mleiria.rl.mdp.agent.WatkinsQLambdaAgent;
+import pt.mleiria.rl.mdp.env.Environment;
+import pt.mleiria.rl.mdp.env.MouseEnvironment;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.AgentType;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Compares how many environment steps one-step, trace-based and model-based learners need before their greedy policy reaches a
+ * target average return, which is what matters when stepping the environment is the expensive part.
+ * Evaluation episodes run on a separate environment and are not counted.
+ */
+public class RunnerSampleEfficiency {
+
+    private static final int EVALUATE_EVERY = 10;
+    private static final int EVALUATION_EPISODES = 100;
+    private static final int MAX_EVALUATION_STEPS = 200;
+    private static final int MAX_EPISODES = 20_000;
+
+    /**
+     * @param args Optional number of planning steps per real step; defaults to 10.
+     */
+    public static void main(String[] args) {
+        final int planningSteps = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        compare("Taxi", TaxiEnvironment::new, 7.0, planningSteps);
+        compare("Mouse", MouseEnvironment::new, -100.0, planningSteps);
+    }
+
+    private static void compare(String name, Supplier<Environment> envFactory, double target, int planningSteps) {
+        System.out.println("\n=================================================");
+        System.out.printf("  %s: steps until the greedy return reaches %.1f%n", name, target);
+        System.out.println("=================================================");
+        System.out.printf("%-12s %10s %14s %12s%n", "Agent", "Episodes", "Env steps", "Time (ms)");
+        run("Q_LEARNING", envFactory, target, e -> new QLearningAgent(e.getNumStates(), e.getNumActions()));
+        run("SARSA_LAMBDA", envFactory, target, e -> new SARSALambdaAgent(e.getNumStates(), e.getNumActions()));
+        run("Q_LAMBDA", envFactory, target, e -> new WatkinsQLambdaAgent(e.getNumStates(), e.getNumActions()));
+        run("DYNA_Q", envFactory, target, e -> new DynaQAgent(
+                new DenseQTable(e.getNumStates(), e.getNumActions()), planningSteps, 1e-4, RandomUtils.newGenerator()));
+    }
+
+    private static void run(String label, Supplier<Environment> envFactory, double target,
+                            Function<Environment, Agent> agentFactory) {
+        final CountingEnvironment env = new CountingEnvironment(envFactory.get());
+        final Environment evaluationEnv = envFactory.get();
+        final Agent agent = agentFactory.apply(env);
+        final RandomGenerator random = RandomUtils.newGenerator();
+        final MutableStepResult result = new MutableStepResult();
+        final boolean onPolicy = AgentType.isOnPolicy(AgentType.valueOf(agent.getName()));
+
+        final long start = System.nanoTime();
+        int episode = 0;
+        boolean reached = false;
+        while (episode < MAX_EPISODES && !reached) {
+            MainEvaluator.runEpisode(agent, env, result, onPolicy, random, episode, null);
+            episode++;
+            reached = episode % EVALUATE_EVERY == 0 && greedyReturn(agent.getTable(), evaluationEnv, result) >= target;
+        }
+        System.out.printf("%-12s %10d %14d %12.0f%s%n", label, episode, env.steps,
+                (System.nanoTime() - start) / 1e6, reached ? "" : "  (target not reached)");
+    }
+
+    /**
+     * Returns the average return of the greedy policy, cutting off episodes that run too long.
+     */
+    private static double greedyReturn(QTable qTable, Environment env, MutableStepResult result) {
+        double total = 0;
+        for (int episode = 0; episode < EVALUATION_EPISODES; episode++) {
+            int state = env.reset();
+            for (int step = 0; step < MAX_EVALUATION_STEPS; step++) {
+                env.step(qTable.argMax(state), result);
+                total += result.reward();
+                if (result.done()) {
+                    break;
+                }
+                state = result.nextState();
+            }
+        }
+        return total / EVALUATION_EPISODES;
+    }
+
+    /**
+     * Passes everything through to another environment, counting the steps taken.
+     */
+    private static class CountingEnvironment implements Environment {
+        private final Environment delegate;
+        private long steps;
+
+        CountingEnvironment(Environment delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int getNumStates() {
+            return delegate.getNumStates();
+        }
+
+        @Override
+        public int getNumActions() {
+            return delegate.getNumActions();
+        }
+
+        @Override
+        public int reset() {
+            return delegate.reset();
+        }
+
+        @Override
+        public void step(int action, MutableStepResult result) {
+            steps++;
+            delegate.step(action, result);
+        }
+
+        @Override
+        public int getGridRows() {
+            return delegate.getGridRows();
+        }
+
+        @Override
+        public int getGridCols() {
+            return delegate.getGridCols();
+        }
+
+        @Override
+        public Map<Integer, String> getSpecialStates() {
+            return delegate.getSpecialStates();
+        }
+    }
+}
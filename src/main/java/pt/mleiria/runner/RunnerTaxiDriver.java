@@ -7,8 +7,12 @@ import pt.mleiria.rl.mdp.env.Environment;
 import pt.mleiria.rl.mdp.env.TaxiEnvironment;
 import pt.mleiria.rl.mdp.utils.PrintUtils;
 import pt.mleiria.rl.mdp.vo.AgentResult;
+import pt.mleiria.rl.mdp.vo.TrainingBudget;
+import pt.mleiria.rl.mdp.vo.TrainingReport;
 import pt.mleiria.server.VisualizerServer;
 
+import java.time.Duration;
+
 import static pt.mleiria.runner.MainEvaluator.evaluateAgent;
 import static pt.mleiria.runner.MainEvaluator.trainAgent;
 
@@ -18,7 +22,12 @@ public class RunnerTaxiDriver {
         // Start the visualizer server on a specific port
         VisualizerServer server = new VisualizerServer(8887);
         server.start();
-        int episodes = 1000000; // Number of episodes to train the agents
+        int episodes = 1000000; // Upper bound; training normally stops far earlier once converged
+        TrainingBudget budget = TrainingBudget.episodes(episodes)
+                .withMaxStepsPerEpisode(200)
+                .withMaxDuration(Duration.ofMinutes(5))
+                .withQConvergence(1e-3, 100)
+                .withRewardPlateau(1000, 0.05);
 
         System.out.println("\n=================================================");
         System.out.println("        RUNNING ON TAXI ENVIRONMENT              ");
@@ -30,7 +39,10 @@ public class RunnerTaxiDriver {
         Agent sarsaAgentTaxi = new SARSAAgent(taxiEnv.getNumStates(), taxiEnv.getNumActions());
 
         // Train agents (Taxi might need more episodes due to its larger state space)
-        AgentResult qResultTaxi = trainAgent(qLearningAgentTaxi, taxiEnv, episodes);
+        TrainingReport report = trainAgent(qLearningAgentTaxi, taxiEnv, budget);
+        System.out.printf("Stopped by %s after %d of %d episodes, %d steps, %d truncated.%n", report.stopReason(),
+                report.episodes(), episodes, report.totalSteps(), report.truncatedEpisodes());
+        AgentResult qResultTaxi = report.result();
         evaluateAgent(qResultTaxi.qTable(), taxiEnv, server);
         //AgentResult sarsaResultTaxi = trainAgent(sarsaAgentTaxi, taxiEnv, taxiEpisodes);
 
@@ -0,0 +1,81 @@
+package pt.mleiria.rl.mdp.agent;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the per-step policy code (action selection and Q-value update) does not allocate.
+ */
+public class ActionSelectionAllocationTest {
+
+    private static final int NUM_STATES = 500;
+    private static final int NUM_ACTIONS = 6;
+    private static final int STEPS = 200_000;
+
+    private static final ThreadMXBean THREAD_MX_BEAN = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Runs {@code steps} choose/update cycles and returns the bytes allocated by the current thread.
+     */
+    private static long allocatedBytes(Agent agent, int steps) {
+        final long threadId = Thread.currentThread().threadId();
+        final long before = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+        int state = 0;
+        for (int i = 0; i < steps; i++) {
+            final int action = agent.chooseAction(state);
+            final int nextState = (state * 31 + action + 1) % NUM_STATES;
+            agent.update(state, action, -1.0, nextState, action);
+            state = nextState;
+        }
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static void assertNoAllocationPerStep(Agent agent) {
+        assertTrue(THREAD_MX_BEAN.isThreadAllocatedMemorySupported(), "Allocation counting not supported");
+        THREAD_MX_BEAN.setThreadAllocatedMemoryEnabled(true);
+        // Warm up so that class loading and JIT compilation do not count towards the measurement
+        allocatedBytes(agent, STEPS);
+        final long bytes = allocatedBytes(agent, STEPS);
+        assertEquals(0, bytes / STEPS, agent.getName() + " allocated " + bytes + " bytes in " + STEPS + " steps");
+    }
+
+    @Test
+    public void greedyActionSelectionDoesNotAllocate() {
+        // All-zero Q-values: every greedy choice is a full tie across all actions
+        final QLearningAgent agent = new QLearningAgent(NUM_STATES, NUM_ACTIONS);
+        assertNoAllocationPerStep(agent);
+    }
+
+    @Test
+    public void boltzmannActionSelectionDoesNotAllocate() {
+        final BoltzmannAgent agent = new BoltzmannAgent("boltzmann", NUM_STATES, NUM_ACTIONS, 0.5, 0.99, 0.1);
+        assertNoAllocationPerStep(agent);
+    }
+
+    @Test
+    public void cachedBoltzmannActionSelectionDoesNotAllocate() {
+        final BoltzmannAgent agent = new BoltzmannAgent("boltzmann", NUM_STATES, NUM_ACTIONS, 0.5, 0.99, 0.1);
+        agent.setDistributionCache(true);
+        assertNoAllocationPerStep(agent);
+    }
+
+    @Test
+    public void tiesAreBrokenUniformly() {
+        final QLearningAgent agent = new QLearningAgent(1, 4);
+        agent.getTable().set(0, 0, -1.0);
+        final int[] counts = new int[4];
+        final int draws = 30_000;
+        for (int i = 0; i < draws; i++) {
+            counts[agent.findBestAction(0)]++;
+        }
+        assertEquals(0, counts[0]);
+        for (int action = 1; action < 4; action++) {
+            assertEquals(draws / 3.0, counts[action], draws * 0.03, "Action " + action + " chosen " + counts[action] + " times");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package pt.mleiria.rl.mdp.agent;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that caching the sampling distributions of a {@link BoltzmannAgent} does not change its choices.
+ */
+public class BoltzmannDistributionCacheTest {
+
+    private static final int NUM_STATES = 20;
+    private static final int NUM_ACTIONS = 6;
+
+    private static QTable randomTable() {
+        final RandomGenerator random = RandomUtils.newGenerator(11);
+        final QTable table = new DenseQTable(NUM_STATES, NUM_ACTIONS);
+        for (int state = 0; state < NUM_STATES; state++) {
+            for (int action = 0; action < NUM_ACTIONS; action++) {
+                table.set(state, action, random.nextDouble(-3, 3));
+            }
+        }
+        return table;
+    }
+
+    @Test
+    public void cachedChoicesMatchUncachedAcrossUpdatesAndTemperatureChanges() {
+        final BoltzmannAgent plain = new BoltzmannAgent(randomTable(), 0.5, 0.9, 0.1, RandomUtils.newGenerator(5));
+        final BoltzmannAgent cached = new BoltzmannAgent(randomTable(), 0.5, 0.9, 0.1, RandomUtils.newGenerator(5));
+        cached.setDistributionCache(true);
+        final RandomGenerator random = RandomUtils.newGenerator(6);
+        int state = 0;
+        for (int step = 0; step < 20_000; step++) {
+            final int action = plain.chooseAction(state);
+            assertEquals(action, cached.chooseAction(state), "Step " + step);
+            final int nextState = random.nextInt(NUM_STATES);
+            // Update only now and then, so most choices find their distribution cached
+            if (step % 7 == 0) {
+                final double reward = random.nextDouble(-1, 1);
+                plain.update(state, action, reward, nextState, 0);
+                cached.update(state, action, reward, nextState, 0);
+            }
+            if (step % 1000 == 999) {
+                plain.decayTemperature(step);
+                cached.decayTemperature(step);
+            }
+            state = nextState;
+        }
+    }
+
+    @Test
+    public void repeatedChoicesBuildTheDistributionOnce() {
+        final BoltzmannAgent agent = new BoltzmannAgent(randomTable(), 0.5, 0.9, 0.1, RandomUtils.newGenerator(5));
+        agent.setDistributionCache(true);
+        for (int i = 0; i < 100; i++) {
+            agent.chooseAction(3);
+        }
+        assertEquals(1, agent.getDistributionRebuilds());
+
+        agent.update(3, 0, 1.0, 4, 0);
+        agent.chooseAction(3);
+        assertEquals(2, agent.getDistributionRebuilds());
+
+        agent.invalidateDistributions();
+        agent.chooseAction(3);
+        agent.chooseAction(3);
+        assertEquals(3, agent.getDistributionRebuilds());
+    }
+}
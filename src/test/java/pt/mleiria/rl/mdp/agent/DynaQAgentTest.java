@@ -0,0 +1,59 @@
+package pt.mleiria.rl.mdp.agent;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.env.FrozenLakeEnvironment;
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.utils.IndexedMaxPriorityQueue;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the priority queue ordering and that planning propagates a single reward back to the start.
+ */
+public class DynaQAgentTest {
+
+    @Test
+    public void queuePollsHighestPriorityFirstAndRaisesOnReoffer() {
+        final IndexedMaxPriorityQueue queue = new IndexedMaxPriorityQueue(8);
+        queue.offer(3, 1.0);
+        queue.offer(5, 4.0);
+        queue.offer(1, 2.0);
+        queue.offer(3, 5.0); // raised
+        queue.offer(5, 0.5); // lower, ignored
+        assertEquals(3, queue.size());
+        assertEquals(3, queue.poll());
+        assertEquals(5, queue.poll());
+        assertEquals(1, queue.poll());
+        assertTrue(queue.isEmpty());
+        assertFalse(queue.contains(3));
+    }
+
+    @Test
+    public void planningPropagatesGoalRewardToStart() {
+        final FrozenLakeEnvironment env = new FrozenLakeEnvironment(RandomUtils.newGenerator(7));
+        final DynaQAgent agent = new DynaQAgent(new DenseQTable(env.getNumStates(), env.getNumActions()),
+                50, 1e-6, RandomUtils.newGenerator(11));
+        final MutableStepResult result = new MutableStepResult();
+
+        // Explore until the goal has been reached once
+        boolean reachedGoal = false;
+        while (!reachedGoal) {
+            int state = env.reset();
+            boolean done = false;
+            while (!done) {
+                final int action = agent.chooseAction(state);
+                env.step(action, result);
+                agent.update(state, action, result.reward(), result.nextState(), 0);
+                reachedGoal |= result.reward() > 0;
+                state = result.nextState();
+                done = result.done();
+            }
+        }
+        // A one-step learner would only have valued the pair next to the goal; planning reaches the start
+        assertTrue(agent.getTable().max(0) > 0.0);
+    }
+}
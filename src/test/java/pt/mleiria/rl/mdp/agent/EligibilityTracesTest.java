@@ -0,0 +1,64 @@
+package pt.mleiria.rl.mdp.agent;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.runner.MainEvaluator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the sparse trace bookkeeping and that the lambda agents learn.
+ */
+public class EligibilityTracesTest {
+
+    @Test
+    public void tracesDecayAndArePrunedBelowThreshold() {
+        final DenseQTable qTable = new DenseQTable(4, 2);
+        final EligibilityTraces traces = new EligibilityTraces(4, 2, 0.1);
+        traces.replace(0, 1);
+        traces.applyAndDecay(qTable, 1.0, 0.5);
+        traces.replace(3, 0);
+        traces.applyAndDecay(qTable, 1.0, 0.5);
+
+        assertEquals(1.5, qTable.get(0, 1), 1e-12);
+        assertEquals(1.0, qTable.get(3, 0), 1e-12);
+        assertEquals(2, traces.size());
+        assertEquals(0.25, traces.get(0, 1), 1e-12);
+
+        // (0, 1) drops to 0.125 and then 0.0625, below the threshold; (3, 0) is the last entry when it goes
+        traces.applyAndDecay(qTable, 0.0, 0.5);
+        traces.applyAndDecay(qTable, 0.0, 0.5);
+        assertEquals(1, traces.size());
+        traces.applyAndDecay(qTable, 0.0, 0.5);
+        traces.applyAndDecay(qTable, 0.0, 0.5);
+        assertEquals(0, traces.size());
+        assertEquals(0.0, traces.get(3, 0));
+
+        // A pruned pair can be activated again
+        traces.replace(3, 0);
+        assertEquals(1, traces.size());
+        traces.clear();
+        assertEquals(0, traces.size());
+        assertEquals(0.0, traces.get(3, 0));
+    }
+
+    @Test
+    public void lambdaAgentsLearnTaxi() {
+        final TaxiEnvironment env = new TaxiEnvironment(RandomUtils.newGenerator(3));
+        final SARSALambdaAgent sarsa = new SARSALambdaAgent(new DenseQTable(env.getNumStates(), env.getNumActions()),
+                0.5, 0.99, 0.1, 0.9, RandomUtils.newGenerator(5));
+        final WatkinsQLambdaAgent watkins = new WatkinsQLambdaAgent(new DenseQTable(env.getNumStates(), env.getNumActions()),
+                0.5, 0.99, 0.1, 0.9, RandomUtils.newGenerator(5));
+
+        for (BaseAgent agent : new BaseAgent[]{sarsa, watkins}) {
+            final var rewards = MainEvaluator.trainAgent(agent, env, 2000, null, RandomUtils.newGenerator(9)).episodeRewards();
+            final double lastAverage = rewards.subList(1900, 2000).stream().mapToDouble(d -> d).average().orElseThrow();
+            assertTrue(lastAverage > 0.0, agent.getName() + " last-100 average " + lastAverage);
+        }
+        assertEquals(0, sarsa.getActiveTraceCount());
+        assertEquals(0, watkins.getActiveTraceCount());
+    }
+}
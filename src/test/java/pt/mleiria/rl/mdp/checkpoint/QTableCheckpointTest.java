@@ -0,0 +1,117 @@
+package pt.mleiria.rl.mdp.checkpoint;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.qtable.MappedQTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.TrainingBudget;
+import pt.mleiria.runner.MainEvaluator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the checkpoint format round trip, its validation, and background snapshots during training.
+ */
+public class QTableCheckpointTest {
+
+    // Removed after each test, together with the temporary siblings that writes go through
+    @TempDir
+    Path dir;
+
+    @Test
+    public void roundTripsValuesAndHeader() throws IOException {
+        final Path path = dir.resolve("qtable.ckpt");
+        final DenseQTable table = new DenseQTable(3, 2);
+        for (int i = 0; i < table.values().length; i++) {
+            table.values()[i] = i * 1.5 - 2;
+        }
+        final CheckpointHeader header = new CheckpointHeader(3, 2, "Q_LEARNING", 0.5, 0.99, 0.05, 1234);
+        QTableCheckpoint.write(path, table, header);
+
+        assertEquals(QTableCheckpoint.HEADER_BYTES + 6 * Double.BYTES, Files.size(path));
+        assertEquals(header, QTableCheckpoint.readHeader(path));
+        final MappedQTable mapped = QTableCheckpoint.map(path);
+        assertArrayEquals(table.toArray(), mapped.toArray());
+        assertEquals(table.argMax(2), mapped.argMax(2));
+        assertArrayEquals(table.values(), QTableCheckpoint.load(path).values());
+
+        // Values are little-endian right after the header
+        final ByteBuffer raw = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(table.get(1, 1), raw.getDouble(QTableCheckpoint.HEADER_BYTES + 3 * Double.BYTES));
+    }
+
+    @Test
+    public void rejectsForeignAndTruncatedFiles() throws IOException {
+        final Path foreign = dir.resolve("foreign.ckpt");
+        Files.write(foreign, new byte[QTableCheckpoint.HEADER_BYTES]);
+        assertThrows(IOException.class, () -> QTableCheckpoint.readHeader(foreign));
+
+        final Path truncated = dir.resolve("truncated.ckpt");
+        QTableCheckpoint.write(truncated, new DenseQTable(4, 4), new CheckpointHeader(4, 4, "SARSA", 0.5, 0.99, 0.1, 0));
+        final byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, java.util.Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> QTableCheckpoint.map(truncated));
+    }
+
+    @Test
+    public void rejectsCorruptDimensionsAndNameLength() throws IOException {
+        final Path path = dir.resolve("corrupt.ckpt");
+        QTableCheckpoint.write(path, new DenseQTable(2, 2), new CheckpointHeader(2, 2, "SARSA", 0.5, 0.99, 0.1, 0));
+        final byte[] valid = Files.readAllBytes(path);
+
+        // -2 x -2 has the same product as 2 x 2, so the file size alone does not catch it
+        final ByteBuffer negative = ByteBuffer.wrap(valid.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        negative.putInt(8, -2).putInt(12, -2);
+        Files.write(path, negative.array());
+        assertThrows(IOException.class, () -> QTableCheckpoint.readHeader(path));
+
+        final ByteBuffer longName = ByteBuffer.wrap(valid.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        longName.putShort(48, (short) QTableCheckpoint.HEADER_BYTES);
+        Files.write(path, longName.array());
+        assertThrows(IOException.class, () -> QTableCheckpoint.readHeader(path));
+
+        final ByteBuffer negativeName = ByteBuffer.wrap(valid.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        negativeName.putShort(48, (short) -1);
+        Files.write(path, negativeName.array());
+        assertThrows(IOException.class, () -> QTableCheckpoint.map(path));
+    }
+
+    @Test
+    public void snapshotsDuringTrainingAndResumes() throws IOException {
+        final Path path = dir.resolve("taxi.ckpt");
+        final TaxiEnvironment env = new TaxiEnvironment(RandomUtils.newGenerator(1));
+        final QLearningAgent agent = new QLearningAgent(new DenseQTable(env.getNumStates(), env.getNumActions()),
+                RandomUtils.newGenerator(2));
+        final AsyncCheckpointer checkpointer = new AsyncCheckpointer(path, 100, 500);
+        try {
+            MainEvaluator.trainAgent(agent, env, TrainingBudget.episodes(1000).withMaxStepsPerEpisode(200),
+                    RandomUtils.newGenerator(3), checkpointer);
+        } finally {
+            checkpointer.close();
+        }
+        assertEquals(10, checkpointer.getWrittenCount() + checkpointer.getSkippedCount());
+        assertTrue(checkpointer.getWrittenCount() > 0);
+
+        final CheckpointHeader header = QTableCheckpoint.readHeader(path);
+        assertEquals("Q_LEARNING", header.agentType());
+        assertTrue(header.episode() > 500 && header.episode() <= 1500 && header.episode() % 100 == 0);
+        final QLearningAgent resumed = new QLearningAgent(QTableCheckpoint.load(path), RandomUtils.newGenerator(4));
+        resumed.setEpsilon(header.epsilon());
+        assertEquals(header.epsilon(), resumed.getEpsilon());
+        if (header.episode() == 1500) {
+            assertArrayEquals(agent.getTable().toArray(), resumed.getTable().toArray());
+        }
+    }
+}
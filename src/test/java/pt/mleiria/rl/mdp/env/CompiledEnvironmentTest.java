@@ -0,0 +1,81 @@
+package pt.mleiria.rl.mdp.env;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that compiled environments behave exactly like their sources.
+ */
+public class CompiledEnvironmentTest {
+
+    private static void assertEquivalent(Function<RandomGenerator, SettableEnvironment> factory) {
+        final SettableEnvironment source = factory.apply(RandomUtils.newGenerator(42));
+        final CompiledEnvironment compiled = new CompiledEnvironment(factory.apply(RandomUtils.newGenerator(42)));
+        final MutableStepResult expected = new MutableStepResult();
+        final MutableStepResult actual = new MutableStepResult();
+
+        // Every transition
+        for (int state = 0; state < source.getNumStates(); state++) {
+            for (int action = 0; action < source.getNumActions(); action++) {
+                source.setState(state);
+                source.step(action, expected);
+                compiled.setState(state);
+                compiled.step(action, actual);
+                assertEquals(expected.toStepResult(), actual.toStepResult(), "state " + state + ", action " + action);
+            }
+        }
+
+        // Random trajectories, including resets, from identically seeded sources
+        final SettableEnvironment reference = factory.apply(RandomUtils.newGenerator(7));
+        final CompiledEnvironment replay = new CompiledEnvironment(factory.apply(RandomUtils.newGenerator(7)));
+        final RandomGenerator random = RandomUtils.newGenerator(99);
+        assertEquals(reference.reset(), replay.reset());
+        for (int step = 0; step < 10_000; step++) {
+            final int action = random.nextInt(reference.getNumActions());
+            reference.step(action, expected);
+            replay.step(action, actual);
+            assertEquals(expected.toStepResult(), actual.toStepResult(), "step " + step);
+            if (expected.done()) {
+                assertEquals(reference.reset(), replay.reset());
+            }
+        }
+        assertSame(reference.getSpecialStates().getClass(), replay.getSpecialStates().getClass());
+        assertEquals(reference.getGridRows(), replay.getGridRows());
+    }
+
+    @Test
+    public void taxiIsEquivalent() {
+        assertEquivalent(TaxiEnvironment::new);
+    }
+
+    @Test
+    public void frozenLakeIsEquivalent() {
+        assertEquivalent(FrozenLakeEnvironment::new);
+    }
+
+    @Test
+    public void cliffWalkingIsEquivalent() {
+        assertEquivalent(random -> new CliffWalkingEnvironment());
+    }
+
+    @Test
+    public void rejectsNonDeterministicEnvironments() {
+        final SettableEnvironment coinFlip = new FrozenLakeEnvironment() {
+            private final RandomGenerator random = RandomUtils.newGenerator(1);
+
+            @Override
+            public void step(int action, MutableStepResult result) {
+                result.set(random.nextInt(getNumStates()), 0.0, false);
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> new CompiledEnvironment(coinFlip));
+    }
+}
@@ -0,0 +1,67 @@
+package pt.mleiria.rl.mdp.env;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the mixed-radix encoding of the fully observable mouse against the partially observable one.
+ */
+public class FullyObservableMouseEnvironmentTest {
+
+    @Test
+    public void stateEncodesLayoutOnTopOfAgentState() {
+        final FullyObservableMouseEnvironment env = new FullyObservableMouseEnvironment(RandomUtils.newGenerator(3));
+        assertEquals(4_000_000, env.getNumStates());
+        final int state = env.reset();
+        assertEquals(0, FullyObservableMouseEnvironment.agentState(state));
+        assertEquals(400 * (env.getFoodState1D() + 100 * env.getWaterState1D()), state);
+    }
+
+    @Test
+    public void setStateInvertsEncoding() {
+        final FullyObservableMouseEnvironment env = new FullyObservableMouseEnvironment(RandomUtils.newGenerator(5));
+        final MutableStepResult result = new MutableStepResult();
+        final RandomGenerator random = RandomUtils.newGenerator(6);
+        for (int i = 0; i < 1000; i++) {
+            final int state = random.nextInt(env.getNumStates());
+            env.setState(state);
+            // A step from the decoded state ends in the same layout
+            env.step(random.nextInt(env.getNumActions()), result);
+            assertEquals(state / 400, result.nextState() / 400);
+            env.setState(state);
+            assertEquals(state % 400 % 100, env.getAgentRow() * 10 + env.getAgentCol());
+            assertEquals(state / 400 % 100, env.getFoodState1D());
+            assertEquals(state / 40_000, env.getWaterState1D());
+        }
+    }
+
+    @Test
+    public void dynamicsMatchThePartiallyObservableMouse() {
+        final MouseEnvironment partial = new MouseEnvironment(RandomUtils.newGenerator(11));
+        final FullyObservableMouseEnvironment full = new FullyObservableMouseEnvironment(RandomUtils.newGenerator(11));
+        final RandomGenerator random = RandomUtils.newGenerator(12);
+        final MutableStepResult expected = new MutableStepResult();
+        final MutableStepResult actual = new MutableStepResult();
+        assertEquals(partial.reset(), FullyObservableMouseEnvironment.agentState(full.reset()));
+        for (int i = 0; i < 10_000; i++) {
+            final int action = random.nextInt(4);
+            partial.step(action, expected);
+            full.step(action, actual);
+            assertEquals(expected.nextState(), FullyObservableMouseEnvironment.agentState(actual.nextState()));
+            assertEquals(expected.reward(), actual.reward());
+            assertEquals(expected.done(), actual.done());
+            assertTrue(actual.nextState() < full.getNumStates());
+            if (expected.done()) {
+                assertEquals(partial.reset(), FullyObservableMouseEnvironment.agentState(full.reset()));
+                assertEquals(partial.getFoodState1D(), full.getFoodState1D());
+                assertEquals(partial.getWaterState1D(), full.getWaterState1D());
+            }
+        }
+    }
+}
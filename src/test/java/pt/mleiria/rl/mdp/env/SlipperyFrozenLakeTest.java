@@ -0,0 +1,139 @@
+package pt.mleiria.rl.mdp.env;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.env.grid.GeneratedFrozenLakeEnvironment;
+import pt.mleiria.rl.mdp.solver.ModelExtractor;
+import pt.mleiria.rl.mdp.solver.TransitionModel;
+import pt.mleiria.rl.mdp.solver.ValueIteration;
+import pt.mleiria.rl.mdp.utils.AliasTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+import pt.mleiria.rl.mdp.vo.SolverResult;
+
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks alias sampling and the slippery Frozen Lake dynamics built on it.
+ */
+public class SlipperyFrozenLakeTest {
+
+    private static final int SAMPLES = 300_000;
+
+    @Test
+    public void aliasTableMatchesItsDistribution() {
+        final double[] probabilities = {0.5, 0.0, 0.2, 0.25, 0.05};
+        final AliasTable table = new AliasTable(probabilities);
+        final RandomGenerator random = RandomUtils.newGenerator(42);
+        final int[] counts = new int[probabilities.length];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[table.sample(random)]++;
+        }
+        for (int i = 0; i < probabilities.length; i++) {
+            assertEquals(probabilities[i], counts[i] / (double) SAMPLES, 0.005, "outcome " + i);
+        }
+        assertEquals(0, counts[1]);
+    }
+
+    @Test
+    public void invalidDistributionsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{0.5, 0.6}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{1.5, -0.5}));
+        assertThrows(IllegalArgumentException.class, () -> SlipKernel.of(new double[][]{{1, 0, 0, 0}}));
+        assertThrows(IllegalArgumentException.class, () -> SlipKernel.perpendicular(1.2));
+    }
+
+    @Test
+    public void classicKernelSlipsToEitherSide() {
+        final FrozenLakeEnvironment env = new FrozenLakeEnvironment(SlipKernel.classic(), RandomUtils.newGenerator(42));
+        assertTrue(env.isSlippery());
+        final MutableStepResult result = new MutableStepResult();
+        final int[] counts = new int[env.getNumStates()];
+        // From state 9 (row 2, col 1), Down leads to 13, Left to 8 and Right to 10; never Up to 5
+        for (int i = 0; i < SAMPLES; i++) {
+            env.setState(9);
+            env.step(2, result);
+            counts[result.nextState()]++;
+        }
+        assertEquals(1.0 / 3, counts[13] / (double) SAMPLES, 0.005);
+        assertEquals(1.0 / 3, counts[8] / (double) SAMPLES, 0.005);
+        assertEquals(1.0 / 3, counts[10] / (double) SAMPLES, 0.005);
+        assertEquals(0, counts[5]);
+    }
+
+    @Test
+    public void deterministicKernelMatchesTheDeterministicLake() {
+        final FrozenLakeEnvironment plain = new FrozenLakeEnvironment();
+        final FrozenLakeEnvironment kernel = new FrozenLakeEnvironment(SlipKernel.deterministic(), RandomUtils.newGenerator(1));
+        assertFalse(plain.isSlippery());
+        final MutableStepResult expected = new MutableStepResult();
+        final MutableStepResult actual = new MutableStepResult();
+        for (int state = 0; state < plain.getNumStates(); state++) {
+            for (int action = 0; action < plain.getNumActions(); action++) {
+                plain.setState(state);
+                plain.step(action, expected);
+                kernel.setState(state);
+                kernel.step(action, actual);
+                assertEquals(expected.toStepResult(), actual.toStepResult());
+            }
+        }
+    }
+
+    @Test
+    public void slipperyLakeCannotBeCompiled() {
+        assertThrows(IllegalStateException.class,
+                () -> new CompiledEnvironment(new FrozenLakeEnvironment(SlipKernel.classic(), RandomUtils.newGenerator(42))));
+    }
+
+    @Test
+    public void slipperyModelLowersTheOptimalValue() {
+        final TransitionModel exact = ModelExtractor.extract(new FrozenLakeEnvironment());
+        final TransitionModel slippery = ModelExtractor.extract(new CompiledEnvironment(new FrozenLakeEnvironment()),
+                SlipKernel.classic());
+        final SolverResult deterministic = ValueIteration.solve(exact, 0.99, 1e-10, 10_000);
+        final SolverResult stochastic = ValueIteration.solve(slippery, 0.99, 1e-10, 10_000);
+        assertTrue(stochastic.values()[0] > 0.0);
+        assertTrue(stochastic.values()[0] < deterministic.values()[0]);
+    }
+
+    @Test
+    public void largeSlipperyLakeKeepsTheLayoutOfItsSeed() {
+        final GeneratedFrozenLakeEnvironment plain = new GeneratedFrozenLakeEnvironment(1024, 1024, 0.2, 7L);
+        final GeneratedFrozenLakeEnvironment slippery =
+                new GeneratedFrozenLakeEnvironment(1024, 1024, 0.2, SlipKernel.classic(), 7L);
+        assertTrue(slippery.isSlippery());
+        assertEquals(plain.getHoleCount(), slippery.getHoleCount());
+
+        // From a cell whose neighbours are all ice, the three possible outcomes are equally likely
+        final int cols = slippery.getGridCols();
+        int cell = cols + 1;
+        while (slippery.isHole(cell) || slippery.isHole(cell - cols) || slippery.isHole(cell + cols)
+                || slippery.isHole(cell - 1) || slippery.isHole(cell + 1)) {
+            cell++;
+        }
+        final MutableStepResult result = new MutableStepResult();
+        int right = 0;
+        int up = 0;
+        int down = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            slippery.setState(cell);
+            slippery.step(1, result);
+            final int next = result.nextState();
+            if (next == cell + 1) {
+                right++;
+            } else if (next == cell - cols) {
+                up++;
+            } else if (next == cell + cols) {
+                down++;
+            }
+        }
+        assertEquals(SAMPLES, right + up + down);
+        assertEquals(1.0 / 3, right / (double) SAMPLES, 0.005);
+        assertEquals(1.0 / 3, up / (double) SAMPLES, 0.005);
+    }
+}
@@ -0,0 +1,148 @@
+package pt.mleiria.rl.mdp.env;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.env.grid.GeneratedCliffWalkingEnvironment;
+import pt.mleiria.rl.mdp.env.grid.GeneratedFrozenLakeEnvironment;
+import pt.mleiria.rl.mdp.env.marl.MultiMouseEnvironment;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableMultiAgentStepResult;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+import pt.mleiria.rl.mdp.vo.StepResult;
+
+import java.lang.management.ManagementFactory;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that restoring a snapshot replays the same trajectory, and that snapshots do not allocate.
+ */
+public class SnapshotTest {
+
+    private static final int PREFIX = 37;
+    private static final int REPLAY = 200;
+
+    private static <E extends Environment & Snapshottable> void assertReplays(E env) {
+        final RandomGenerator random = RandomUtils.newGenerator(42);
+        final MutableStepResult result = new MutableStepResult();
+        env.reset();
+        for (int i = 0; i < PREFIX; i++) {
+            env.step(random.nextInt(env.getNumActions()), result);
+            if (result.done()) {
+                env.reset();
+            }
+        }
+        final long snapshot = env.snapshot();
+        final int[] actions = random.ints(REPLAY, 0, env.getNumActions()).toArray();
+        final StepResult[] expected = rollout(env, actions, result);
+
+        // Wander somewhere else, including through a reset, before coming back
+        env.reset();
+        env.step(0, result);
+        env.restore(snapshot);
+        assertEquals(snapshot, env.snapshot());
+        assertArrayEquals(expected, rollout(env, actions, result), env.getClass().getSimpleName());
+    }
+
+    // Stops at the first terminal step, since what follows a reset is not part of the snapshot
+    private static StepResult[] rollout(Environment env, int[] actions, MutableStepResult result) {
+        final StepResult[] steps = new StepResult[actions.length];
+        for (int i = 0; i < actions.length; i++) {
+            env.step(actions[i], result);
+            steps[i] = result.toStepResult();
+            if (result.done()) {
+                break;
+            }
+        }
+        return steps;
+    }
+
+    @Test
+    public void singleAgentEnvironmentsReplayFromSnapshots() {
+        assertReplays(new TaxiEnvironment(RandomUtils.newGenerator(1)));
+        assertReplays(new MouseEnvironment(RandomUtils.newGenerator(2)));
+        assertReplays(new FrozenLakeEnvironment());
+        assertReplays(new CliffWalkingEnvironment());
+        assertReplays(new CompiledEnvironment(new TaxiEnvironment(RandomUtils.newGenerator(3))));
+        assertReplays(new GeneratedFrozenLakeEnvironment(64, 64, 0.1, 4L));
+        assertReplays(new GeneratedCliffWalkingEnvironment(64, 64, 0.1, 5L));
+    }
+
+    @Test
+    public void mouseSnapshotKeepsFoodAndWater() {
+        final MouseEnvironment mouse = new MouseEnvironment(RandomUtils.newGenerator(6));
+        final int food = mouse.getFoodState1D();
+        final int water = mouse.getWaterState1D();
+        final long snapshot = mouse.snapshot();
+        mouse.reset();
+        mouse.restore(snapshot);
+        assertEquals(food, mouse.getFoodState1D());
+        assertEquals(water, mouse.getWaterState1D());
+        assertEquals("F", mouse.getSpecialStates().get(food));
+    }
+
+    @Test
+    public void multiAgentEnvironmentsReplayFromSnapshots() {
+        final int[] actions = new int[2];
+        final MutableMultiAgentStepResult result = new MutableMultiAgentStepResult(2);
+
+        final MultiMouseEnvironment mice = new MultiMouseEnvironment();
+        actions[0] = 1;
+        actions[1] = 2;
+        for (int i = 0; i < 5; i++) {
+            mice.step(actions, result);
+        }
+        final long miceSnapshot = mice.snapshot();
+        actions[0] = 2;
+        actions[1] = 1;
+        mice.step(actions, result);
+        final int expectedState = result.nextState1();
+        mice.reset();
+        mice.restore(miceSnapshot);
+        mice.step(actions, result);
+        assertEquals(expectedState, result.nextState1());
+        final MultiMouseEnvironment copy = new MultiMouseEnvironment();
+        copy.restore(miceSnapshot);
+        assertEquals(miceSnapshot, copy.snapshot());
+
+        final PrisionersDilemmaEnvironment dilemma = new PrisionersDilemmaEnvironment(3);
+        actions[0] = PrisionersDilemmaEnvironment.COOPERATE;
+        actions[1] = PrisionersDilemmaEnvironment.DEFECT;
+        dilemma.step(actions, result);
+        dilemma.step(actions, result);
+        final long dilemmaSnapshot = dilemma.snapshot();
+        dilemma.step(actions, result);
+        assertTrue(result.done());
+        dilemma.restore(dilemmaSnapshot);
+        dilemma.step(actions, result);
+        assertTrue(result.done());
+    }
+
+    @Test
+    public void snapshotsDoNotAllocate() {
+        final ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        final long threadId = Thread.currentThread().threadId();
+        final Snapshottable[] envs = {new TaxiEnvironment(), new MouseEnvironment(), new FrozenLakeEnvironment(),
+                new CliffWalkingEnvironment(), new MultiMouseEnvironment(), new PrisionersDilemmaEnvironment(10)};
+        long checksum = 0;
+        for (int round = 0; round < 2; round++) {
+            final long before = threadMXBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < 200_000; i++) {
+                final Snapshottable env = envs[i % envs.length];
+                final long snapshot = env.snapshot();
+                env.restore(snapshot);
+                checksum += snapshot;
+            }
+            final long bytes = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+            // The first round warms up class loading and JIT compilation
+            if (round == 1) {
+                assertEquals(0, bytes / 200_000, "snapshots allocated " + bytes + " bytes");
+            }
+        }
+        assertTrue(checksum != 0);
+    }
+}
@@ -0,0 +1,119 @@
+package pt.mleiria.rl.mdp.env;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.env.marl.MultiMouseEnvironment;
+import pt.mleiria.rl.mdp.vo.MutableMultiAgentStepResult;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+import pt.mleiria.rl.mdp.vo.StepResult;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks that stepping through the reusable result holders does not allocate.
+ */
+public class StepAllocationTest {
+
+    private static final int STEPS = 200_000;
+
+    private static final ThreadMXBean THREAD_MX_BEAN = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long allocatedBytes(Runnable steps) {
+        THREAD_MX_BEAN.setThreadAllocatedMemoryEnabled(true);
+        final long threadId = Thread.currentThread().threadId();
+        // Warm up so that class loading and JIT compilation do not count towards the measurement
+        steps.run();
+        final long before = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+        steps.run();
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static void assertNoAllocationPerStep(Environment env) {
+        final MutableStepResult result = new MutableStepResult();
+        final long bytes = allocatedBytes(() -> {
+            env.reset();
+            for (int i = 0; i < STEPS; i++) {
+                env.step(i % env.getNumActions(), result);
+                if (result.done()) {
+                    env.reset();
+                }
+            }
+        });
+        assertEquals(0, bytes / STEPS, env.getClass().getSimpleName() + " allocated " + bytes + " bytes in " + STEPS + " steps");
+    }
+
+    @Test
+    public void singleAgentEnvironmentsDoNotAllocate() {
+        assertNoAllocationPerStep(new CliffWalkingEnvironment());
+        assertNoAllocationPerStep(new FrozenLakeEnvironment());
+        assertNoAllocationPerStep(new MouseEnvironment());
+        assertNoAllocationPerStep(new TaxiEnvironment());
+    }
+
+    @Test
+    public void multiAgentEnvironmentsDoNotAllocate() {
+        final int[] actions = new int[2];
+        final MutableMultiAgentStepResult result = new MutableMultiAgentStepResult(2);
+
+        final PrisionersDilemmaEnvironment dilemma = new PrisionersDilemmaEnvironment(10);
+        final long dilemmaBytes = allocatedBytes(() -> {
+            for (int i = 0; i < STEPS; i++) {
+                actions[0] = i & 1;
+                actions[1] = (i >> 1) & 1;
+                dilemma.step(actions, result);
+                if (result.done()) {
+                    dilemma.reset();
+                }
+            }
+        });
+        assertEquals(0, dilemmaBytes / STEPS, "PrisionersDilemmaEnvironment allocated " + dilemmaBytes + " bytes");
+
+        final MultiMouseEnvironment mice = new MultiMouseEnvironment();
+        final long miceBytes = allocatedBytes(() -> {
+            for (int i = 0; i < STEPS; i++) {
+                actions[0] = i % 4;
+                actions[1] = (i / 4) % 4;
+                mice.step(actions, result);
+                if (result.done()) {
+                    mice.reset();
+                }
+            }
+        });
+        assertEquals(0, miceBytes / STEPS, "MultiMouseEnvironment allocated " + miceBytes + " bytes");
+
+        final int[] crowdActions = new int[256];
+        final MutableMultiAgentStepResult crowdResult = new MutableMultiAgentStepResult(crowdActions.length);
+        final MultiMouseEnvironment crowd = new MultiMouseEnvironment(crowdActions.length);
+        final long crowdBytes = allocatedBytes(() -> {
+            for (int i = 0; i < STEPS / 100; i++) {
+                for (int m = 0; m < crowdActions.length; m++) {
+                    crowdActions[m] = (i + m) % 4;
+                }
+                crowd.step(crowdActions, crowdResult);
+                if (crowdResult.done()) {
+                    crowd.reset();
+                }
+            }
+        });
+        assertEquals(0, crowdBytes / (STEPS / 100), "256 mice allocated " + crowdBytes + " bytes");
+    }
+
+    @Test
+    public void legacyStepMatchesReusableStep() {
+        final TaxiEnvironment legacy = new TaxiEnvironment();
+        final TaxiEnvironment reusable = new TaxiEnvironment();
+        final MutableStepResult result = new MutableStepResult();
+        for (int i = 0; i < 1000; i++) {
+            final int action = (i * 7) % 6;
+            legacy.setState(reusable.getTaxiRow(), reusable.getTaxiCol(),
+                    reusable.getPassengerLocationIdx(), reusable.getDestinationIdx());
+            final StepResult expected = legacy.step(action);
+            reusable.step(action, result);
+            assertEquals(expected, result.toStepResult());
+        }
+        assertSame(reusable.getSpecialStates(), reusable.getSpecialStates());
+    }
+}
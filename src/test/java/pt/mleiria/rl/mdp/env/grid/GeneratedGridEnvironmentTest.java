@@ -0,0 +1,109 @@
+package pt.mleiria.rl.mdp.env.grid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the bitset, the generators' reachability guarantee and the lazy special-state maps.
+ */
+public class GeneratedGridEnvironmentTest {
+
+    /**
+     * Breadth-first search from {@code start} over cells that are not blocked.
+     */
+    private static boolean reachable(GridEnvironment env, int start, int goal, IntPredicate blocked) {
+        final boolean[] seen = new boolean[env.getNumStates()];
+        final int[] queue = new int[env.getNumStates()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        seen[start] = true;
+        while (head < tail) {
+            final int cell = queue[head++];
+            if (cell == goal) {
+                return true;
+            }
+            for (int direction = 0; direction < 4; direction++) {
+                final int next = env.move(cell, direction);
+                if (!seen[next] && !blocked.test(next)) {
+                    seen[next] = true;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void bitSetFindsBitsAcrossWords() {
+        final CellBitSet bits = new CellBitSet(200);
+        bits.set(3);
+        bits.set(64);
+        bits.set(199);
+        assertEquals(3, bits.cardinality());
+        assertEquals(3, bits.nextSetBit(0));
+        assertEquals(64, bits.nextSetBit(4));
+        assertEquals(199, bits.nextSetBit(65));
+        assertEquals(-1, bits.nextSetBit(200));
+        bits.clear(64);
+        assertFalse(bits.get(64));
+        assertEquals(199, bits.nextSetBit(4));
+    }
+
+    @Test
+    public void goalIsReachableEvenOnDenseMaps() {
+        for (long seed = 0; seed < 20; seed++) {
+            final GeneratedFrozenLakeEnvironment lake = new GeneratedFrozenLakeEnvironment(40, 60, 0.7, seed);
+            assertTrue(reachable(lake, 0, lake.getGoalState(), lake::isHole), "lake seed " + seed);
+
+            final GeneratedCliffWalkingEnvironment cliff = new GeneratedCliffWalkingEnvironment(30, 50, 0.7, seed);
+            assertTrue(reachable(cliff, cliff.getStartState(), cliff.getGoalState(), cliff::isCliff), "cliff seed " + seed);
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSameLayout() {
+        final GeneratedFrozenLakeEnvironment a = new GeneratedFrozenLakeEnvironment(64, 64, 0.3, 5);
+        final GeneratedFrozenLakeEnvironment b = new GeneratedFrozenLakeEnvironment(64, 64, 0.3, 5);
+        for (int cell = 0; cell < a.getNumStates(); cell++) {
+            assertEquals(a.isHole(cell), b.isHole(cell));
+        }
+    }
+
+    @Test
+    public void specialStatesViewMatchesMaterializedMap() {
+        final GeneratedFrozenLakeEnvironment lake = new GeneratedFrozenLakeEnvironment(13, 17, 0.25, 3);
+        final Map<Integer, String> expected = new HashMap<>();
+        expected.put(0, "S");
+        expected.put(lake.getGoalState(), "G");
+        for (int cell = 0; cell < lake.getNumStates(); cell++) {
+            if (lake.isHole(cell)) {
+                expected.put(cell, "H");
+            }
+        }
+        final Map<Integer, String> view = lake.getSpecialStates();
+        assertEquals(expected, view);
+        assertEquals(expected.size(), view.size());
+        assertEquals(lake.getHoleCount() + 2, view.size());
+        assertNull(view.get(-1));
+        assertNull(view.get("0"));
+    }
+
+    @Test
+    public void largestGridUsesTwoMebibytesForItsMap() {
+        final GeneratedCliffWalkingEnvironment cliff = new GeneratedCliffWalkingEnvironment(
+                GridEnvironment.MAX_SIDE, GridEnvironment.MAX_SIDE, 0.1, 1);
+        assertEquals(2L * 1024 * 1024, cliff.mapSizeInBytes());
+        assertEquals("S", cliff.getSpecialStates().get(cliff.getStartState()));
+        assertEquals("C", cliff.getSpecialStates().get(cliff.getStartState() + 1));
+        assertEquals(cliff.getStartState(), (int) cliff.getSpecialStates().keySet().iterator().next());
+    }
+}
@@ -0,0 +1,110 @@
+package pt.mleiria.rl.mdp.env.marl;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.vo.MutableMultiAgentStepResult;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the N-mouse rules, in particular that resource conflicts are detected within a step and only then.
+ */
+public class MultiMouseEnvironmentTest {
+
+    // Food is at cell 27 (row 2, col 7); actions are 0:N, 1:S, 2:E, 3:W
+    private static final int FOOD = 27;
+
+    private static MultiMouseEnvironment withMiceAt(int... positions) {
+        final MultiMouseEnvironment env = new MultiMouseEnvironment(positions.length);
+        final int[] buffer = new int[env.getSnapshotLength()];
+        env.snapshot(buffer);
+        for (int i = 0; i < positions.length; i++) {
+            buffer[i + 1] = positions[i];
+        }
+        env.restore(buffer);
+        return env;
+    }
+
+    @Test
+    public void onlyMiceMeetingOnAResourceDie() {
+        final MultiMouseEnvironment env = withMiceAt(FOOD - 1, FOOD - 10, 50);
+        final MutableMultiAgentStepResult result = new MutableMultiAgentStepResult(3);
+        env.step(new int[]{2, 1, 0}, result);
+        assertTrue(result.done());
+        assertArrayEquals(new double[]{-101.0, -101.0, -1.0}, result.rewards(), 0.0);
+        // Nobody moves in the step that ends the episode
+        assertEquals(FOOD - 1, result.nextState(0));
+        assertEquals(50, result.nextState(2));
+    }
+
+    @Test
+    public void miceReachingAResourceInDifferentStepsDoNotConflict() {
+        final MultiMouseEnvironment env = withMiceAt(FOOD - 1, FOOD - 20);
+        final MutableMultiAgentStepResult result = new MutableMultiAgentStepResult(2);
+        env.step(new int[]{2, 1}, result);
+        assertFalse(result.done());
+        assertEquals(19.0, result.rewards()[0], 0.0);
+        assertEquals(FOOD + 100, result.nextState(0));
+
+        // The first mouse moves away as the second arrives; last step's stamp must not count
+        env.step(new int[]{1, 1}, result);
+        assertFalse(result.done());
+        assertEquals(19.0, result.rewards()[1], 0.0);
+        assertEquals(FOOD + 100, result.nextState(1));
+    }
+
+    @Test
+    public void manyMiceStepAndExit() {
+        final int numAgents = 300;
+        final MultiMouseEnvironment env = new MultiMouseEnvironment(numAgents);
+        final MutableMultiAgentStepResult result = new MutableMultiAgentStepResult(numAgents);
+        final int[] actions = new int[numAgents];
+        // Everybody walks east along the top row and then south down the last column, never touching food or water
+        for (int step = 0; step < 18; step++) {
+            Arrays.fill(actions, step < 9 ? 2 : 1);
+            env.step(actions, result);
+            assertEquals(step == 17, result.done(), "step " + step);
+        }
+        for (int i = 0; i < numAgents; i++) {
+            assertEquals(99, result.nextState(i));
+            assertEquals(-51.0, result.rewards()[i], 0.0);
+        }
+    }
+
+    @Test
+    public void allocatingStepOnlyServesTwoMice() {
+        final MultiMouseEnvironment env = new MultiMouseEnvironment(3);
+        // The record has room for two next states, so a third mouse's observation must not be dropped silently
+        assertThrows(IllegalStateException.class, () -> env.step(new int[]{1, 1, 1}));
+        final MutableMultiAgentStepResult result = new MutableMultiAgentStepResult(3);
+        assertEquals(3, result.nextStates().length);
+        assertEquals(3, result.rewards().length);
+
+        final MultiMouseEnvironment pair = new MultiMouseEnvironment(2);
+        assertEquals(2, pair.step(new int[]{1, 1}).rewards().length);
+    }
+
+    @Test
+    public void buffersSnapshotAnyNumberOfMice() {
+        final MultiMouseEnvironment env = withMiceAt(new int[200]);
+        final MutableMultiAgentStepResult result = new MutableMultiAgentStepResult(200);
+        final int[] actions = new int[200];
+        for (int i = 0; i < 200; i++) {
+            actions[i] = i % 2 == 0 ? 1 : 2;
+        }
+        env.step(actions, result);
+        final int[] buffer = new int[env.getSnapshotLength()];
+        env.snapshot(buffer);
+        env.reset();
+        env.restore(buffer);
+        assertEquals(10, env.getObservation(0));
+        assertEquals(1, env.getObservation(1));
+        assertThrows(IllegalStateException.class, env::snapshot);
+        assertThrows(IllegalStateException.class, env::getJointState);
+    }
+}
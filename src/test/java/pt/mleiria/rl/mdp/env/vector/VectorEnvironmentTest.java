@@ -0,0 +1,100 @@
+package pt.mleiria.rl.mdp.env.vector;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.env.CliffWalkingEnvironment;
+import pt.mleiria.rl.mdp.env.Environment;
+import pt.mleiria.rl.mdp.env.FrozenLakeEnvironment;
+import pt.mleiria.rl.mdp.env.MouseEnvironment;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that each vector environment slot follows the dynamics of the scalar environment.
+ */
+public class VectorEnvironmentTest {
+
+    private static final int NUM_ENVS = 16;
+    private static final int STEPS = 5_000;
+
+    /**
+     * Steps the vector environment and one scalar environment per slot with the same random actions.
+     * Scalar environments are re-synchronized with their slot whenever the slot resets.
+     */
+    private static void assertMatchesScalar(VectorEnvironment vector, Environment[] scalars) {
+        final Random random = new Random(42);
+        final int[] states = new int[NUM_ENVS];
+        final int[] actions = new int[NUM_ENVS];
+        final int[] nextStates = new int[NUM_ENVS];
+        final double[] rewards = new double[NUM_ENVS];
+        final boolean[] dones = new boolean[NUM_ENVS];
+        final MutableStepResult expected = new MutableStepResult();
+
+        vector.reset(states);
+        for (int i = 0; i < NUM_ENVS; i++) {
+            syncAfterReset(scalars[i], states[i]);
+        }
+        for (int step = 0; step < STEPS; step++) {
+            for (int i = 0; i < NUM_ENVS; i++) {
+                actions[i] = random.nextInt(vector.getNumActions());
+            }
+            vector.step(actions, nextStates, rewards, dones);
+            for (int i = 0; i < NUM_ENVS; i++) {
+                scalars[i].step(actions[i], expected);
+                assertEquals(expected.nextState(), nextStates[i], "next state, slot " + i + ", step " + step);
+                assertEquals(expected.reward(), rewards[i], "reward, slot " + i + ", step " + step);
+                assertEquals(expected.done(), dones[i], "done, slot " + i + ", step " + step);
+                if (dones[i]) {
+                    syncAfterReset(scalars[i], vector.state(i));
+                }
+            }
+        }
+    }
+
+    private static void syncAfterReset(Environment scalar, int state) {
+        // Taxi resets are random, so copy the slot's start state into the scalar environment
+        if (scalar instanceof TaxiEnvironment taxi) {
+            taxi.setState(state / 100, (state / 20) % 5, (state / 4) % 5, state % 4);
+        } else {
+            assertEquals(scalar.reset(), state);
+        }
+    }
+
+    private static Environment[] scalars(Supplier<Environment> factory) {
+        final Environment[] envs = new Environment[NUM_ENVS];
+        for (int i = 0; i < NUM_ENVS; i++) {
+            envs[i] = factory.get();
+        }
+        return envs;
+    }
+
+    @Test
+    public void frozenLakeMatchesScalarEnvironment() {
+        assertMatchesScalar(new FrozenLakeVectorEnvironment(NUM_ENVS), scalars(FrozenLakeEnvironment::new));
+    }
+
+    @Test
+    public void cliffWalkingMatchesScalarEnvironment() {
+        assertMatchesScalar(new CliffWalkingVectorEnvironment(NUM_ENVS), scalars(CliffWalkingEnvironment::new));
+    }
+
+    @Test
+    public void taxiMatchesScalarEnvironment() {
+        assertMatchesScalar(new TaxiVectorEnvironment(NUM_ENVS), scalars(TaxiEnvironment::new));
+    }
+
+    @Test
+    public void mouseMatchesScalarEnvironment() {
+        // The vector resets its slots in slot order from one stream, and so does this loop, so scalar copies
+        // sharing an identically seeded stream draw the same food and water cells as their slots
+        final RandomGenerator scalarRandom = RandomUtils.newGenerator(7);
+        assertMatchesScalar(new MouseVectorEnvironment(NUM_ENVS, RandomUtils.newGenerator(7)),
+                scalars(() -> new MouseEnvironment(scalarRandom)));
+    }
+}
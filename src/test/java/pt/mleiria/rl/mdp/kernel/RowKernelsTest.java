@@ -0,0 +1,57 @@
+package pt.mleiria.rl.mdp.kernel;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the SIMD kernels against the scalar ones over run lengths around and across the vector width.
+ */
+public class RowKernelsTest {
+
+    private final RowKernels scalar = new ScalarRowKernels();
+    private final RowKernels vector = new VectorRowKernels();
+
+    @Test
+    public void maxAndArgMaxMatchScalar() {
+        final RandomGenerator random = RandomUtils.newGenerator(42);
+        final double[] a = new double[80];
+        for (int trial = 0; trial < 2000; trial++) {
+            // Few distinct values, so the maximum is often tied
+            for (int i = 0; i < a.length; i++) {
+                a[i] = random.nextInt(7) - 3;
+            }
+            final int from = random.nextInt(10);
+            final int length = 1 + random.nextInt(a.length - from);
+            assertEquals(scalar.max(a, from, length), vector.max(a, from, length), 0.0);
+            assertEquals(scalar.argMax(a, from, length), vector.argMax(a, from, length));
+        }
+    }
+
+    @Test
+    public void expShiftedMatchesScalarWithinRounding() {
+        final RandomGenerator random = RandomUtils.newGenerator(7);
+        final double[] a = random.doubles(70, -20, 20).toArray();
+        final double[] expected = new double[70];
+        final double[] actual = new double[70];
+        for (int length = 1; length <= 64; length++) {
+            final double max = scalar.max(a, 3, length);
+            final double expectedSum = scalar.expShifted(a, 3, length, max, 0.5, expected);
+            final double actualSum = vector.expShifted(a, 3, length, max, 0.5, actual);
+            assertEquals(expectedSum, actualSum, 1e-12 * expectedSum);
+            for (int i = 0; i < length; i++) {
+                assertEquals(expected[i], actual[i], 1e-14 + 1e-14 * expected[i]);
+            }
+        }
+    }
+
+    @Test
+    public void selectionHonoursTheAvailableModule() {
+        final String name = RowKernels.get().name();
+        assertTrue(name.equals("scalar") || name.startsWith("vector"), name);
+    }
+}
@@ -0,0 +1,95 @@
+package pt.mleiria.rl.mdp.planner;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.env.FrozenLakeEnvironment;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.vo.MctsConfig;
+import pt.mleiria.rl.mdp.vo.MutableStepResult;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the planner finds short paths, in every parallel layout, and stays within its budgets.
+ */
+public class MctsPlannerTest {
+
+    private static int stepsToGoal(MctsConfig config) {
+        final FrozenLakeEnvironment env = new FrozenLakeEnvironment();
+        final MutableStepResult result = new MutableStepResult();
+        try (MctsPlanner<FrozenLakeEnvironment> planner =
+                     new MctsPlanner<>(env, FrozenLakeEnvironment::new, config, 42)) {
+            int state = env.reset();
+            for (int step = 1; step <= 20; step++) {
+                env.step(planner.chooseAction(state), result);
+                state = result.nextState();
+                if (result.done()) {
+                    return result.reward() > 0 ? step : -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void findsTheShortestPathAcrossFrozenLake() {
+        final MctsConfig config = MctsConfig.simulations(5000).withHorizon(20).withGamma(0.8);
+        // A single thread with a seeded stream is deterministic
+        assertEquals(6, stepsToGoal(config));
+    }
+
+    @Test
+    public void reachesTheGoalInEveryParallelLayout() {
+        final MctsConfig config = MctsConfig.simulations(5000).withHorizon(20).withGamma(0.8);
+        // Thread timing shapes the trees, so a run may take one detour; it must still reach the goal
+        assertReachesGoal(stepsToGoal(config.withParallelism(2, 1)));
+        assertReachesGoal(stepsToGoal(config.withParallelism(1, 2)));
+        assertReachesGoal(stepsToGoal(config.withParallelism(2, 2)));
+    }
+
+    private static void assertReachesGoal(int steps) {
+        assertTrue(steps >= 6 && steps <= 7, "reached the goal in " + steps + " steps");
+    }
+
+    @Test
+    public void avoidsIllegalPickupsInTaxi() {
+        final TaxiEnvironment env = new TaxiEnvironment();
+        final MctsConfig config = MctsConfig.simulations(500).withHorizon(20);
+        try (MctsPlanner<TaxiEnvironment> planner = new MctsPlanner<>(env, TaxiEnvironment::new, config, 7)) {
+            // Taxi at (2, 2), passenger waiting at Yellow: pickup and dropoff here cost -10
+            final int state = env.setState(2, 2, 2, 1);
+            final int action = planner.chooseAction(state);
+            assertTrue(action < 4, "chose action " + action);
+            assertEquals(500, planner.getLastSimulations());
+        }
+    }
+
+    @Test
+    public void respectsSmallPoolsAndTimeBudgets() {
+        final FrozenLakeEnvironment env = new FrozenLakeEnvironment();
+        final MctsConfig tiny = MctsConfig.simulations(1000).withNodeCapacity(9);
+        try (MctsPlanner<FrozenLakeEnvironment> planner = new MctsPlanner<>(env, FrozenLakeEnvironment::new, tiny, 1)) {
+            final int action = planner.chooseAction(env.reset());
+            assertTrue(action >= 0 && action < env.getNumActions());
+            assertTrue(planner.getLastTreeSize() <= 9);
+        }
+
+        final MctsConfig timed = MctsConfig.simulations(Integer.MAX_VALUE).withMaxDuration(Duration.ofMillis(20));
+        try (MctsPlanner<FrozenLakeEnvironment> planner = new MctsPlanner<>(env, FrozenLakeEnvironment::new, timed, 1)) {
+            final long start = System.nanoTime();
+            planner.chooseAction(env.reset());
+            assertTrue(System.nanoTime() - start < 1_000_000_000L);
+            assertTrue(planner.getLastSimulations() > 0);
+        }
+    }
+
+    @Test
+    public void rejectsInvalidConfigs() {
+        assertThrows(IllegalArgumentException.class, () -> MctsConfig.simulations(0));
+        assertThrows(IllegalArgumentException.class, () -> MctsConfig.simulations(10).withParallelism(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> MctsConfig.simulations(10).withGamma(1.5));
+    }
+}
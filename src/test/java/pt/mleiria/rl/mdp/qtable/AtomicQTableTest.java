@@ -0,0 +1,75 @@
+package pt.mleiria.rl.mdp.qtable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the shared Q-table under concurrent updates of the same few cells.
+ */
+public class AtomicQTableTest {
+
+    private static final int THREADS = 8;
+    private static final int ADDS_PER_THREAD = 100_000;
+    private static final int CELLS = 3;
+
+    /**
+     * Has every thread add 1 to the cells in turn, all starting together.
+     */
+    private static AtomicQTable hammer(AtomicQTable.Mode mode) throws Exception {
+        final AtomicQTable table = new AtomicQTable(2, CELLS, mode);
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                        table.add(1, i % CELLS, 1.0);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return table;
+    }
+
+    @Test
+    public void casModeLosesNoUpdates() throws Exception {
+        final AtomicQTable table = hammer(AtomicQTable.Mode.CAS);
+        double total = 0;
+        for (int action = 0; action < CELLS; action++) {
+            // Whole numbers well below 2^53 add exactly
+            final double expected = THREADS * (double) ((ADDS_PER_THREAD + CELLS - 1 - action) / CELLS);
+            assertEquals(expected, table.get(1, action), 0.0);
+            assertEquals(0.0, table.get(0, action), 0.0);
+            total += table.get(1, action);
+        }
+        assertEquals((double) THREADS * ADDS_PER_THREAD, total, 0.0);
+    }
+
+    @Test
+    public void racyModeNeverInventsUpdates() throws Exception {
+        final AtomicQTable table = hammer(AtomicQTable.Mode.RACY);
+        double total = 0;
+        for (int action = 0; action < CELLS; action++) {
+            total += table.get(1, action);
+        }
+        assertTrue(total > 0 && total <= (double) THREADS * ADDS_PER_THREAD, "total " + total);
+    }
+}
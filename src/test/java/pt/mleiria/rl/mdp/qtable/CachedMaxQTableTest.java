@@ -0,0 +1,103 @@
+package pt.mleiria.rl.mdp.qtable;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.AgentResult;
+import pt.mleiria.runner.MainEvaluator;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the cached max, argmax and tie count always match a scan of the row.
+ */
+public class CachedMaxQTableTest {
+
+    private static void assertMatchesScan(DenseQTable dense, CachedMaxQTable cached, int state) {
+        assertEquals(dense.max(state), cached.max(state), 0.0);
+        assertEquals(dense.argMax(state), cached.argMax(state));
+        int ties = 0;
+        for (int action = 0; action < dense.getNumActions(); action++) {
+            if (dense.get(state, action) == dense.max(state)) {
+                ties++;
+            }
+        }
+        assertEquals(ties, cached.maxCount(state));
+    }
+
+    @Test
+    public void matchesScanUnderRandomWrites() {
+        final DenseQTable dense = new DenseQTable(20, 8);
+        final CachedMaxQTable cached = new CachedMaxQTable(20, 8);
+        final RandomGenerator random = RandomUtils.newGenerator(42);
+        for (int i = 0; i < 100_000; i++) {
+            final int state = random.nextInt(20);
+            final int action = random.nextInt(8);
+            // Few distinct values, so ties are frequent
+            final double value = random.nextInt(5) - 2;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    dense.set(state, action, value);
+                    cached.set(state, action, value);
+                }
+                case 1 -> {
+                    dense.add(state, action, value);
+                    cached.add(state, action, value);
+                }
+                default -> {
+                    // Set the value to the current maximum, to create a tie
+                    dense.set(state, action, dense.max(state));
+                    cached.set(state, action, dense.max(state));
+                }
+            }
+            assertMatchesScan(dense, cached, state);
+        }
+        assertTrue(cached.getRescans() > 0);
+    }
+
+    @Test
+    public void newTableTiesEveryAction() {
+        final CachedMaxQTable cached = new CachedMaxQTable(3, 5);
+        assertEquals(5, cached.maxCount(2));
+        cached.add(2, 3, -1.0);
+        assertEquals(4, cached.maxCount(2));
+        assertEquals(0, cached.argMax(2));
+        cached.add(2, 0, -1.0);
+        assertEquals(1, cached.argMax(2));
+        cached.set(2, 4, 0.5);
+        assertEquals(4, cached.argMax(2));
+        assertEquals(1, cached.maxCount(2));
+        assertEquals(0.5, cached.max(2), 0.0);
+    }
+
+    /**
+     * The agent's scan draws from its generator on running ties, which the cached path skips, so the runs are
+     * not step-for-step identical; the cache must still hold after real training and the agent must learn.
+     */
+    @Test
+    public void agentLearnsTaxiOnCachedTable() {
+        final DenseQTable dense = new DenseQTable(500, 6);
+        final CachedMaxQTable cached = new CachedMaxQTable(500, 6);
+        final AgentResult result = MainEvaluator.trainAgent(new QLearningAgent(cached, RandomUtils.newGenerator(1)),
+                new TaxiEnvironment(RandomUtils.newGenerator(2)), 2000, null, RandomUtils.newGenerator(3));
+        final double[] row = new double[6];
+        for (int state = 0; state < 500; state++) {
+            cached.copyRow(state, row);
+            for (int action = 0; action < 6; action++) {
+                dense.set(state, action, row[action]);
+            }
+            assertMatchesScan(dense, cached, state);
+        }
+        final List<Double> rewards = result.episodeRewards();
+        double total = 0;
+        for (int episode = rewards.size() - 100; episode < rewards.size(); episode++) {
+            total += rewards.get(episode);
+        }
+        assertTrue(total / 100 > 0, "average reward of the last 100 episodes: " + total / 100);
+    }
+}
@@ -0,0 +1,91 @@
+package pt.mleiria.rl.mdp.qtable;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.runner.MainEvaluator;
+
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the sparse table behaves exactly like a dense one while storing only written states.
+ */
+public class HashedQTableTest {
+
+    @Test
+    public void matchesDenseTableThroughResizes() {
+        final int numStates = 1_000_000;
+        final DenseQTable dense = new DenseQTable(numStates, 4);
+        final HashedQTable hashed = new HashedQTable(numStates, 4, 0.0, 2, 0.75);
+        final RandomGenerator random = RandomUtils.newGenerator(42);
+        for (int i = 0; i < 50_000; i++) {
+            // A small hot set and a long tail, so rows are both reused and created
+            final int state = random.nextBoolean() ? random.nextInt(64) : random.nextInt(numStates);
+            final int action = random.nextInt(4);
+            final double value = random.nextDouble() - 0.5;
+            if (random.nextBoolean()) {
+                dense.add(state, action, value);
+                hashed.add(state, action, value);
+            } else {
+                dense.set(state, action, value);
+                hashed.set(state, action, value);
+            }
+            final int probe = random.nextInt(numStates);
+            assertEquals(dense.max(probe), hashed.max(probe), 0.0);
+            assertEquals(dense.argMax(state), hashed.argMax(state));
+            assertEquals(dense.get(state, action), hashed.get(state, action), 0.0);
+        }
+        final double[] expected = new double[4];
+        final double[] actual = new double[4];
+        for (int state = 0; state < 64; state++) {
+            assertArrayEquals(dense.copyRow(state, expected), hashed.copyRow(state, actual), 0.0);
+        }
+        assertTrue(hashed.getStoredStates() < 50_000);
+        assertTrue(hashed.sizeInBytes() < 8L * numStates * 4 / 10);
+    }
+
+    @Test
+    public void unvisitedStatesReadAsTheDefaultWithoutAllocating() {
+        final HashedQTable table = new HashedQTable(10, 3, 5.0);
+        assertEquals(5.0, table.get(7, 2), 0.0);
+        assertEquals(5.0, table.max(7), 0.0);
+        assertEquals(0, table.argMax(7));
+        assertEquals(0, table.getStoredStates());
+
+        table.add(7, 1, 1.0);
+        assertEquals(1, table.getStoredStates());
+        assertEquals(6.0, table.get(7, 1), 0.0);
+        assertEquals(5.0, table.get(7, 0), 0.0);
+        assertEquals(1, table.argMax(7));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.set(10, 0, 1.0));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.get(-1, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.max(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.argMax(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.get(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new HashedQTable(10, 3, 0.0, 16, 1.0));
+    }
+
+    @Test
+    public void agentsTrainIdenticallyOnDenseAndHashedTables() {
+        final DenseQTable dense = train(new DenseQTable(500, 6));
+        final HashedQTable hashed = train(new HashedQTable(500, 6));
+        for (int state = 0; state < 500; state++) {
+            for (int action = 0; action < 6; action++) {
+                assertEquals(dense.get(state, action), hashed.get(state, action), 0.0);
+            }
+        }
+    }
+
+    private static <T extends QTable> T train(T table) {
+        final TaxiEnvironment env = new TaxiEnvironment(RandomUtils.newGenerator(1));
+        final QLearningAgent agent = new QLearningAgent(table, RandomUtils.newGenerator(2));
+        MainEvaluator.trainAgent(agent, env, 300, null, RandomUtils.newGenerator(3));
+        return table;
+    }
+}
@@ -0,0 +1,90 @@
+package pt.mleiria.rl.mdp.qtable;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.agent.BoltzmannAgent;
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.agent.SARSAAgent;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+
+import java.util.random.RandomGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks the float and fixed-point tables against a double table, within their precision.
+ */
+public class ReducedPrecisionQTableTest {
+
+    private static void assertTracksDense(QTable table, double tolerance) {
+        final DenseQTable dense = new DenseQTable(table.getNumStates(), table.getNumActions());
+        final RandomGenerator random = RandomUtils.newGenerator(42);
+        for (int i = 0; i < 10_000; i++) {
+            final int state = random.nextInt(table.getNumStates());
+            final int action = random.nextInt(table.getNumActions());
+            final double value = random.nextDouble(-100.0, 100.0);
+            // Reset the value now and then, so rounding errors of the adds do not accumulate
+            if (i % 8 == 0) {
+                dense.set(state, action, value);
+                table.set(state, action, value);
+            } else {
+                dense.add(state, action, value / 100.0);
+                table.add(state, action, value / 100.0);
+            }
+            assertEquals(dense.get(state, action), table.get(state, action), tolerance);
+            assertEquals(dense.max(state), table.max(state), tolerance);
+        }
+    }
+
+    @Test
+    public void floatTableRoundsToSinglePrecision() {
+        final FloatQTable table = new FloatQTable(50, 4);
+        assertTracksDense(table, 1e-3);
+        table.set(3, 1, 0.1);
+        assertEquals((float) 0.1, table.get(3, 1), 0.0);
+        assertEquals(50 * 4 * Float.BYTES, table.sizeInBytes());
+    }
+
+    @Test
+    public void fixedPointTableRoundsToItsResolution() {
+        final FixedPointQTable table = new FixedPointQTable(50, 4, 128.0);
+        assertEquals(128.0 / Short.MAX_VALUE, table.getResolution(), 0.0);
+        assertTracksDense(table, 8 * table.getResolution());
+        assertEquals(50 * 4 * Short.BYTES, table.sizeInBytes());
+
+        // An update below half a step is lost
+        table.set(0, 0, 1.0);
+        final double before = table.get(0, 0);
+        table.add(0, 0, table.getResolution() / 4);
+        assertEquals(before, table.get(0, 0), 0.0);
+    }
+
+    @Test
+    public void fixedPointTableSaturates() {
+        final FixedPointQTable table = new FixedPointQTable(2, 3, 10.0);
+        table.set(0, 0, 9.0);
+        table.add(0, 0, 5.0);
+        assertEquals(10.0, table.get(0, 0), 0.0);
+        table.set(0, 1, -1e9);
+        assertEquals(-10.0, table.get(0, 1), 0.0);
+        table.add(0, 1, -1.0);
+        assertEquals(-10.0, table.get(0, 1), 0.0);
+        table.set(0, 2, 3.0);
+        assertEquals(0, table.argMax(0));
+        assertEquals(10.0, table.max(0), 0.0);
+        assertThrows(IllegalArgumentException.class, () -> new FixedPointQTable(2, 3, 0.0));
+    }
+
+    @Test
+    public void agentsCreateTablesOfTheRequestedPrecision() {
+        assertInstanceOf(DenseQTable.class, new QLearningAgent(10, 4, QTablePrecision.DOUBLE, 2048.0).getTable());
+        assertInstanceOf(FloatQTable.class, new SARSAAgent(10, 4, QTablePrecision.FLOAT, 2048.0).getTable());
+        final FixedPointQTable wide = (FixedPointQTable)
+                new BoltzmannAgent(10, 4, QTablePrecision.FIXED16, 2048.0, 0.5, 0.99, 0.1).getTable();
+        assertEquals(2048.0, wide.getRange(), 0.0);
+        final FixedPointQTable narrow = (FixedPointQTable)
+                new QLearningAgent(10, 4, QTablePrecision.FIXED16, 16.0).getTable();
+        assertEquals(16.0, narrow.getRange(), 0.0);
+    }
+}
@@ -0,0 +1,64 @@
+package pt.mleiria.rl.mdp.solver;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.env.CliffWalkingEnvironment;
+import pt.mleiria.rl.mdp.env.FrozenLakeEnvironment;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.vo.SolverResult;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks the exact solvers against optimal values that can be worked out by hand.
+ */
+public class MdpSolverTest {
+
+    private static final double GAMMA = 0.9;
+    private static final double THETA = 1e-10;
+
+    @Test
+    public void frozenLakeStartValueIsDiscountedGoalReward() {
+        final TransitionModel model = ModelExtractor.extract(new FrozenLakeEnvironment());
+        assertEquals(16 * 4, model.getNumTransitions());
+
+        // The shortest safe path is 6 steps, and only the last one is rewarded
+        final SolverResult result = ValueIteration.solve(model, GAMMA, THETA, 1000);
+        assertEquals(Math.pow(GAMMA, 5), result.values()[0], 1e-9);
+        assertEquals(result.values()[0], result.qTable().max(0), 1e-9);
+    }
+
+    @Test
+    public void cliffWalkingStartValueIsShortestPathCost() {
+        final TransitionModel model = ModelExtractor.extract(new CliffWalkingEnvironment());
+
+        // Up, eleven steps right, down: 13 steps at -1 each, skirting the cliff
+        double expected = 0.0;
+        for (int k = 0; k < 13; k++) {
+            expected -= Math.pow(GAMMA, k);
+        }
+        final SolverResult result = ValueIteration.solve(model, GAMMA, THETA, 1000);
+        assertEquals(expected, result.values()[36], 1e-9);
+        assertEquals(0, result.policy()[36]);
+    }
+
+    @Test
+    public void valueAndPolicyIterationAgreeOnTaxi() {
+        final TransitionModel model = ModelExtractor.extract(new TaxiEnvironment());
+        final SolverResult vi = ValueIteration.solve(model, GAMMA, THETA, 10_000);
+        final SolverResult pi = PolicyIteration.solve(model, GAMMA, THETA, 1000);
+
+        assertArrayEquals(vi.values(), pi.values(), 1e-6);
+        // Policies may differ on ties, but each must be greedy with respect to the shared values
+        for (int state = 0; state < model.getNumStates(); state++) {
+            assertEquals(vi.qTable().max(state), pi.qTable().get(state, pi.policy()[state]), 1e-6);
+        }
+    }
+
+    @Test
+    public void rejectsUndiscountedProblems() {
+        final TransitionModel model = ModelExtractor.extract(new FrozenLakeEnvironment());
+        assertThrows(IllegalArgumentException.class, () -> ValueIteration.solve(model, 1.0, THETA, 10));
+    }
+}
@@ -0,0 +1,122 @@
+package pt.mleiria.runner;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.agent.Agent;
+import pt.mleiria.rl.mdp.agent.BoltzmannAgent;
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.agent.SARSAAgent;
+import pt.mleiria.rl.mdp.agent.SARSALambdaAgent;
+import pt.mleiria.rl.mdp.agent.WatkinsQLambdaAgent;
+import pt.mleiria.rl.mdp.env.vector.TaxiVectorEnvironment;
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.qtable.QTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.AgentResult;
+import pt.mleiria.rl.mdp.vo.AgentType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that batched training, with its batched action choice and in-place updates on a dense table, learns
+ * exactly what one-transition-at-a-time calls on the same agent and environment would.
+ */
+public class BatchedTrainingTest {
+
+    private static final int NUM_ENVS = 8;
+    private static final int EPISODES = 300;
+
+    /**
+     * The loop of {@link MainEvaluator#trainAgentBatched}, with every batched agent call replaced by
+     * per-slot scalar calls in slot order.
+     */
+    private static AgentResult trainScalar(Agent agent, TaxiVectorEnvironment env, int episodes) {
+        final int[] states = new int[NUM_ENVS];
+        final int[] actions = new int[NUM_ENVS];
+        final int[] nextStates = new int[NUM_ENVS];
+        final int[] nextActions = new int[NUM_ENVS];
+        final double[] rewards = new double[NUM_ENVS];
+        final boolean[] dones = new boolean[NUM_ENVS];
+        final double[] runningRewards = new double[NUM_ENVS];
+        final List<Double> episodeRewards = new ArrayList<>();
+        final var random = RandomUtils.newGenerator(3);
+        final boolean onPolicy = AgentType.isOnPolicy(AgentType.valueOf(agent.getName()));
+
+        env.reset(states);
+        for (int i = 0; i < NUM_ENVS; i++) {
+            actions[i] = onPolicy ? agent.chooseAction(states[i]) : random.nextInt(env.getNumActions());
+        }
+        while (episodeRewards.size() < episodes) {
+            env.step(actions, nextStates, rewards, dones);
+            for (int i = 0; i < NUM_ENVS; i++) {
+                nextActions[i] = agent.chooseAction(nextStates[i]);
+            }
+            for (int i = 0; i < NUM_ENVS; i++) {
+                agent.update(states[i], actions[i], rewards[i], nextStates[i], nextActions[i]);
+            }
+            for (int i = 0; i < NUM_ENVS; i++) {
+                runningRewards[i] += rewards[i];
+                if (dones[i]) {
+                    if (episodeRewards.size() < episodes) {
+                        episodeRewards.add(runningRewards[i]);
+                    }
+                    runningRewards[i] = 0;
+                    agent.reduceEpsilon();
+                    states[i] = env.state(i);
+                    actions[i] = onPolicy ? agent.chooseAction(states[i]) : random.nextInt(env.getNumActions());
+                } else {
+                    states[i] = nextStates[i];
+                    actions[i] = nextActions[i];
+                }
+            }
+        }
+        return new AgentResult(agent.getTable(), episodeRewards);
+    }
+
+    private static void assertBatchedMatchesScalar(Function<QTable, Agent> factory) {
+        final TaxiVectorEnvironment batchedEnv = new TaxiVectorEnvironment(NUM_ENVS, RandomUtils.newGenerator(1));
+        final TaxiVectorEnvironment scalarEnv = new TaxiVectorEnvironment(NUM_ENVS, RandomUtils.newGenerator(1));
+        final Agent batchedAgent = factory.apply(new DenseQTable(batchedEnv.getNumStates(), batchedEnv.getNumActions()));
+        final Agent scalarAgent = factory.apply(new DenseQTable(scalarEnv.getNumStates(), scalarEnv.getNumActions()));
+
+        final AgentResult batched = MainEvaluator.trainAgentBatched(batchedAgent, batchedEnv, EPISODES,
+                RandomUtils.newGenerator(3));
+        final AgentResult scalar = trainScalar(scalarAgent, scalarEnv, EPISODES);
+
+        assertEquals(scalar.episodeRewards(), batched.episodeRewards());
+        final double[][] expected = scalar.qTable().toArray();
+        final double[][] actual = batched.qTable().toArray();
+        for (int state = 0; state < expected.length; state++) {
+            assertArrayEquals(expected[state], actual[state], "State " + state);
+        }
+    }
+
+    @Test
+    public void batchedQLearningMatchesScalar() {
+        assertBatchedMatchesScalar(table -> new QLearningAgent(table, RandomUtils.newGenerator(2)));
+    }
+
+    @Test
+    public void batchedSarsaMatchesScalar() {
+        assertBatchedMatchesScalar(table -> new SARSAAgent(table, RandomUtils.newGenerator(2)));
+    }
+
+    @Test
+    public void batchedBoltzmannMatchesScalar() {
+        assertBatchedMatchesScalar(table -> new BoltzmannAgent(table, 0.5, 0.99, 0.1, RandomUtils.newGenerator(2)));
+    }
+
+    @Test
+    public void traceAgentsAreRejected() {
+        final TaxiVectorEnvironment env = new TaxiVectorEnvironment(NUM_ENVS, RandomUtils.newGenerator(1));
+        assertThrows(IllegalArgumentException.class, () -> MainEvaluator.trainAgentBatched(
+                new SARSALambdaAgent(env.getNumStates(), env.getNumActions()), env, 10));
+        assertThrows(IllegalArgumentException.class, () -> MainEvaluator.trainAgentBatched(
+                new WatkinsQLambdaAgent(env.getNumStates(), env.getNumActions()), env, 10));
+    }
+}
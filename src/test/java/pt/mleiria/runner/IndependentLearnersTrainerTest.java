@@ -0,0 +1,92 @@
+package pt.mleiria.runner;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.agent.Agent;
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.env.PrisionersDilemmaEnvironment;
+import pt.mleiria.rl.mdp.env.marl.MultiMouseEnvironment;
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.AgentResult;
+import pt.mleiria.rl.mdp.vo.MutableMultiAgentStepResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks per-agent observations and that independent learners improve on their own small tables.
+ */
+public class IndependentLearnersTrainerTest {
+
+    private static Agent[] qLearners(int count, int numStates, int numActions) {
+        final Agent[] agents = new Agent[count];
+        for (int i = 0; i < count; i++) {
+            agents[i] = new QLearningAgent(new DenseQTable(numStates, numActions), RandomUtils.newGenerator(10 + i));
+        }
+        return agents;
+    }
+
+    private static double average(List<Double> rewards, int from, int to) {
+        double total = 0;
+        for (int e = from; e < to; e++) {
+            total += rewards.get(e);
+        }
+        return total / (to - from);
+    }
+
+    @Test
+    public void miceObserveOnlyThemselves() {
+        final MultiMouseEnvironment env = new MultiMouseEnvironment();
+        final MutableMultiAgentStepResult result = new MutableMultiAgentStepResult(2);
+        assertEquals(400, env.getNumStates());
+        assertEquals(0, env.getObservation(0));
+        assertEquals(0, env.getObservation(1));
+
+        // Mouse 1 goes south, mouse 2 east
+        env.step(new int[]{1, 2}, result);
+        assertEquals(10, result.nextState1());
+        assertEquals(1, result.nextState2());
+        assertEquals(result.nextState1(), env.getObservation(0));
+        assertTrue(env.getJointState() < env.getNumJointStates());
+    }
+
+    @Test
+    public void independentLearnersImproveOnMultiMouse() {
+        final MultiMouseEnvironment env = new MultiMouseEnvironment();
+        final Agent[] agents = qLearners(2, env.getNumStates(), env.getNumActions());
+        final AgentResult[] results = IndependentLearnersTrainer.trainAgents(agents, env, 5000, 500,
+                RandomUtils.newGenerator(3));
+        assertEquals(2, results.length);
+        for (AgentResult result : results) {
+            assertEquals(5000, result.episodeRewards().size());
+            assertEquals(400, result.qTable().getNumStates());
+            final double first = average(result.episodeRewards(), 0, 500);
+            final double last = average(result.episodeRewards(), 4500, 5000);
+            assertTrue(last > first, "reward went from " + first + " to " + last);
+        }
+    }
+
+    @Test
+    public void prisonersPlayFixedLengthEpisodes() {
+        final PrisionersDilemmaEnvironment env = new PrisionersDilemmaEnvironment(10);
+        final Agent[] agents = qLearners(2, env.getNumStates(), env.getNumActions());
+        final AgentResult[] results = IndependentLearnersTrainer.trainAgents(agents, env, 200, 100,
+                RandomUtils.newGenerator(4));
+        // Ten rounds, each paying between -10 and 0
+        for (AgentResult result : results) {
+            for (double reward : result.episodeRewards()) {
+                assertTrue(reward >= -100 && reward <= 0, "episode reward " + reward);
+            }
+        }
+    }
+
+    @Test
+    public void agentCountMustMatch() {
+        final MultiMouseEnvironment env = new MultiMouseEnvironment();
+        assertThrows(IllegalArgumentException.class, () -> IndependentLearnersTrainer.trainAgents(
+                qLearners(1, env.getNumStates(), env.getNumActions()), env, 1, 10));
+    }
+}
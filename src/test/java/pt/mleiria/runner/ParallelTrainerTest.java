@@ -0,0 +1,53 @@
+package pt.mleiria.runner;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.qtable.AtomicQTable;
+import pt.mleiria.rl.mdp.vo.AgentResult;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that parallel training plays and reports every episode exactly once.
+ */
+public class ParallelTrainerTest {
+
+    private static final int THREADS = 4;
+    private static final int EPISODES_PER_THREAD = 250;
+
+    private static double average(List<Double> rewards) {
+        return rewards.stream().mapToDouble(Double::doubleValue).average().orElseThrow();
+    }
+
+    @Test
+    public void mergedResultHoldsEveryWorkersEpisodes() throws InterruptedException {
+        final AtomicInteger resets = new AtomicInteger();
+        final int episodes = EPISODES_PER_THREAD * THREADS;
+        final AgentResult result = ParallelTrainer.trainAgent(QLearningAgent::new, random -> new TaxiEnvironment(random) {
+            // False while the superclass constructor runs its own reset
+            private boolean constructed = true;
+
+            @Override
+            public int reset() {
+                if (constructed) {
+                    resets.incrementAndGet();
+                }
+                return super.reset();
+            }
+        }, episodes, THREADS, AtomicQTable.Mode.CAS, 42);
+
+        assertEquals(episodes, result.episodeRewards().size());
+        assertEquals(episodes, resets.get());
+        assertInstanceOf(AtomicQTable.class, result.qTable());
+        // The workers learned together: late episodes do far better than the first ones
+        final double first = average(result.episodeRewards().subList(0, 100));
+        final double last = average(result.episodeRewards().subList(episodes - 100, episodes));
+        assertTrue(last > first, "first " + first + ", last " + last);
+    }
+}
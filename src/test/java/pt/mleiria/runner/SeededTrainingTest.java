@@ -0,0 +1,45 @@
+package pt.mleiria.runner;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.env.MouseEnvironment;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.qtable.AtomicQTable;
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.AgentResult;
+
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that training runs are reproducible when all randomness comes from one seed.
+ */
+public class SeededTrainingTest {
+
+    private static AgentResult trainTaxi(long seed) {
+        final SplittableGenerator root = RandomUtils.newGenerator(seed);
+        final TaxiEnvironment env = new TaxiEnvironment(root.split());
+        final QLearningAgent agent = new QLearningAgent(new DenseQTable(env.getNumStates(), env.getNumActions()), root.split());
+        return MainEvaluator.trainAgent(agent, env, 500, null, root.split());
+    }
+
+    @Test
+    public void sameSeedGivesSameTraining() {
+        final AgentResult first = trainTaxi(7);
+        final AgentResult second = trainTaxi(7);
+        assertEquals(first.episodeRewards(), second.episodeRewards());
+        assertArrayEquals(((DenseQTable) first.qTable()).values(), ((DenseQTable) second.qTable()).values());
+    }
+
+    @Test
+    public void sameSeedGivesSameSingleThreadedParallelTraining() throws InterruptedException {
+        final AgentResult first = ParallelTrainer.trainAgent(QLearningAgent::new, MouseEnvironment::new,
+                500, 1, AtomicQTable.Mode.CAS, 11);
+        final AgentResult second = ParallelTrainer.trainAgent(QLearningAgent::new, MouseEnvironment::new,
+                500, 1, AtomicQTable.Mode.CAS, 11);
+        assertEquals(first.episodeRewards(), second.episodeRewards());
+    }
+}
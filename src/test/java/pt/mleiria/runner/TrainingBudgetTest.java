@@ -0,0 +1,80 @@
+package pt.mleiria.runner;
+
+import org.junit.jupiter.api.Test;
+import pt.mleiria.rl.mdp.agent.QLearningAgent;
+import pt.mleiria.rl.mdp.env.FrozenLakeEnvironment;
+import pt.mleiria.rl.mdp.env.TaxiEnvironment;
+import pt.mleiria.rl.mdp.qtable.DenseQTable;
+import pt.mleiria.rl.mdp.utils.RandomUtils;
+import pt.mleiria.rl.mdp.vo.StopReason;
+import pt.mleiria.rl.mdp.vo.TrainingBudget;
+import pt.mleiria.rl.mdp.vo.TrainingReport;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks each way a budgeted training run can stop.
+ */
+public class TrainingBudgetTest {
+
+    private static TrainingReport trainTaxi(TrainingBudget budget) {
+        final TaxiEnvironment env = new TaxiEnvironment(RandomUtils.newGenerator(1));
+        final QLearningAgent agent = new QLearningAgent(new DenseQTable(env.getNumStates(), env.getNumActions()),
+                RandomUtils.newGenerator(2));
+        return MainEvaluator.trainAgent(agent, env, budget, RandomUtils.newGenerator(3));
+    }
+
+    @Test
+    public void stepCapTruncatesEpisodes() {
+        final TrainingReport report = trainTaxi(TrainingBudget.episodes(50).withMaxStepsPerEpisode(3));
+        assertEquals(StopReason.EPISODE_LIMIT, report.stopReason());
+        assertEquals(50, report.episodes());
+        assertTrue(report.totalSteps() <= 150);
+        // No pickup-and-dropoff fits in three steps
+        assertEquals(50, report.truncatedEpisodes());
+    }
+
+    @Test
+    public void wallClockBudgetStopsAfterFirstEpisode() {
+        // An unbounded episode limit must not reserve memory up front
+        final TrainingReport report = trainTaxi(TrainingBudget.episodes(Integer.MAX_VALUE).withMaxDuration(Duration.ZERO));
+        assertEquals(StopReason.WALL_CLOCK, report.stopReason());
+        assertEquals(1, report.episodes());
+    }
+
+    @Test
+    public void convergenceStopsWellBeforeEpisodeLimit() {
+        final TrainingReport converged = trainTaxi(TrainingBudget.episodes(1_000_000)
+                .withMaxStepsPerEpisode(200).withQConvergence(1e-3, 100));
+        assertEquals(StopReason.Q_CONVERGED, converged.stopReason());
+        assertTrue(converged.episodes() < 200_000);
+
+        final TrainingReport plateaued = trainTaxi(TrainingBudget.episodes(1_000_000)
+                .withMaxStepsPerEpisode(200).withRewardPlateau(500, 0.1));
+        assertEquals(StopReason.REWARD_PLATEAU, plateaued.stopReason());
+        assertTrue(plateaued.episodes() < 50_000);
+    }
+
+    @Test
+    public void flatUntrainedCurveDoesNotPlateau() {
+        // One step never reaches the FrozenLake goal, so every episode returns 0
+        final FrozenLakeEnvironment env = new FrozenLakeEnvironment();
+        final QLearningAgent agent = new QLearningAgent(new DenseQTable(env.getNumStates(), env.getNumActions()),
+                RandomUtils.newGenerator(2));
+        final TrainingReport report = MainEvaluator.trainAgent(agent, env, TrainingBudget.episodes(2000)
+                .withMaxStepsPerEpisode(1).withRewardPlateau(100, 0.01), RandomUtils.newGenerator(3));
+        assertEquals(StopReason.EPISODE_LIMIT, report.stopReason());
+        assertEquals(2000, report.episodes());
+    }
+
+    @Test
+    public void plateauWaitsForMinimumEpisodes() {
+        final TrainingReport report = trainTaxi(TrainingBudget.episodes(1_000_000)
+                .withMaxStepsPerEpisode(200).withRewardPlateau(500, 0.1, 20_000));
+        assertEquals(StopReason.REWARD_PLATEAU, report.stopReason());
+        assertTrue(report.episodes() >= 20_000);
+    }
+}